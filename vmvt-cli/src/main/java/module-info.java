@@ -1,4 +1,6 @@
 module org.monarchinitiative.vmvt.cli {
     requires org.monarchinitiative.vmvt.core;
+    // PNG output (-f png)
+    requires java.desktop;
     requires info.picocli;
 }
\ No newline at end of file
@@ -13,12 +13,16 @@ import java.util.concurrent.Callable;
 public class Main implements Callable<Integer> {
 
     public static void main(String[] args) {
+        // PNGs are drawn with Java2D, which must not look for a display
+        System.setProperty("java.awt.headless", "true");
         CommandLine cline = new CommandLine(new Main()).
                 addSubcommand("logo", new LogoCommand()).
                 addSubcommand("ruler", new RulerCommand()).
                 addSubcommand("walker", new WalkerCommand()).
                 addSubcommand("ese", new EseCommand()).
-                addSubcommand("delta", new DeltaCommand());
+                addSubcommand("delta", new DeltaCommand()).
+                addSubcommand("view", new ViewCommand()).
+                addSubcommand("batch", new BatchCommand());
         cline.setToggleBooleanFlags(false);
         int exitCode = cline.execute(args);
         System.exit(exitCode);
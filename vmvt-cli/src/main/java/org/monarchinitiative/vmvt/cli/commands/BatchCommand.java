@@ -0,0 +1,234 @@
+package org.monarchinitiative.vmvt.cli.commands;
+
+import org.monarchinitiative.vmvt.core.DiskRenderCache;
+import org.monarchinitiative.vmvt.core.OutputFormat;
+import org.monarchinitiative.vmvt.core.RenderCache;
+import org.monarchinitiative.vmvt.core.VmvtGenerator;
+import org.monarchinitiative.vmvt.core.batch.RenderedSvg;
+import org.monarchinitiative.vmvt.core.batch.VariantFile;
+import org.monarchinitiative.vmvt.core.batch.VariantRequest;
+import org.monarchinitiative.vmvt.core.batch.VmvtBatchRenderer;
+import picocli.CommandLine;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Render SVGs for all variants in a tab-separated file using a single {@link VmvtGenerator}.
+ * Each line of the input file has four fields: id, ref, alt, and the name of a view (see
+ * {@link VmvtGenerator#getViewNames()}). One SVG file called
+ * {@code <id>.svg} (or {@code <id>.svgz} with -z/--gzip, {@code <id>.png} with -f/--format png) is written to
+ * the output directory for each line. Ids must be unique and must not contain path separators or "..".
+ * Empty lines and lines that start with '#' are skipped. Instead of a TSV file, the input can be a binary
+ * {@link VariantFile} (detected by its first bytes), which --to-binary creates from a TSV file; its variants are
+ * numbered from 1. With --cache-dir, graphics are kept in a directory and variants that were rendered by a
+ * previous run are not rendered again. With --dedup, variants that occur more than once are only rendered once.
+ */
+@CommandLine.Command(name = "batch", aliases = {"B"}, mixinStandardHelpOptions = true, description = "Create SVGs for all variants in a TSV file")
+public class BatchCommand implements Callable<Integer> {
+    @CommandLine.Option(names = {"-i", "--in"}, required = true, description = "TSV file with id, ref, alt, view (or binary variant file)")
+    protected String infile;
+    @CommandLine.Option(names = {"-o", "--outdir"}, description = "directory for the SVG files")
+    protected String outdir = "vmvt-svg";
+    @CommandLine.Option(names = {"-t", "--threads"}, description = "number of rendering threads")
+    protected int threads = Runtime.getRuntime().availableProcessors();
+    @CommandLine.Option(names = {"-z", "--gzip"}, description = "write gzip-compressed SVGs (.svgz)")
+    protected boolean gzip;
+    @CommandLine.Option(names = {"-f", "--format"}, description = "output format: svg or png (default: svg)")
+    protected String format = "svg";
+    @CommandLine.Option(names = {"--cache-dir"}, description = "directory for graphics that are reused by later runs")
+    protected String cacheDir;
+    @CommandLine.Option(names = {"--cache-size"}, description = "maximum size of the cache directory in MiB (default: 1024)")
+    protected long cacheSize = 1024;
+    @CommandLine.Option(names = {"--dedup"}, description = "render duplicate variants once, remembering up to this many distinct variants (default: 0, off)")
+    protected int dedup = 0;
+    @CommandLine.Option(names = {"--to-binary"}, description = "write the variants of the TSV file to this binary variant file instead of rendering them")
+    protected String toBinary;
+
+    /** Number of SVG files written. Only accessed from the thread that reads the input file. */
+    private int written = 0;
+    /** Number of malformed lines and variants that could not be rendered. */
+    private int errors = 0;
+    /** Ids of the lines of the TSV file, to detect duplicates. Only accessed from the thread that reads the input file. */
+    private final Set<String> ids = new HashSet<>();
+
+    @Override
+    public Integer call() {
+        if (threads < 1) {
+            System.err.println("[ERROR] -t/--threads must be at least 1");
+            return 1;
+        }
+        if (dedup < 0) {
+            System.err.println("[ERROR] --dedup must not be negative");
+            return 1;
+        }
+        if (toBinary != null) {
+            return convert(new VmvtGenerator().getViewNames());
+        }
+        OutputFormat outputFormat = SequenceComparisonCommand.outputFormat(format, gzip);
+        Path outPath = Paths.get(outdir).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(outPath);
+        } catch (IOException e) {
+            System.err.println("[ERROR] Could not create output directory " + outdir + ": " + e.getMessage());
+            return 1;
+        }
+        DiskRenderCache diskCache = null;
+        if (cacheDir != null) {
+            try {
+                diskCache = new DiskRenderCache(Paths.get(cacheDir), cacheSize << 20);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("[ERROR] Could not open cache directory " + cacheDir + ": " + e.getMessage());
+                return 1;
+            }
+        }
+        RenderCache duplicates = dedup > 0 ? new RenderCache(dedup) : null;
+        VmvtGenerator vmvt = duplicates != null ? new VmvtGenerator(duplicates) : new VmvtGenerator();
+        Set<String> viewNames = vmvt.getViewNames();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        VmvtBatchRenderer renderer = new VmvtBatchRenderer(vmvt, executor, 4 * threads, false, outputFormat, diskCache);
+        long start = System.nanoTime();
+        try {
+            Path inPath = Paths.get(infile);
+            if (VariantFile.isVariantFile(inPath)) {
+                try (VariantFile.Reader reader = new VariantFile.Reader(Files.newInputStream(inPath))) {
+                    for (String view : reader.getViewNames()) {
+                        if (!viewNames.contains(view)) {
+                            System.err.println("[ERROR] Unrecognized view in " + infile + ": " + view);
+                            return 1;
+                        }
+                    }
+                    renderer.render(reader.requests(), result -> writeSvg(outPath, result));
+                }
+            } else {
+                try (BufferedReader reader = Files.newBufferedReader(inPath)) {
+                    renderer.render(tsvRequests(reader, viewNames), result -> writeSvg(outPath, result));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[ERROR] Could not process " + infile + ": " + e.getMessage());
+            return 1;
+        } catch (UncheckedIOException e) {
+            System.err.println("[ERROR] Could not process " + infile + ": " + e.getCause().getMessage());
+            return 1;
+        } finally {
+            executor.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("[INFO] Rendered %d SVGs (%d errors) in %.2f seconds (%.1f rows/sec)\n",
+                written, errors, seconds, written / seconds);
+        if (duplicates != null) {
+            System.out.printf("[INFO] Duplicates: %d graphics reused\n", duplicates.getHits());
+        }
+        if (diskCache != null) {
+            System.out.printf("[INFO] Cache: %d graphics reused, %d rendered, %d deleted\n",
+                    diskCache.getHits(), diskCache.getMisses(), diskCache.getEvictions());
+        }
+        return errors == 0 ? 0 : 1;
+    }
+
+    private Iterator<VariantRequest> tsvRequests(BufferedReader reader, Set<String> viewNames) {
+        return reader.lines()
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .map(line -> parseLine(line, viewNames))
+                .filter(Objects::nonNull)
+                .iterator();
+    }
+
+    /**
+     * Write the variants of the TSV file to a binary variant file.
+     * @param viewNames names of the views of the generator
+     * @return exit code
+     */
+    private Integer convert(Set<String> viewNames) {
+        long n;
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(infile));
+             OutputStream out = Files.newOutputStream(Paths.get(toBinary));
+             VariantFile.Writer writer = new VariantFile.Writer(out, viewNames)) {
+            Iterator<VariantRequest> requests = tsvRequests(reader, viewNames);
+            while (requests.hasNext()) {
+                VariantRequest request = requests.next();
+                try {
+                    writer.write(request);
+                } catch (RuntimeException e) {
+                    System.err.printf("[ERROR] %s: %s\n", request.getId(), e.getMessage());
+                    errors++;
+                }
+            }
+            n = writer.getCount();
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("[ERROR] Could not convert " + infile + ": " + e.getMessage());
+            return 1;
+        }
+        System.out.printf("[INFO] Wrote %d variants (%d errors) to %s\n", n, errors, toBinary);
+        return errors == 0 ? 0 : 1;
+    }
+
+    /**
+     * @param line      a line of the input file
+     * @param viewNames names of the views of the generator
+     * @return the corresponding request or null if the line is malformed
+     */
+    private VariantRequest parseLine(String line, Set<String> viewNames) {
+        String[] fields = line.split("\t");
+        if (fields.length != 4) {
+            System.err.printf("[ERROR] Expected 4 fields (id, ref, alt, view) but got %d: %s\n", fields.length, line);
+            errors++;
+            return null;
+        }
+        String view = fields[3].trim();
+        if (!viewNames.contains(view)) {
+            System.err.printf("[ERROR] %s: Unrecognized view: %s\n", fields[0], view);
+            errors++;
+            return null;
+        }
+        String id = fields[0].trim();
+        if (id.isEmpty() || id.contains("/") || id.contains("\\") || id.contains("..")) {
+            System.err.printf("[ERROR] Invalid id (must not be empty or contain '/', '\\' or '..'): %s\n", id);
+            errors++;
+            return null;
+        }
+        if (!ids.add(id)) {
+            System.err.printf("[ERROR] %s: Duplicate id\n", id);
+            errors++;
+            return null;
+        }
+        return new VariantRequest(id, fields[1].trim(), fields[2].trim(), view);
+    }
+
+    private void writeSvg(Path outPath, RenderedSvg result) throws IOException {
+        String id = result.getRequest().getId();
+        if (!result.isSuccess()) {
+            System.err.printf("[ERROR] %s: %s\n", id, result.getError().getMessage());
+            errors++;
+            return;
+        }
+        Path file = outPath.resolve(id + "." + result.getFormat().getExtension()).normalize();
+        if (!file.startsWith(outPath)) {
+            System.err.printf("[ERROR] %s: Output file would be outside of %s\n", id, outdir);
+            errors++;
+            return;
+        }
+        if (result.getFormat() != OutputFormat.SVG) {
+            Files.write(file, result.getBytes());
+        } else {
+            try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+                writer.write(result.getSvg());
+            }
+        }
+        written++;
+    }
+}
@@ -2,11 +2,9 @@ package org.monarchinitiative.vmvt.cli.commands;
 
 
 import org.monarchinitiative.vmvt.core.VmvtGenerator;
+import org.monarchinitiative.vmvt.core.VmvtView;
 import picocli.CommandLine;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.concurrent.Callable;
 
 @CommandLine.Command(name = "delta", aliases = {"D"}, mixinStandardHelpOptions = true, description = "Create Delta svg")
@@ -28,13 +26,8 @@ public class DeltaCommand extends SequenceComparisonCommand implements Callable<
             System.err.println("[ERROR] -r/--ref cannot be null (it should have the reference sequence");
             System.exit(1);
         }
-        // same function for acceptor and donor, the Delta class figures out the length.
-        String svg = vmvt.getDelta(reference, alternate);
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(outname))) {
-            writer.write(svg);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        // same view for acceptor and donor, the generator figures out the length.
+        writeSvg(vmvt, VmvtView.DISTRIBUTION);
         return 0;
     }
 }
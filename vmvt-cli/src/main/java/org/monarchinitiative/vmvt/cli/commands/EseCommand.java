@@ -2,11 +2,9 @@ package org.monarchinitiative.vmvt.cli.commands;
 
 
 import org.monarchinitiative.vmvt.core.VmvtGenerator;
+import org.monarchinitiative.vmvt.core.VmvtView;
 import picocli.CommandLine;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.concurrent.Callable;
 
 /**
@@ -22,7 +20,6 @@ public class EseCommand extends SequenceComparisonCommand implements Callable<In
     @Override
     public Integer call() {
         VmvtGenerator vmvt = new VmvtGenerator();
-        String svg="";
         if (this.infile != null && this.reference==null && this.alternate==null) {
             readInputFile();
         }
@@ -34,15 +31,12 @@ public class EseCommand extends SequenceComparisonCommand implements Callable<In
             System.exit(1);
         }
         if (eseLength == 6) {
-            svg = vmvt.getHexamerSvg(reference, alternate);
+            writeSvg(vmvt, VmvtView.HEXAMER);
         } else if (eseLength == 7) {
-            svg = vmvt.getHeptamerSvg(reference, alternate);
-        }
-
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(outname))) {
-            writer.write(svg);
-        } catch (IOException e) {
-            e.printStackTrace();
+            writeSvg(vmvt, VmvtView.HEPTAMER);
+        } else {
+            System.err.println("[ERROR] -l/--len must be 6 (hexamer) or 7 (heptamer)");
+            return 1;
         }
         return 0;
     }
@@ -1,11 +1,13 @@
 package org.monarchinitiative.vmvt.cli.commands;
 
+import org.monarchinitiative.vmvt.core.OutputFormat;
 import org.monarchinitiative.vmvt.core.VmvtGenerator;
 import picocli.CommandLine;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.concurrent.Callable;
 
 /**
@@ -21,21 +23,24 @@ public class LogoCommand implements Callable<Integer> {
     public boolean isAcceptor;
     @CommandLine.Option(names = {"-o","--out"})
     public String outname = "logo.svg";
+    @CommandLine.Option(names = {"-z", "--gzip"}, description = "write gzip-compressed SVG (.svgz)")
+    public boolean gzip;
+    @CommandLine.Option(names = {"-f", "--format"}, description = "output format: svg or png (default: svg)")
+    public String format = "svg";
 
     @Override
     public Integer call() {
         VmvtGenerator vmvt = new VmvtGenerator();
-        String svg;
         if (isAcceptor && isDonor) {
             System.err.println("[ERROR] Enter only one of -d/--donor or -a/--acceptor!");
         }
-        if (isDonor) {
-            svg = vmvt.getDonorLogoSvg();
-        } else {
-            svg = vmvt.getAcceptorLogoSvg();
-        }
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(outname))) {
-            writer.write(svg);
+        OutputFormat outputFormat = SequenceComparisonCommand.outputFormat(format, gzip);
+        try (OutputStream out = Files.newOutputStream(Paths.get(outputFormat.fileName(outname)))) {
+            if (isDonor) {
+                vmvt.writeDonorLogo(outputFormat, out);
+            } else {
+                vmvt.writeAcceptorLogo(outputFormat, out);
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
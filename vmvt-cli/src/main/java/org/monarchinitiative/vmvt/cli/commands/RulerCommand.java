@@ -1,9 +1,9 @@
 package org.monarchinitiative.vmvt.cli.commands;
 
 import org.monarchinitiative.vmvt.core.VmvtGenerator;
+import org.monarchinitiative.vmvt.core.VmvtView;
 import picocli.CommandLine;
 
-import java.io.*;
 import java.util.concurrent.Callable;
 
 /**
@@ -17,19 +17,8 @@ public class RulerCommand extends SequenceComparisonCommand implements Callable<
     @Override
     public Integer call() {
         VmvtGenerator vmvt = new VmvtGenerator();
-        String svg;
         initSequences();
-        if (seqlen == 9) {
-            // donor
-            svg= vmvt.getDonorSequenceRuler(this.reference, this.alternate);
-        } else {
-            svg = vmvt.getAcceptorSequenceRuler(this.reference, this.alternate);
-        }
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(outname))) {
-            writer.write(svg);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        writeSvg(vmvt, VmvtView.RULER);
         return 0;
     }
 }
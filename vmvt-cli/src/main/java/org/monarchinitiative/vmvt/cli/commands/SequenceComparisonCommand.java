@@ -1,9 +1,15 @@
 package org.monarchinitiative.vmvt.cli.commands;
 
+import org.monarchinitiative.vmvt.core.OutputFormat;
+import org.monarchinitiative.vmvt.core.VmvtGenerator;
+import org.monarchinitiative.vmvt.core.VmvtView;
 import picocli.CommandLine;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.List;
 
 public class SequenceComparisonCommand {
@@ -16,6 +22,10 @@ public class SequenceComparisonCommand {
     protected String alternate;
     @CommandLine.Option(names = {"-i", "--in"})
     protected String infile;
+    @CommandLine.Option(names = {"-z", "--gzip"}, description = "write gzip-compressed SVG (.svgz)")
+    protected boolean gzip;
+    @CommandLine.Option(names = {"-f", "--format"}, description = "output format: svg or png (default: svg)")
+    protected String format = "svg";
     /** Length of the sequences. Must be either 9 (donor) or 27 (acceptor) */
     protected int seqlen;
 
@@ -54,6 +64,50 @@ public class SequenceComparisonCommand {
     }
 
 
+    /**
+     * Stream the graphic for the reference and alternate sequences straight to the output file in the format
+     * chosen with -f/--format and -z/--gzip.
+     * @param vmvt generator for the SVG
+     * @param view the kind of graphic to create
+     */
+    protected void writeSvg(VmvtGenerator vmvt, VmvtView view) {
+        writeSvg(vmvt, view.getName());
+    }
+
+    /**
+     * @param vmvt     generator for the SVG
+     * @param viewName name of a view that is registered with the generator
+     */
+    protected void writeSvg(VmvtGenerator vmvt, String viewName) {
+        OutputFormat outputFormat = outputFormat(format, gzip);
+        try (OutputStream out = Files.newOutputStream(Paths.get(outputFormat.fileName(outname)))) {
+            vmvt.writeImage(viewName, reference, alternate, outputFormat, out);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Determine the output format from the -f/--format and -z/--gzip options. If the options are invalid, the
+     * function exits with an error message.
+     * @param format svg or png
+     * @param gzip   true if the SVG is to be compressed
+     * @return the output format
+     */
+    static OutputFormat outputFormat(String format, boolean gzip) {
+        if (format.equals("svg")) {
+            return gzip ? OutputFormat.SVGZ : OutputFormat.SVG;
+        } else if (format.equals("png") && !gzip) {
+            return OutputFormat.PNG;
+        } else if (format.equals("png")) {
+            System.err.println("[ERROR] -z/--gzip can only be used with SVG output");
+        } else {
+            System.err.println("[ERROR] -f/--format must be svg or png but was " + format);
+        }
+        System.exit(1);
+        return null;
+    }
+
     protected void readInputFile() {
         if (this.infile == null) {
             System.err.println("[ERROR] -i/--in passed with null pointer");
@@ -2,11 +2,9 @@ package org.monarchinitiative.vmvt.cli.commands;
 
 
 import org.monarchinitiative.vmvt.core.VmvtGenerator;
+import org.monarchinitiative.vmvt.core.VmvtView;
 import picocli.CommandLine;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.concurrent.Callable;
 
 @CommandLine.Command(name = "trek", aliases = {"T"}, mixinStandardHelpOptions = true, description = "Create sequence trekker")
@@ -14,19 +12,8 @@ public class TrekCommand extends SequenceComparisonCommand implements Callable<I
     @Override
     public Integer call() {
         VmvtGenerator vmvt = new VmvtGenerator();
-        String svg;
         initSequences();
-        if (seqlen == 9) {
-            // donor
-            svg= vmvt.getDonorTrekkerSvg(this.reference, this.alternate);
-        } else {
-            svg = vmvt.getAcceptorTrekkerSvg(this.reference, this.alternate);
-        }
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(outname))) {
-            writer.write(svg);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        writeSvg(vmvt, VmvtView.TREKKER);
         return 0;
     }
 }
@@ -0,0 +1,42 @@
+package org.monarchinitiative.vmvt.cli.commands;
+
+
+import org.monarchinitiative.vmvt.core.VmvtGenerator;
+import picocli.CommandLine;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Create any of the views that are registered with the {@link VmvtGenerator}, chosen by name.
+ */
+@CommandLine.Command(name = "view", aliases = {"V"}, mixinStandardHelpOptions = true, description = "Create a view by name")
+public class ViewCommand extends SequenceComparisonCommand implements Callable<Integer> {
+    @CommandLine.Option(names = {"-n", "--name"}, required = true, description = "name of the view, e.g., trekker-ri")
+    protected String viewName;
+
+    @Override
+    public Integer call() {
+        VmvtGenerator vmvt = new VmvtGenerator();
+        if (!vmvt.getViewNames().contains(viewName)) {
+            System.err.println("[ERROR] -n/--name must be one of " + String.join(", ", vmvt.getViewNames()));
+            return 1;
+        }
+        if (this.infile != null && this.reference==null && this.alternate==null) {
+            readInputFile();
+        }
+        if (this.reference == null) {
+            System.err.println("[ERROR] -r/--ref cannot be null (it should have the reference sequence");
+            System.exit(1);
+        } else if (this.alternate == null) {
+            System.err.println("[ERROR] -a/--alt cannot be null (it should have the alternate sequence");
+            System.exit(1);
+        }
+        try {
+            writeSvg(vmvt, viewName);
+        } catch (RuntimeException e) {
+            System.err.println("[ERROR] " + e.getMessage());
+            return 1;
+        }
+        return 0;
+    }
+}
@@ -2,11 +2,9 @@ package org.monarchinitiative.vmvt.cli.commands;
 
 
 import org.monarchinitiative.vmvt.core.VmvtGenerator;
+import org.monarchinitiative.vmvt.core.VmvtView;
 import picocli.CommandLine;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.concurrent.Callable;
 
 @CommandLine.Command(name = "ruler", aliases = {"W"}, mixinStandardHelpOptions = true, description = "Create sequence ruler")
@@ -14,19 +12,8 @@ public class WalkerCommand extends SequenceComparisonCommand implements Callable
     @Override
     public Integer call() {
         VmvtGenerator vmvt = new VmvtGenerator();
-        String svg;
         initSequences();
-        if (seqlen == 9) {
-            // donor
-            svg= vmvt.getRefAltDonorWalkerSvg(this.reference, this.alternate);
-        } else {
-            svg = vmvt.getRefAltAcceptorWalkerSvg(this.reference, this.alternate);
-        }
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(outname))) {
-            writer.write(svg);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        writeSvg(vmvt, VmvtView.WALKER);
         return 0;
     }
 }
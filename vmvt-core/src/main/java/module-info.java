@@ -1,4 +1,8 @@
 module org.monarchinitiative.vmvt.core {
+    // only needed for PNG output (SvgRasterizer); applications that write PNGs must resolve java.desktop
+    requires static java.desktop;
+    requires static java.xml;
     exports org.monarchinitiative.vmvt.core;
+    exports org.monarchinitiative.vmvt.core.batch;
+    exports org.monarchinitiative.vmvt.core.raster;
 }
-
@@ -0,0 +1,322 @@
+package org.monarchinitiative.vmvt.core;
+
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+import org.monarchinitiative.vmvt.core.svg.SvgConstants;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Vmvt.PROGRAM_VERSION;
+
+/**
+ * Cache of finished graphics in a directory, so that runs over the same variants (e.g., reports that are
+ * regenerated every day) do not render them again. The graphics of vmvt only depend on the code that draws them, the
+ * settings of the generator, the layout of the view, the output format and the sequences. The name of the file of a
+ * graphic ({@code <dir>/<first two hex digits>/<digest>.<extension>}) is the SHA-256 digest of these, where the code
+ * is identified by the version of vmvt-core from the build (a resource filtered by Maven) and by
+ * {@link #CACHE_LAYOUT_VERSION}. As the version only changes with a release, the layout version has to be increased
+ * by every change of the output between releases, so that graphics of the previous code are not reused.
+ * <p>
+ * Several threads and processes can use the same directory. A graphic is written to a temporary file that is
+ * renamed atomically, so that a graphic is either complete or absent. When a graphic is read, its modification
+ * time is updated, and when the directory grows beyond its maximum size, the graphics that were used least
+ * recently are deleted until it is 10% below the maximum. Each process only knows how much it has written itself
+ * and checks the size of the directory whenever it has written another tenth of the maximum, so the size may
+ * temporarily exceed the maximum by that amount per process. Only one process deletes files at a time.
+ */
+public final class DiskRenderCache {
+
+    /** Increased if the layout of the directory, the key or the output of any view changes. */
+    static final int CACHE_LAYOUT_VERSION = 2;
+    /** Properties file with the version of the build (in the package of this class). */
+    private static final String BUILD_PROPERTIES = "vmvt-build.properties";
+    private static final String BUILD_VERSION = readBuildVersion();
+    private static final String LOCK_FILE = ".lock";
+    private static final String TEMP_PREFIX = ".tmp-";
+    /** Temporary files that are older than this were left behind by processes that died while writing. */
+    private static final long STALE_TEMP_FILE_MILLIS = 60 * 60 * 1000L;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Path directory;
+    private final long maxBytes;
+    /** Size of the directory at the last check plus the bytes written since then by this process. */
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong bytesSinceCheck = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    /** Held by the thread of this process that deletes files (file locks are held by the whole process). */
+    private final Object evictionLock = new Object();
+
+    /**
+     * @param directory directory of the cache, created if it does not exist
+     * @param maxBytes  maximum size of the graphics in the directory
+     * @throws IOException if the directory cannot be created or read
+     */
+    public DiskRenderCache(Path directory, long maxBytes) throws IOException {
+        if (maxBytes < 1) {
+            throw new VmvtRuntimeException("Maximum size of the cache must be at least 1 byte but was " + maxBytes);
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+        bytes.set(evict());
+    }
+
+    /**
+     * Read the graphic from the cache or render it with the generator and store it.
+     *
+     * @param generator generator that renders the graphic if it is not in the cache
+     * @param viewName  name of a view of the generator
+     * @param reference reference sequence
+     * @param alternate alternate sequence
+     * @param format    SVG, SVGZ or PNG
+     * @return the encoded graphic (SVGs as UTF-8)
+     */
+    public byte[] getImage(VmvtGenerator generator, String viewName, String reference, String alternate,
+                           OutputFormat format) {
+        Path path = path(generator.signature(viewName), reference, alternate, format);
+        try {
+            byte[] image = Files.readAllBytes(path);
+            hits.incrementAndGet();
+            touch(path);
+            return image;
+        } catch (NoSuchFileException e) {
+            // not (or no longer) in the cache
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + path, e);
+        }
+        misses.incrementAndGet();
+        byte[] image = generator.getImage(viewName, reference, alternate, format);
+        store(path, image);
+        return image;
+    }
+
+    /**
+     * @return the SVG from the cache or rendered by the generator, see
+     * {@link #getImage(VmvtGenerator, String, String, String, OutputFormat)}
+     */
+    public String getSvg(VmvtGenerator generator, String viewName, String reference, String alternate) {
+        return new String(getImage(generator, viewName, reference, alternate, OutputFormat.SVG), StandardCharsets.UTF_8);
+    }
+
+    private Path path(String signature, String reference, String alternate, OutputFormat format) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform supports SHA-256
+            throw new VmvtRuntimeException("SHA-256 is not available: " + e.getMessage());
+        }
+        String key = "vmvt " + BUILD_VERSION + '\n' + CACHE_LAYOUT_VERSION + '\n' + signature + '\n' + format
+                + '\n' + reference + '\n' + alternate;
+        byte[] hash = digest.digest(key.getBytes(StandardCharsets.UTF_8));
+        char[] hex = new char[2 * hash.length];
+        for (int i = 0; i < hash.length; i++) {
+            hex[2 * i] = HEX[(hash[i] >> 4) & 0xF];
+            hex[2 * i + 1] = HEX[hash[i] & 0xF];
+        }
+        String name = new String(hex);
+        return directory.resolve(name.substring(0, 2)).resolve(name + "." + format.getExtension());
+    }
+
+    /**
+     * @return version of vmvt-core from the build properties, or {@link SvgConstants.Vmvt#PROGRAM_VERSION} if the
+     * classes were not built by Maven (e.g., by an IDE that does not filter resources)
+     */
+    static String readBuildVersion() {
+        try (InputStream in = DiskRenderCache.class.getResourceAsStream(BUILD_PROPERTIES)) {
+            if (in != null) {
+                Properties properties = new Properties();
+                properties.load(in);
+                String version = properties.getProperty("version");
+                if (version != null && !version.isEmpty() && !version.startsWith("${")) {
+                    return version;
+                }
+            }
+        } catch (IOException e) {
+            // fall back to the constant
+        }
+        return PROGRAM_VERSION;
+    }
+
+    /** Mark the graphic as recently used. */
+    private static void touch(Path path) {
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // the graphic was deleted by another process in the meantime, which is harmless
+        }
+    }
+
+    private void store(Path path, byte[] image) {
+        Path temp = null;
+        try {
+            Files.createDirectories(path.getParent());
+            temp = Files.createTempFile(path.getParent(), TEMP_PREFIX, null);
+            Files.write(temp, image);
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            // the cache is an optimization, so the graphic is still returned if it cannot be stored
+            deleteQuietly(temp);
+            return;
+        }
+        bytes.addAndGet(image.length);
+        if (bytesSinceCheck.addAndGet(image.length) > maxBytes / 10 || bytes.get() > maxBytes) {
+            bytesSinceCheck.set(0);
+            try {
+                bytes.set(evict());
+            } catch (IOException e) {
+                // try again after the next tenth of the maximum
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path != null) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                // nothing we can do
+            }
+        }
+    }
+
+    private static class CachedFile {
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+
+        CachedFile(Path path, BasicFileAttributes attributes) {
+            this.path = path;
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+        }
+    }
+
+    /**
+     * Determine the size of the directory and delete the least recently used graphics if it is larger than the
+     * maximum. If another thread or process is deleting graphics, only the size is determined.
+     *
+     * @return size of the graphics in the directory
+     * @throws IOException if the directory cannot be read
+     */
+    private long evict() throws IOException {
+        synchronized (evictionLock) {
+            try (FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock lock = tryLock(channel)) {
+                List<CachedFile> files = list();
+                long total = files.stream().mapToLong(f -> f.size).sum();
+                if (lock == null || total <= maxBytes) {
+                    return total;
+                }
+                files.sort(Comparator.comparingLong(f -> f.lastModified));
+                long target = maxBytes - maxBytes / 10;
+                for (CachedFile file : files) {
+                    if (total <= target) {
+                        break;
+                    }
+                    if (Files.deleteIfExists(file.path)) {
+                        evictions.incrementAndGet();
+                    }
+                    total -= file.size;
+                }
+                return total;
+            }
+        }
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // held by another cache object of this process that uses the same directory
+            return null;
+        }
+    }
+
+    /**
+     * @return the graphics in the directory. Temporary files of processes that died while writing are deleted.
+     */
+    private List<CachedFile> list() throws IOException {
+        List<CachedFile> files = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        try (Stream<Path> paths = Files.walk(directory, 2)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    // deleted by another process
+                    continue;
+                }
+                if (!attributes.isRegularFile() || path.getParent().equals(directory)) {
+                    // the lock file and the subdirectories
+                    continue;
+                }
+                if (path.getFileName().toString().startsWith(TEMP_PREFIX)) {
+                    if (now - attributes.lastModifiedTime().toMillis() > STALE_TEMP_FILE_MILLIS) {
+                        deleteQuietly(path);
+                    }
+                    continue;
+                }
+                files.add(new CachedFile(path, attributes));
+            }
+        } catch (UncheckedIOException e) {
+            // thrown by the stream, e.g., if a subdirectory was deleted while we read it
+            throw e.getCause();
+        }
+        return files;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /** @return number of graphics that were read from the directory */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /** @return number of graphics that were not in the directory and were rendered */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /** @return number of graphics that this process deleted to keep the directory below its maximum size */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /** @return approximate size of the graphics in the directory */
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DiskRenderCache{%s, bytes=%d, hits=%d, misses=%d, evictions=%d}",
+                directory, bytes.get(), hits.get(), misses.get(), evictions.get());
+    }
+}
@@ -0,0 +1,150 @@
+package org.monarchinitiative.vmvt.core;
+
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+import org.monarchinitiative.vmvt.core.pssm.Bases;
+
+import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Sequence.*;
+
+/**
+ * A validated reference and alternate splice sequence, encoded with A=0,C=1,G=2,T=3, and the positions at which
+ * they differ. A variant is created once per request and passed to all components of a view and to the scoring
+ * methods, so that the sequences are only validated and encoded once. The R_i of the sequences are calculated by
+ * {@code DoubleMatrix.refRi} and {@code altRi}. Instances are immutable.
+ */
+public final class EncodedVariant {
+
+    private final String reference;
+    private final String alternate;
+    /** A coding of the reference sequence using A=0,C=1,G=2,T=3. */
+    private final byte[] refidx;
+    /** A coding of the alternate sequence using A=0,C=1,G=2,T=3. */
+    private final byte[] altidx;
+    /** Bit i is set if reference and alternate differ at position i (sequences have at most 27 nt). */
+    private final long diffMask;
+
+    private EncodedVariant(String reference, String alternate, byte[] refidx, byte[] altidx) {
+        this.reference = reference;
+        this.alternate = alternate;
+        this.refidx = refidx;
+        this.altidx = altidx;
+        long mask = 0L;
+        for (int i = 0; i < refidx.length; i++) {
+            if (refidx[i] != altidx[i]) {
+                mask |= 1L << i;
+            }
+        }
+        this.diffMask = mask;
+    }
+
+    /**
+     * @param reference reference donor (9 nt) or acceptor (27 nt) sequence
+     * @param alternate alternate sequence of the same length
+     * @return the encoded variant
+     * @throws VmvtRuntimeException if a sequence contains characters other than ACGT/acgt or the lengths are wrong
+     */
+    public static EncodedVariant of(String reference, String alternate) {
+        byte[] refidx = encode(reference);
+        byte[] altidx = encode(alternate);
+        if (reference.length() != alternate.length()) {
+            throw new VmvtRuntimeException(String.format("Ref (%s) and alt (%s) need to have the same length",
+                    reference, alternate));
+        }
+        int seqlen = reference.length();
+        if (seqlen != DONOR_NT_LENGTH && seqlen != ACCEPTOR_NT_LENGTH) {
+            throw new VmvtRuntimeException(String.format("sequence length (%d) did not conform to donor or acceptor", seqlen));
+        }
+        return new EncodedVariant(reference, alternate, refidx, altidx);
+    }
+
+    private static byte[] encode(String seq) {
+        byte[] idx = new byte[seq.length()];
+        for (int i = 0; i < idx.length; i++) {
+            int base = Bases.index(seq.charAt(i));
+            if (base < 0) {
+                throw new VmvtRuntimeException(String.format("Bad nucleotide in ref (%s): Only ACGT/acgt allowed!", seq));
+            }
+            idx[i] = (byte) base;
+        }
+        return idx;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public String getAlternate() {
+        return alternate;
+    }
+
+    /** @return length of the sequences (9 for donors, 27 for acceptors) */
+    public int length() {
+        return refidx.length;
+    }
+
+    /** @return true for donor sequences, false for acceptor sequences */
+    public boolean isDonor() {
+        return refidx.length == DONOR_NT_LENGTH;
+    }
+
+    /**
+     * @param pos position in the sequence
+     * @return index of the reference base (A=0,C=1,G=2,T=3)
+     */
+    public int refBase(int pos) {
+        return refidx[pos];
+    }
+
+    /**
+     * @param pos position in the sequence
+     * @return index of the alternate base (A=0,C=1,G=2,T=3)
+     */
+    public int altBase(int pos) {
+        return altidx[pos];
+    }
+
+    /**
+     * @param pos position in the sequence
+     * @return true if reference and alternate differ at this position
+     */
+    public boolean isVariant(int pos) {
+        return (diffMask >>> pos & 1L) != 0;
+    }
+
+    /** @return bit set of the positions at which reference and alternate differ */
+    public long getDiffMask() {
+        return diffMask;
+    }
+
+    /** @return number of positions at which reference and alternate differ */
+    public int getVariantCount() {
+        return Long.bitCount(diffMask);
+    }
+
+    /** @return first position at which reference and alternate differ, or -1 if they are the same */
+    public int firstVariantPosition() {
+        return diffMask == 0 ? -1 : Long.numberOfTrailingZeros(diffMask);
+    }
+
+    /** @return last position at which reference and alternate differ, or -1 if they are the same */
+    public int lastVariantPosition() {
+        return diffMask == 0 ? -1 : 63 - Long.numberOfLeadingZeros(diffMask);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EncodedVariant)) return false;
+        EncodedVariant that = (EncodedVariant) o;
+        return reference.equals(that.reference) && alternate.equals(that.alternate);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * reference.hashCode() + alternate.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "EncodedVariant{" + reference + ">" + alternate + "}";
+    }
+}
@@ -0,0 +1,48 @@
+package org.monarchinitiative.vmvt.core;
+
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+
+/**
+ * The formats in which {@link VmvtGenerator#writeImage(VmvtView, String, String, OutputFormat, java.io.OutputStream)}
+ * writes a graphic.
+ */
+public enum OutputFormat {
+    /** SVG as UTF-8. */
+    SVG("svg"),
+    /** Gzip-compressed SVG. */
+    SVGZ("svgz"),
+    /** PNG drawn with Java2D, see {@link org.monarchinitiative.vmvt.core.raster.SvgRasterizer}. */
+    PNG("png");
+
+    private final String extension;
+
+    OutputFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /** @return the file extension (without the dot), which is also the name of the format on the command line */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * @param fname name of an output file
+     * @return the name with the extension of this format instead of .svg (other names are not changed)
+     */
+    public String fileName(String fname) {
+        return fname.endsWith(".svg") ? fname.substring(0, fname.length() - 3) + extension : fname;
+    }
+
+    /**
+     * @param name name of a format, e.g. png
+     * @return the corresponding format
+     */
+    public static OutputFormat fromName(String name) {
+        for (OutputFormat format : values()) {
+            if (format.extension.equals(name)) {
+                return format;
+            }
+        }
+        throw new VmvtRuntimeException("Unrecognized output format: " + name);
+    }
+}
@@ -0,0 +1,156 @@
+package org.monarchinitiative.vmvt.core;
+
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+import org.monarchinitiative.vmvt.core.pssm.Bases;
+
+/**
+ * A sequence window of up to {@link #MAX_LENGTH} nt packed into one {@code long}, so that windows can be hashed,
+ * compared and stored without allocating objects. The base at position i is stored in bits 2i and 2i+1
+ * (A=0,C=1,G=2,T=3), and the length of the window in the upper six bits. A 9 nt donor thus uses 18 bits and a
+ * 27 nt acceptor 54 bits. Windows that differ only in upper and lower case have the same key (all graphics of
+ * vmvt are independent of case), and unpacked windows are upper case. Zero is not a valid key.
+ */
+public final class PackedWindow {
+
+    /** Maximum length of a window. */
+    public static final int MAX_LENGTH = 29;
+    private static final int LENGTH_SHIFT = 58;
+    private static final long BASES_MASK = (1L << LENGTH_SHIFT) - 1;
+
+    private PackedWindow() {
+    }
+
+    /**
+     * @param seq a sequence of 1 to {@link #MAX_LENGTH} nt (ACGT/acgt)
+     * @return the packed window
+     * @throws VmvtRuntimeException if the sequence is too long or contains other characters
+     */
+    public static long pack(CharSequence seq) {
+        int len = seq.length();
+        checkLength(len);
+        long key = (long) len << LENGTH_SHIFT;
+        for (int i = 0; i < len; i++) {
+            int base = Bases.index(seq.charAt(i));
+            if (base < 0) {
+                throw new VmvtRuntimeException(String.format("Bad nucleotide in sequence (%s): Only ACGT/acgt allowed!", seq));
+            }
+            key |= (long) base << 2 * i;
+        }
+        return key;
+    }
+
+    /**
+     * @param seq    ASCII characters of a sequence
+     * @param offset index of the first character
+     * @param len    length of the sequence (1 to {@link #MAX_LENGTH})
+     * @return the packed window
+     * @throws VmvtRuntimeException if the sequence is too long or contains other characters
+     */
+    public static long pack(byte[] seq, int offset, int len) {
+        checkLength(len);
+        long key = (long) len << LENGTH_SHIFT;
+        for (int i = 0; i < len; i++) {
+            int base = Bases.index((char) (seq[offset + i] & 0xFF));
+            if (base < 0) {
+                throw new VmvtRuntimeException("Bad nucleotide in sequence: Only ACGT/acgt allowed!");
+            }
+            key |= (long) base << 2 * i;
+        }
+        return key;
+    }
+
+    /**
+     * @param seq a sequence
+     * @return true if the sequence can be packed, see {@link #pack(CharSequence)}
+     */
+    public static boolean isPackable(CharSequence seq) {
+        int len = seq.length();
+        if (len < 1 || len > MAX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (Bases.index(seq.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void checkLength(int len) {
+        if (len < 1 || len > MAX_LENGTH) {
+            throw new VmvtRuntimeException(String.format("Length of a packed window must be between 1 and %d but was %d",
+                    MAX_LENGTH, len));
+        }
+    }
+
+    /**
+     * @param key a packed window
+     * @return the length of the window
+     */
+    public static int length(long key) {
+        return (int) (key >>> LENGTH_SHIFT);
+    }
+
+    /**
+     * @param key a packed window
+     * @param pos a position of the window
+     * @return index of the base at this position (A=0,C=1,G=2,T=3)
+     */
+    public static int base(long key, int pos) {
+        return (int) (key >>> 2 * pos) & 3;
+    }
+
+    /**
+     * @param key a packed window
+     * @return true if the key has a valid length and no bits beyond the end of the window are set
+     */
+    public static boolean isValid(long key) {
+        int len = length(key);
+        return len >= 1 && len <= MAX_LENGTH && (key & BASES_MASK) >>> 2 * len == 0;
+    }
+
+    /**
+     * Write the bases of a window as upper case ASCII characters.
+     * @param key    a packed window
+     * @param dest   destination array
+     * @param offset index of the first character in dest
+     * @return number of characters written (the length of the window)
+     */
+    public static int unpack(long key, byte[] dest, int offset) {
+        int len = length(key);
+        for (int i = 0; i < len; i++) {
+            dest[offset + i] = (byte) Bases.upper(base(key, i));
+        }
+        return len;
+    }
+
+    /**
+     * @param key a packed window
+     * @return the upper case sequence of the window
+     */
+    public static String unpack(long key) {
+        char[] seq = new char[length(key)];
+        for (int i = 0; i < seq.length; i++) {
+            seq[i] = Bases.upper(base(key, i));
+        }
+        return new String(seq);
+    }
+
+    /**
+     * @param ref packed reference window
+     * @param alt packed alternate window of the same length
+     * @return bit set of the positions at which the windows differ (bit i for position i)
+     */
+    public static long diffMask(long ref, long alt) {
+        long diff = (ref ^ alt) & BASES_MASK;
+        // one bit per position at the lower bit of each base
+        diff = (diff | diff >>> 1) & 0x5555_5555_5555_5555L;
+        long mask = 0L;
+        while (diff != 0) {
+            int bit = Long.numberOfTrailingZeros(diff);
+            mask |= 1L << (bit >>> 1);
+            diff &= diff - 1;
+        }
+        return mask;
+    }
+}
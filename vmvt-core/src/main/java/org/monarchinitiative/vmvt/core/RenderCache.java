@@ -0,0 +1,215 @@
+package org.monarchinitiative.vmvt.core;
+
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Least-recently-used cache of finished graphics, keyed by the name of the view, the reference and alternate
+ * sequence and the output format. The sequences are stored as {@link PackedWindow}s, so sequences that only differ
+ * in case share a graphic. The same splice sites are often drawn many times (recurrent variants, several
+ * transcripts, regenerated reports), and a cached graphic costs one hash lookup. The cache is bounded by the
+ * number of entries and by their approximate size in bytes (packed sequences are counted with 16 bytes, names,
+ * other sequences and SVGs with two bytes per character, SVGZ and PNG with their length). It is thread-safe;
+ * graphics are rendered outside the lock, so that two threads that miss the same key at the same time may both
+ * render it.
+ * <p>
+ * The graphics depend on the settings of the generator (frame, compact mode), so a cache must only be used by
+ * one {@link VmvtGenerator}, see {@link VmvtGenerator#VmvtGenerator(boolean, boolean, int, RenderCache)}.
+ */
+public final class RenderCache {
+
+    /**
+     * Windows of up to {@link PackedWindow#MAX_LENGTH} nt are stored as packed keys, so that looking them up does
+     * not hash or compare strings. Other sequences (e.g., invalid ones, whose errors are not cached anyway) are
+     * stored as strings.
+     */
+    private static final class Key {
+        private final String view;
+        private final long refKey;
+        private final long altKey;
+        /** Null if the sequences are packed. */
+        private final String reference;
+        private final String alternate;
+        private final OutputFormat format;
+        private final int hash;
+
+        Key(String view, String reference, String alternate, OutputFormat format) {
+            this.view = view;
+            this.format = format;
+            if (PackedWindow.isPackable(reference) && PackedWindow.isPackable(alternate)) {
+                this.refKey = PackedWindow.pack(reference);
+                this.altKey = PackedWindow.pack(alternate);
+                this.reference = null;
+                this.alternate = null;
+            } else {
+                this.refKey = 0L;
+                this.altKey = 0L;
+                this.reference = reference;
+                this.alternate = alternate;
+            }
+            this.hash = 31 * (31 * (31 * view.hashCode() + Long.hashCode(refKey * 0x9E37_79B9_7F4A_7C15L + altKey)
+                    + Objects.hashCode(this.reference)) + Objects.hashCode(this.alternate)) + format.hashCode();
+        }
+
+        /** @return approximate size of the key in bytes */
+        long bytes() {
+            long sequences = reference == null ? 16 : 2L * (reference.length() + alternate.length());
+            return 2L * view.length() + sequences;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return refKey == key.refKey && altKey == key.altKey && format == key.format && view.equals(key.view)
+                    && Objects.equals(reference, key.reference) && Objects.equals(alternate, key.alternate);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /** A String (SVG) or a byte array (SVGZ, PNG) and its size. */
+    private static final class Entry {
+        private final Object value;
+        private final long bytes;
+
+        Entry(Object value, long bytes) {
+            this.value = value;
+            this.bytes = bytes;
+        }
+    }
+
+    private final int maxEntries;
+    private final long maxBytes;
+    /** Entries in access order, i.e., the least recently used entry comes first. Guarded by this. */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /** Total size of the entries. Guarded by this. */
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maxEntries maximum number of graphics in the cache
+     */
+    public RenderCache(int maxEntries) {
+        this(maxEntries, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param maxEntries maximum number of graphics in the cache
+     * @param maxBytes   maximum approximate size of the graphics in bytes. Graphics that are larger are not cached.
+     */
+    public RenderCache(int maxEntries, long maxBytes) {
+        if (maxEntries < 1) {
+            throw new VmvtRuntimeException("Cache size must be at least 1 but was " + maxEntries);
+        }
+        if (maxBytes < 1) {
+            throw new VmvtRuntimeException("Maximum number of bytes must be at least 1 but was " + maxBytes);
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @param view      name of the view
+     * @param reference reference sequence
+     * @param alternate alternate sequence
+     * @param render    renders the SVG if it is not in the cache
+     * @return the cached or newly rendered SVG
+     */
+    String getSvg(String view, String reference, String alternate, Supplier<String> render) {
+        return (String) get(new Key(view, reference, alternate, OutputFormat.SVG), render);
+    }
+
+    /**
+     * @param view      name of the view
+     * @param reference reference sequence
+     * @param alternate alternate sequence
+     * @param format    SVGZ or PNG
+     * @param render    encodes the graphic if it is not in the cache
+     * @return the cached or newly encoded graphic. The array is shared with the cache and must not be modified.
+     */
+    byte[] getBytes(String view, String reference, String alternate, OutputFormat format, Supplier<byte[]> render) {
+        return (byte[]) get(new Key(view, reference, alternate, format), render);
+    }
+
+    private Object get(Key key, Supplier<?> render) {
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+                return entry.value;
+            }
+            misses++;
+        }
+        Object value = render.get();
+        long size = key.bytes()
+                + (value instanceof String ? 2L * ((String) value).length() : ((byte[]) value).length);
+        if (size <= maxBytes) {
+            put(key, new Entry(value, size));
+        }
+        return value;
+    }
+
+    private synchronized void put(Key key, Entry entry) {
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            // another thread rendered the same graphic in the meantime
+            bytes -= previous.bytes;
+        }
+        bytes += entry.bytes;
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries || bytes > maxBytes) {
+            bytes -= eldest.next().getValue().bytes;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /** @return number of requests that were answered from the cache */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /** @return number of requests for graphics that were not in the cache */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /** @return number of graphics that were removed to stay within the bounds of the cache */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /** @return number of graphics in the cache */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** @return approximate size of the graphics in the cache in bytes */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /** Remove all graphics from the cache. The counters are not reset. */
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("RenderCache{size=%d, bytes=%d, hits=%d, misses=%d, evictions=%d}",
+                entries.size(), bytes, hits, misses, evictions);
+    }
+}
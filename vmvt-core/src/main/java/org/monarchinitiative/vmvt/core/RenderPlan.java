@@ -0,0 +1,282 @@
+package org.monarchinitiative.vmvt.core;
+
+import org.monarchinitiative.vmvt.core.dist.MotifRegistry;
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+import org.monarchinitiative.vmvt.core.pssm.DoubleMatrix;
+import org.monarchinitiative.vmvt.core.svg.SvgComponent;
+import org.monarchinitiative.vmvt.core.svg.SvgConstants.MotifType;
+import org.monarchinitiative.vmvt.core.svg.delta.DeltaSvg;
+import org.monarchinitiative.vmvt.core.svg.ese.EseSvg;
+import org.monarchinitiative.vmvt.core.svg.icbar.DeltaRiBox;
+import org.monarchinitiative.vmvt.core.svg.icbar.SvgIcBarchart;
+import org.monarchinitiative.vmvt.core.svg.icbar.SvgMutagenesisHeatmap;
+import org.monarchinitiative.vmvt.core.svg.logo.SvgSequenceLogo;
+import org.monarchinitiative.vmvt.core.svg.ruler.SvgSequenceRuler;
+import org.monarchinitiative.vmvt.core.svg.walker.SvgRefAltSequenceWalker;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Dimensions.*;
+import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Sequence.ACCEPTOR_NT_LENGTH;
+import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Sequence.DONOR_NT_LENGTH;
+
+/**
+ * The layout of a view: the parts of the graphic from top to bottom, the width and height of the SVG, and the
+ * y position of each part. All of these are fixed when the plan is created, and parts that do not depend on the
+ * variant (the sequence logo) are created once and shared by all graphics of the plan. Rendering a variant then
+ * only creates the variant-dependent parts. Plans are immutable and can be shared between threads.
+ * <p>
+ * Plans are registered with a {@link VmvtGenerator} under the name of a view, see
+ * {@link VmvtGenerator#registerView(String, RenderPlan...)}.
+ */
+public final class RenderPlan {
+
+    /** The parts of which a graphic can be composed. */
+    public enum Part {
+        /** Sequence logo of the donor or acceptor (independent of the variant). */
+        LOGO,
+        /** Reference and alternate sequence with positions. */
+        RULER,
+        /** Sequence walker of the reference and alternate sequence. */
+        WALKER,
+        /** Bar chart of the information content of the reference and alternate bases. */
+        IC_BARS,
+        /** R_i of the reference and alternate sequence. */
+        DELTA_RI,
+        /** Heatmap of the change in R_i of all single-nucleotide substitutions of the reference sequence. */
+        MUTAGENESIS,
+        /** Distribution of delta R_i with the delta R_i of the variant. */
+        DISTRIBUTION,
+        /** ESE hexamer scores. */
+        HEXAMER,
+        /** ESE heptamer scores. */
+        HEPTAMER
+    }
+
+    /** Donor, acceptor, or null for plans of ESE parts, which can be used for sequences of any length. */
+    private final MotifType type;
+    private final List<Part> parts;
+    private final int width;
+    private final int height;
+    /** Y position of each part. */
+    private final int[] yOffsets;
+    /** Height of each part. */
+    private final int[] heights;
+    /** The variant-independent parts, or null for parts that are created for each variant. */
+    private final SvgComponent[] sharedComponents;
+
+    private RenderPlan(MotifType type, Part... parts) {
+        if (parts.length == 0) {
+            throw new VmvtRuntimeException("A render plan needs at least one part");
+        }
+        this.type = type;
+        this.parts = Collections.unmodifiableList(Arrays.asList(parts.clone()));
+        this.yOffsets = new int[parts.length];
+        this.heights = new int[parts.length];
+        this.sharedComponents = new SvgComponent[parts.length];
+        int ypos = SVG_Y_TOP_MARGIN;
+        int maxWidth = 0;
+        for (int i = 0; i < parts.length; i++) {
+            if (type == null && parts[i] != Part.HEXAMER && parts[i] != Part.HEPTAMER) {
+                throw new VmvtRuntimeException(parts[i] + " can only be used in donor or acceptor plans");
+            } else if (type != null && (parts[i] == Part.HEXAMER || parts[i] == Part.HEPTAMER)) {
+                throw new VmvtRuntimeException(parts[i] + " can only be used in ESE plans");
+            }
+            if (parts[i] == Part.LOGO) {
+                sharedComponents[i] = type == MotifType.DONOR
+                        ? SvgSequenceLogo.donor(MotifRegistry.heightMatrix(MotifType.DONOR))
+                        : SvgSequenceLogo.acceptor(MotifRegistry.heightMatrix(MotifType.ACCEPTOR));
+            }
+            yOffsets[i] = ypos;
+            heights[i] = partHeight(parts[i]);
+            ypos += heights[i] + INTERCOMPONENT_VERTICAL_OFFSET;
+            maxWidth = Math.max(maxWidth, partWidth(parts[i]));
+        }
+        this.width = maxWidth;
+        this.height = ypos - INTERCOMPONENT_VERTICAL_OFFSET + SVG_Y_BOTTOM_MARGIN;
+    }
+
+    /**
+     * @param parts parts of the graphic from top to bottom (not HEXAMER or HEPTAMER)
+     * @return plan for sequences of a splice donor (9 nt)
+     */
+    public static RenderPlan donor(Part... parts) {
+        return new RenderPlan(MotifType.DONOR, parts);
+    }
+
+    /**
+     * @param parts parts of the graphic from top to bottom (not HEXAMER or HEPTAMER)
+     * @return plan for sequences of a splice acceptor (27 nt)
+     */
+    public static RenderPlan acceptor(Part... parts) {
+        return new RenderPlan(MotifType.ACCEPTOR, parts);
+    }
+
+    /**
+     * @param parts HEXAMER and/or HEPTAMER
+     * @return plan for ESE graphics, which can be used for sequences of any length
+     */
+    public static RenderPlan ese(Part... parts) {
+        return new RenderPlan(null, parts);
+    }
+
+    private int partHeight(Part part) {
+        switch (part) {
+            case LOGO:
+                return SVG_LOGO_HEIGHT;
+            case RULER:
+                return SVG_RULER_HEIGHT;
+            case WALKER:
+                return SVG_WALKER_HEIGHT;
+            case IC_BARS:
+                return SVG_BARCHART_HEIGHT;
+            case DELTA_RI:
+                return SVG_RI_BOX_HEIGHT;
+            case MUTAGENESIS:
+                return SVG_MUTAGENESIS_HEIGHT;
+            case DISTRIBUTION:
+                return DeltaSvg.COMPONENT_HEIGHT;
+            case HEXAMER:
+            case HEPTAMER:
+                return EseSvg.SVG_HEIGHT;
+            default:
+                // should never happen
+                throw new VmvtRuntimeException("Unrecognized part: " + part);
+        }
+    }
+
+    private int partWidth(Part part) {
+        switch (part) {
+            case DISTRIBUTION:
+            case HEXAMER:
+            case HEPTAMER:
+                return ESE_SVG_WIDTH;
+            default:
+                return type == MotifType.DONOR ? SVG_DONOR_WIDTH : SVG_ACCEPTOR_WIDTH;
+        }
+    }
+
+    /** @return parts of the graphic from top to bottom */
+    public List<Part> getParts() {
+        return parts;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @param i index of a part
+     * @return y position of the part
+     */
+    public int getYOffset(int i) {
+        return yOffsets[i];
+    }
+
+    /**
+     * @param seqlen length of the reference and alternate sequences
+     * @return true if this plan draws sequences of this length
+     */
+    public boolean accepts(int seqlen) {
+        if (type == MotifType.DONOR) {
+            return seqlen == DONOR_NT_LENGTH;
+        } else if (type == MotifType.ACCEPTOR) {
+            return seqlen == ACCEPTOR_NT_LENGTH;
+        }
+        return true;
+    }
+
+    /**
+     * Create the components of a variant: the shared components of the variant-independent parts and new
+     * components for the other parts.
+     * @param reference reference sequence
+     * @param alternate alternate sequence
+     * @return one component for each part
+     * @throws VmvtRuntimeException if a component does not have the height of its part in the layout
+     */
+    SvgComponent[] components(String reference, String alternate) {
+        // splice sequences are validated and encoded once for all components
+        EncodedVariant variant = type == null || allShared() ? null : EncodedVariant.of(reference, alternate);
+        return components(variant, reference, alternate);
+    }
+
+    /**
+     * Create the components of a variant that was already encoded.
+     * @param variant encoded reference and alternate sequence
+     * @return one component for each part
+     */
+    SvgComponent[] components(EncodedVariant variant) {
+        return components(variant, variant.getReference(), variant.getAlternate());
+    }
+
+    private SvgComponent[] components(EncodedVariant variant, String reference, String alternate) {
+        SvgComponent[] components = new SvgComponent[parts.size()];
+        for (int i = 0; i < components.length; i++) {
+            components[i] = sharedComponents[i] != null
+                    ? sharedComponents[i]
+                    : createComponent(parts.get(i), variant, reference, alternate);
+            if (components[i].height() != heights[i]) {
+                // the layout of the plan would be wrong
+                throw new VmvtRuntimeException(String.format("Height of %s was %d but expected %d",
+                        parts.get(i), components[i].height(), heights[i]));
+            }
+        }
+        return components;
+    }
+
+    private boolean allShared() {
+        for (SvgComponent component : sharedComponents) {
+            if (component == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param variant the encoded sequences for donor and acceptor parts, null for ESE parts
+     */
+    private SvgComponent createComponent(Part part, EncodedVariant variant, String reference, String alternate) {
+        boolean isDonor = type == MotifType.DONOR;
+        DoubleMatrix matrix = type == null ? null : MotifRegistry.icMatrix(type);
+        switch (part) {
+            case RULER:
+                return isDonor ? SvgSequenceRuler.donor(variant) : SvgSequenceRuler.acceptor(variant);
+            case WALKER:
+                return isDonor
+                        ? SvgRefAltSequenceWalker.donorWalker(variant, matrix)
+                        : SvgRefAltSequenceWalker.acceptorWalker(variant, matrix);
+            case IC_BARS:
+                return isDonor
+                        ? SvgIcBarchart.donorBarChart(variant, matrix)
+                        : SvgIcBarchart.acceptorBarChart(variant, matrix);
+            case DELTA_RI:
+                return isDonor ? DeltaRiBox.donor(variant, matrix) : DeltaRiBox.acceptor(variant, matrix);
+            case MUTAGENESIS:
+                return isDonor
+                        ? SvgMutagenesisHeatmap.donor(variant, matrix)
+                        : SvgMutagenesisHeatmap.acceptor(variant, matrix);
+            case DISTRIBUTION:
+                return new DeltaSvg(variant, MotifRegistry.distribution(type));
+            case HEXAMER:
+                return EseSvg.hexamer(reference, alternate);
+            case HEPTAMER:
+                return EseSvg.heptamer(reference, alternate);
+            default:
+                // should never happen (the logo is shared)
+                throw new VmvtRuntimeException("Unrecognized part: " + part);
+        }
+    }
+
+    @Override
+    public String toString() {
+        String site = type == null ? "ESE" : type.toString().toLowerCase();
+        return "RenderPlan{" + site + ", " + parts + ", " + width + "x" + height + "}";
+    }
+}
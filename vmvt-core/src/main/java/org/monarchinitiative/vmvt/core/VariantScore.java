@@ -0,0 +1,51 @@
+package org.monarchinitiative.vmvt.core;
+
+/**
+ * Scores of a splice variant as calculated by {@link VmvtScorer}. The ESE deltas are {@link Double#NaN} if
+ * no ESE sequences were scored.
+ */
+public class VariantScore {
+    /** Individual sequence information of the reference sequence (bits). */
+    private final double refRi;
+    /** Individual sequence information of the alternate sequence (bits). */
+    private final double altRi;
+    /** Percentage of random single-nucleotide variants with a change in R_i smaller than or equal to that of this variant. */
+    private final double deltaRiPercentile;
+    /** Difference between the hexamer scores of reference and alternate. */
+    private final double hexamerDelta;
+    /** Difference between the heptamer scores of reference and alternate. */
+    private final double heptamerDelta;
+
+    public VariantScore(double refRi, double altRi, double deltaRiPercentile, double hexamerDelta, double heptamerDelta) {
+        this.refRi = refRi;
+        this.altRi = altRi;
+        this.deltaRiPercentile = deltaRiPercentile;
+        this.hexamerDelta = hexamerDelta;
+        this.heptamerDelta = heptamerDelta;
+    }
+
+    public double getRefRi() {
+        return refRi;
+    }
+
+    public double getAltRi() {
+        return altRi;
+    }
+
+    /** @return R_i(ref) - R_i(alt), i.e., a positive value if the variant weakens the site */
+    public double getDeltaRi() {
+        return refRi - altRi;
+    }
+
+    public double getDeltaRiPercentile() {
+        return deltaRiPercentile;
+    }
+
+    public double getHexamerDelta() {
+        return hexamerDelta;
+    }
+
+    public double getHeptamerDelta() {
+        return heptamerDelta;
+    }
+}
@@ -1,23 +1,35 @@
 package org.monarchinitiative.vmvt.core;
 
-import org.monarchinitiative.vmvt.core.dist.DistributionCalculator;
+import org.monarchinitiative.vmvt.core.RenderPlan.Part;
+import org.monarchinitiative.vmvt.core.dist.MotifRegistry;
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
 import org.monarchinitiative.vmvt.core.pssm.DoubleMatrix;
+import org.monarchinitiative.vmvt.core.raster.SvgRasterizer;
 import org.monarchinitiative.vmvt.core.svg.*;
-import org.monarchinitiative.vmvt.core.svg.ese.EseSvg;
-import org.monarchinitiative.vmvt.core.svg.icbar.DeltaRiBox;
-import org.monarchinitiative.vmvt.core.svg.icbar.SvgIcBarchart;
+import org.monarchinitiative.vmvt.core.svg.SvgConstants.MotifType;
 import org.monarchinitiative.vmvt.core.svg.delta.DeltaSvg;
+import org.monarchinitiative.vmvt.core.svg.icbar.SvgIcBarchart;
 import org.monarchinitiative.vmvt.core.svg.logo.SvgSequenceLogo;
 import org.monarchinitiative.vmvt.core.svg.ruler.SvgSequenceRuler;
-import org.monarchinitiative.vmvt.core.svg.walker.SvgRefAltSequenceWalker;
 import org.monarchinitiative.vmvt.core.svg.walker.SvgSingleSequenceWalker;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.GZIPOutputStream;
 
 import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Dimensions.*;
 import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Fonts.SVG_FONTS;
@@ -34,17 +46,33 @@ import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Vmvt.PROGRAM_VERS
  */
 public class VmvtGenerator {
 
+    /** Size of the buffer of the gzip compressor (the compressed SVGs are a few kilobytes). */
+    private static final int GZIP_BUFFER_SIZE = 4096;
+
     private final DoubleMatrix donor;
     private final DoubleMatrix acceptor;
     private final DoubleMatrix donorHeight;
     private final DoubleMatrix acceptorHeight;
-    private final DistributionCalculator donorDistribution;
-    private final DistributionCalculator acceptorDistribution;
-    private final static int NUM_SAMPLES = 250_000;
     /**
      * If true, draw a black frame around SVG graphics.
      */
     private final boolean framed;
+    /**
+     * If true, write compact SVG, see {@link SvgWriter}.
+     */
+    private final boolean compact;
+    /**
+     * Number of decimal places of coordinates in compact SVGs.
+     */
+    private final int decimals;
+    /**
+     * Cache of finished graphics of the registered views, or null if graphics are not cached.
+     */
+    private final RenderCache cache;
+    /**
+     * The views by name (including the built-in {@link VmvtView}s), see {@link #registerView(String, RenderPlan...)}.
+     */
+    private final ConcurrentMap<String, CompiledView> views = new ConcurrentHashMap<>();
 
 
     public VmvtGenerator() {
@@ -52,51 +80,178 @@ public class VmvtGenerator {
     }
 
     public VmvtGenerator(boolean framed) {
+        this(framed, false, SvgWriter.DEFAULT_DECIMALS);
+    }
+
+    /**
+     * Default settings with a cache for the graphics of the views, see
+     * {@link #VmvtGenerator(boolean, boolean, int, RenderCache)}.
+     * @param cache cache that is only used by this generator
+     */
+    public VmvtGenerator(RenderCache cache) {
+        this(false, false, SvgWriter.DEFAULT_DECIMALS, cache);
+    }
+
+    /**
+     * Compact SVGs look the same as the default SVGs but are considerably smaller: coordinates are written
+     * with the given number of decimal places and without trailing zeros, and the letters of the logos and
+     * walkers are defined once and reused.
+     *
+     * @param framed   if true, draw a black frame around SVG graphics
+     * @param compact  if true, write compact SVGs
+     * @param decimals number of decimal places of coordinates in compact SVGs (0-9, e.g.,
+     *                 {@link SvgWriter#DEFAULT_COMPACT_DECIMALS}), ignored otherwise
+     */
+    public VmvtGenerator(boolean framed, boolean compact, int decimals) {
+        this(framed, compact, decimals, null);
+    }
+
+    /**
+     * Keep the graphics of the registered views in a cache, so that graphics that are requested repeatedly are
+     * only rendered once. The graphics of the legacy methods that are not views (e.g., the rulers with offsets)
+     * are not cached.
+     *
+     * @param framed   if true, draw a black frame around SVG graphics
+     * @param compact  if true, write compact SVGs
+     * @param decimals number of decimal places of coordinates in compact SVGs (0-9)
+     * @param cache    cache for the graphics of this generator (must not be shared with other generators), or
+     *                 null to render every graphic
+     */
+    public VmvtGenerator(boolean framed, boolean compact, int decimals, RenderCache cache) {
+        if (decimals < 0 || decimals > 9) {
+            throw new VmvtRuntimeException("Number of decimal places must be between 0 and 9 but was " + decimals);
+        }
         this.framed = framed;
-        donor = DoubleMatrix.donor();
-        acceptor = DoubleMatrix.acceptor();
-        donorHeight = DoubleMatrix.donorHeightMatrix();
-        acceptorHeight = DoubleMatrix.acceptorHeightMatrix();
-        donorDistribution = new DistributionCalculator(donor);
-        acceptorDistribution = new DistributionCalculator(acceptor, NUM_SAMPLES);
+        this.compact = compact;
+        this.decimals = decimals;
+        this.cache = cache;
+        donor = MotifRegistry.icMatrix(MotifType.DONOR);
+        acceptor = MotifRegistry.icMatrix(MotifType.ACCEPTOR);
+        donorHeight = MotifRegistry.heightMatrix(MotifType.DONOR);
+        acceptorHeight = MotifRegistry.heightMatrix(MotifType.ACCEPTOR);
+        registerBuiltInViews();
+    }
+
+    /**
+     * Register the {@link VmvtView}s. The donor plan of each splice view comes first and the acceptor plan second,
+     * see {@link #builtInSvg(VmvtView, MotifType, String, String)}.
+     */
+    private void registerBuiltInViews() {
+        registerSpliceView(VmvtView.RULER, Part.RULER);
+        registerSpliceView(VmvtView.WALKER, Part.WALKER);
+        registerSpliceView(VmvtView.TREKKER, Part.LOGO, Part.WALKER);
+        registerSpliceView(VmvtView.TREKKER_WITH_RI, Part.RULER, Part.LOGO, Part.WALKER, Part.DELTA_RI);
+        registerSpliceView(VmvtView.IC_BARS, Part.RULER, Part.IC_BARS);
+        registerSpliceView(VmvtView.IC_BARS_WITH_RI, Part.RULER, Part.IC_BARS, Part.DELTA_RI);
+        registerSpliceView(VmvtView.IC_BARS_WITH_LOGO_AND_RI, Part.LOGO, Part.RULER, Part.IC_BARS, Part.DELTA_RI);
+        registerSpliceView(VmvtView.LOGO_RULER_AND_BARS, Part.LOGO, Part.RULER, Part.IC_BARS);
+        registerSpliceView(VmvtView.WALKER_WITH_MUTAGENESIS, Part.WALKER, Part.MUTAGENESIS);
+        registerSpliceView(VmvtView.DISTRIBUTION, Part.DISTRIBUTION);
+        registerView(VmvtView.HEXAMER.getName(), RenderPlan.ese(Part.HEXAMER));
+        registerView(VmvtView.HEPTAMER.getName(), RenderPlan.ese(Part.HEPTAMER));
+        // for backwards compatibility, see VmvtView#fromName
+        views.put("delta", views.get(VmvtView.DISTRIBUTION.getName()));
+    }
+
+    private void registerSpliceView(VmvtView view, Part... parts) {
+        registerView(view.getName(), RenderPlan.donor(parts), RenderPlan.acceptor(parts));
+    }
+
+    /**
+     * Make a view available under a name, so that it can be created with {@link #getSvg(String, String, String)}
+     * and the other methods that take the name of a view, e.g., by the batch renderer or the command line. The
+     * layout of the plans and the header of the SVGs are computed here, so that only the variant-dependent parts
+     * are created for each graphic.
+     *
+     * @param name  name of the view, e.g., donor-walker-ri
+     * @param plans plans of the view; a graphic is drawn with the first plan that accepts the length of the
+     *              sequences, e.g., a donor and an acceptor plan
+     * @throws VmvtRuntimeException if no plan is given or a view with this name exists
+     */
+    public void registerView(String name, RenderPlan... plans) {
+        if (plans.length == 0) {
+            throw new VmvtRuntimeException("No render plan given for view " + name);
+        }
+        List<CompiledPlan> compiled = new ArrayList<>(plans.length);
+        for (RenderPlan plan : plans) {
+            compiled.add(new CompiledPlan(plan, header(plan, compact), header(plan, false)));
+        }
+        if (views.putIfAbsent(name, new CompiledView(compiled)) != null) {
+            throw new VmvtRuntimeException("A view with the name " + name + " is already registered");
+        }
+    }
+
+    /** @return the cache of this generator, or null if graphics are not cached */
+    public RenderCache getRenderCache() {
+        return cache;
+    }
+
+    /** @return names of the registered views in alphabetical order */
+    public Set<String> getViewNames() {
+        return Collections.unmodifiableSet(new TreeSet<>(views.keySet()));
+    }
+
+    /**
+     * @param viewName name of a registered view
+     * @return description of everything that determines the graphics of the view besides the sequences and the
+     * output format: the settings of this generator and the plans of the view
+     * @throws VmvtRuntimeException if there is no view with this name
+     */
+    String signature(String viewName) {
+        CompiledView view = views.get(viewName);
+        if (view == null) {
+            throw new VmvtRuntimeException("Unrecognized view: " + viewName);
+        }
+        StringBuilder signature = new StringBuilder();
+        signature.append("framed=").append(framed).append(" compact=").append(compact)
+                .append(" decimals=").append(decimals);
+        for (CompiledPlan compiled : view.plans) {
+            signature.append(' ').append(compiled.plan);
+        }
+        return signature.toString();
+    }
+
+    private String header(RenderPlan plan, boolean compact) {
+        StringWriter swriter = new StringWriter();
+        try {
+            writeHeader(new SvgWriter(swriter, compact, decimals), plan.getWidth(), plan.getHeight(), framed);
+        } catch (IOException e) {
+            // a StringWriter does not throw
+            throw new UncheckedIOException(e);
+        }
+        return swriter.toString();
     }
 
     public String getDonorSequenceRuler(String reference, String alternate) {
-        SvgComponent donorRuler = SvgSequenceRuler.donor(reference, alternate);
-        return getDonorSvg(donorRuler);
+        return builtInSvg(VmvtView.RULER, MotifType.DONOR, reference, alternate);
     }
 
     public String getDonorSequenceLogoRulerAndBarChart(String ref, String alt) {
-        SvgSequenceLogo logo = SvgSequenceLogo.donor(donorHeight);
-        SvgSequenceRuler ruler = SvgSequenceRuler.donor(ref, alt);
-        SvgIcBarchart barChart = SvgIcBarchart.donorBarChart(ref, alt, donor);
-        return getDonorSvg(logo, ruler, barChart);
+        return builtInSvg(VmvtView.LOGO_RULER_AND_BARS, MotifType.DONOR, ref, alt);
     }
 
     public String getDonorSequenceRulerAndBarChartWithOffset(String ref, String alt, int i) {
+        EncodedVariant variant = EncodedVariant.of(ref, alt);
         SvgSequenceLogo donorLogo = SvgSequenceLogo.donor(donorHeight);
-        SvgComponent donorRuler = SvgSequenceRuler.donorWithOffset(ref, alt, i);
-        SvgIcBarchart svgIcBarchart = SvgIcBarchart.donorBarChart(ref, alt, donor);
+        SvgComponent donorRuler = SvgSequenceRuler.donorWithOffset(variant, i);
+        SvgIcBarchart svgIcBarchart = SvgIcBarchart.donorBarChart(variant, donor);
         return getDonorSvg(donorLogo, donorRuler, svgIcBarchart);
     }
 
     public String getAcceptorSequenceRuler(String reference, String alternate) {
-        SvgComponent acceptorRuler = SvgSequenceRuler.acceptor(reference, alternate);
-        return getAcceptorSvg(acceptorRuler);
+        return builtInSvg(VmvtView.RULER, MotifType.ACCEPTOR, reference, alternate);
     }
 
     public String getAcceptorSequenceRulerAndBarChartWithOffset(String ref, String alt, int i) {
+        EncodedVariant variant = EncodedVariant.of(ref, alt);
         SvgSequenceLogo acceptorLogo = SvgSequenceLogo.acceptor(acceptorHeight);
-        SvgComponent acceptorRuler = SvgSequenceRuler.acceptorWithOffset(ref, alt, i);
-        SvgIcBarchart svgIcBarchart = SvgIcBarchart.acceptorBarChart(ref, alt, this.acceptor);
+        SvgComponent acceptorRuler = SvgSequenceRuler.acceptorWithOffset(variant, i);
+        SvgIcBarchart svgIcBarchart = SvgIcBarchart.acceptorBarChart(variant, this.acceptor);
         return getAcceptorSvg(acceptorLogo, acceptorRuler, svgIcBarchart);
     }
 
     public String getAcceptorSequenceLogoRulerAndBarChart(String ref, String alt) {
-        SvgSequenceLogo logo = SvgSequenceLogo.acceptor(acceptorHeight);
-        SvgSequenceRuler ruler = SvgSequenceRuler.acceptor(ref, alt);
-        SvgIcBarchart barChart = SvgIcBarchart.acceptorBarChart(ref, alt, acceptor);
-        return getAcceptorSvg(logo, ruler, barChart);
+        return builtInSvg(VmvtView.LOGO_RULER_AND_BARS, MotifType.ACCEPTOR, ref, alt);
     }
 
 
@@ -108,14 +263,12 @@ public class VmvtGenerator {
 
 
     public String getRefAltDonorWalkerSvg(String reference, String alternate) {
-        SvgComponent donorWalker = SvgRefAltSequenceWalker.donorWalker(reference, alternate, donor);
-        return getDonorSvg(donorWalker);
+        return builtInSvg(VmvtView.WALKER, MotifType.DONOR, reference, alternate);
     }
 
 
     public String getRefAltAcceptorWalkerSvg(String reference, String alternate) {
-        SvgComponent acceptorWalker = SvgRefAltSequenceWalker.acceptorWalker(reference, alternate, acceptor);
-        return getAcceptorSvg(acceptorWalker);
+        return builtInSvg(VmvtView.WALKER, MotifType.ACCEPTOR, reference, alternate);
     }
 
 
@@ -130,35 +283,27 @@ public class VmvtGenerator {
     }
 
     public String getDonorTrekkerSvg(String reference, String alternate) {
-        SvgComponent donorLogo = SvgSequenceLogo.donor(donorHeight);
-        SvgComponent donorWalker = SvgRefAltSequenceWalker.donorWalker(reference, alternate, donor);
-        return getDonorSvg(donorLogo, donorWalker);
+        return builtInSvg(VmvtView.TREKKER, MotifType.DONOR, reference, alternate);
     }
 
     public String getAcceptorTrekkerSvg(String reference, String alternate) {
-        SvgComponent acceptorLogo = SvgSequenceLogo.acceptor(acceptorHeight);
-        SvgComponent acceptorWalker = SvgRefAltSequenceWalker.acceptorWalker(reference, alternate, acceptor);
-        return getAcceptorSvg(acceptorLogo, acceptorWalker);
+        return builtInSvg(VmvtView.TREKKER, MotifType.ACCEPTOR, reference, alternate);
     }
 
     public String getDonorDistributionSvg(String reference, String alternate) {
-        SvgComponent dsvg = new DeltaSvg(reference, alternate, donorDistribution);
-        return getSvg(ESE_SVG_WIDTH, dsvg);
+        return builtInSvg(VmvtView.DISTRIBUTION, MotifType.DONOR, reference, alternate);
     }
 
     public String getAcceptorDistributionSvg(String reference, String alternate) {
-        SvgComponent dsvg = new DeltaSvg(reference, alternate, acceptorDistribution);
-        return getSvg(ESE_SVG_WIDTH, dsvg);
+        return builtInSvg(VmvtView.DISTRIBUTION, MotifType.ACCEPTOR, reference, alternate);
     }
 
     public String getHexamerSvg(String reference, String alternate) {
-        SvgComponent ese = EseSvg.hexamer(reference, alternate);
-        return getSvg(SvgConstants.Dimensions.ESE_SVG_WIDTH, ese);
+        return builtInSvg(VmvtView.HEXAMER, null, reference, alternate);
     }
 
     public String getHeptamerSvg(String reference, String alternate) {
-        SvgComponent ese = EseSvg.heptamer(reference, alternate);
-        return getSvg(SvgConstants.Dimensions.ESE_SVG_WIDTH, ese);
+        return builtInSvg(VmvtView.HEPTAMER, null, reference, alternate);
     }
 
     public String getDelta(String reference, String alternate) {
@@ -167,61 +312,476 @@ public class VmvtGenerator {
     }
 
     public String getAcceptorTrekkerWithRi(String reference, String alternate) {
-        SvgComponent acceptorRuler = SvgSequenceRuler.acceptor(reference, alternate);
-        SvgComponent acceptorLogo = SvgSequenceLogo.acceptor(acceptorHeight);
-        SvgComponent acceptorWalkerWithRi = SvgRefAltSequenceWalker.acceptorWalker(reference, alternate, acceptor);
-        SvgComponent deltaRi = DeltaRiBox.acceptor(reference, alternate, acceptor);
-        return getAcceptorSvg(acceptorRuler, acceptorLogo, acceptorWalkerWithRi, deltaRi);
+        return builtInSvg(VmvtView.TREKKER_WITH_RI, MotifType.ACCEPTOR, reference, alternate);
     }
 
     public String getDonorTrekkerWithRi(String reference, String alternate) {
-        SvgComponent donorRuler = SvgSequenceRuler.donor(reference, alternate);
-        SvgComponent donorLogo = SvgSequenceLogo.donor(donorHeight);
-        SvgComponent donorWalkerWithRi = SvgRefAltSequenceWalker.donorWalker(reference, alternate, donor);
-        SvgComponent deltaRi = DeltaRiBox.donor(reference, alternate, donor);
-        return getDonorSvg(donorRuler, donorLogo, donorWalkerWithRi, deltaRi);
+        return builtInSvg(VmvtView.TREKKER_WITH_RI, MotifType.DONOR, reference, alternate);
     }
 
     public String getDonorIcBars(String reference, String alternate) {
-        SvgComponent donorRuler = SvgSequenceRuler.donor(reference, alternate);
-        SvgComponent donorBarChart = SvgIcBarchart.donorBarChart(reference, alternate, donor);
-        return getDonorSvg(donorRuler, donorBarChart);
+        return builtInSvg(VmvtView.IC_BARS, MotifType.DONOR, reference, alternate);
     }
 
     public String getDonorIcBarsWithRi(String reference, String alternate) {
-        SvgComponent donorRuler = SvgSequenceRuler.donor(reference, alternate);
-        SvgComponent donorBarChart = SvgIcBarchart.donorBarChart(reference, alternate, donor);
-        SvgComponent deltaRi = DeltaRiBox.donor(reference, alternate, donor);
-        return getDonorSvg(donorRuler, donorBarChart, deltaRi);
+        return builtInSvg(VmvtView.IC_BARS_WITH_RI, MotifType.DONOR, reference, alternate);
     }
 
     public String getDonorIcBarsWithLogoAndRi(String reference, String alternate) {
-        SvgComponent donorLogo = SvgSequenceLogo.donor(donorHeight);
-        SvgComponent donorRuler = SvgSequenceRuler.donor(reference, alternate);
-        SvgComponent donorBarChart = SvgIcBarchart.donorBarChart(reference, alternate, donor);
-        SvgComponent deltaRi = DeltaRiBox.donor(reference, alternate, donor);
-        return getDonorSvg(donorLogo, donorRuler, donorBarChart, deltaRi);
+        return builtInSvg(VmvtView.IC_BARS_WITH_LOGO_AND_RI, MotifType.DONOR, reference, alternate);
     }
 
     public String getAcceptorIcBars(String reference, String alternate) {
-        SvgComponent acceptorRuler = SvgSequenceRuler.acceptor(reference, alternate);
-        SvgComponent acceptorBarChart = SvgIcBarchart.acceptorBarChart(reference, alternate, acceptor);
-        return getAcceptorSvg(acceptorRuler, acceptorBarChart);
+        return builtInSvg(VmvtView.IC_BARS, MotifType.ACCEPTOR, reference, alternate);
     }
 
     public String getAcceptorIcBarsWithRi(String reference, String alternate) {
-        SvgComponent acceptorRuler = SvgSequenceRuler.acceptor(reference, alternate);
-        SvgComponent acceptorBarChart = SvgIcBarchart.acceptorBarChart(reference, alternate, acceptor);
-        SvgComponent deltaRi = DeltaRiBox.acceptor(reference, alternate, acceptor);
-        return getAcceptorSvg(acceptorRuler, acceptorBarChart, deltaRi);
+        return builtInSvg(VmvtView.IC_BARS_WITH_RI, MotifType.ACCEPTOR, reference, alternate);
     }
 
     public String getAcceptorIcBarsWithLogoAndRi(String reference, String alternate) {
-        SvgComponent acceptorLogo = SvgSequenceLogo.donor(acceptorHeight);
-        SvgComponent acceptorRuler = SvgSequenceRuler.acceptor(reference, alternate);
-        SvgComponent acceptorBarChart = SvgIcBarchart.acceptorBarChart(reference, alternate, acceptor);
-        SvgComponent deltaRi = DeltaRiBox.acceptor(reference, alternate, acceptor);
-        return getAcceptorSvg(acceptorLogo, acceptorRuler, acceptorBarChart, deltaRi);
+        return builtInSvg(VmvtView.IC_BARS_WITH_LOGO_AND_RI, MotifType.ACCEPTOR, reference, alternate);
+    }
+
+    /**
+     * Create the graphic for one of the {@link VmvtView}s. Except for the ESE views, a donor graphic is created
+     * for sequences of 9 nt and an acceptor graphic for sequences of 27 nt.
+     *
+     * @param view      the kind of graphic to create
+     * @param reference reference sequence
+     * @param alternate alternate sequence
+     * @return the SVG graphic
+     */
+    public String getSvg(VmvtView view, String reference, String alternate) {
+        return getSvg(view.getName(), reference, alternate);
+    }
+
+    /**
+     * Create the graphic for a registered view, see {@link #registerView(String, RenderPlan...)}.
+     *
+     * @param viewName  name of the view, e.g., trekker-ri
+     * @param reference reference sequence
+     * @param alternate alternate sequence
+     * @return the SVG graphic
+     * @throws VmvtRuntimeException if there is no view with this name or it cannot draw sequences of this length
+     */
+    public String getSvg(String viewName, String reference, String alternate) {
+        if (cache != null) {
+            return cache.getSvg(viewName, reference, alternate, () -> getSvg(document(viewName, reference, alternate)));
+        }
+        return getSvg(document(viewName, reference, alternate));
+    }
+
+    /**
+     * Create the graphic for a registered view from a variant that was already validated and encoded, e.g., for
+     * scoring with {@link VmvtScorer#score(EncodedVariant)}, so that the sequences are not encoded again.
+     *
+     * @param viewName name of the view, e.g., trekker-ri
+     * @param variant  encoded reference and alternate sequence
+     * @return the SVG graphic
+     * @throws VmvtRuntimeException if there is no view with this name or it cannot draw sequences of this length
+     */
+    public String getSvg(String viewName, EncodedVariant variant) {
+        if (cache != null) {
+            return cache.getSvg(viewName, variant.getReference(), variant.getAlternate(),
+                    () -> getSvg(document(viewName, variant)));
+        }
+        return getSvg(document(viewName, variant));
+    }
+
+    /**
+     * Write the graphic for one of the {@link VmvtView}s to a writer, without building the SVG as a String
+     * first. The writer is neither flushed nor closed.
+     *
+     * @param view      the kind of graphic to create
+     * @param reference reference sequence
+     * @param alternate alternate sequence
+     * @param writer    destination of the SVG
+     * @throws IOException if the SVG cannot be written
+     */
+    public void writeSvg(VmvtView view, String reference, String alternate, Writer writer) throws IOException {
+        writeSvg(view.getName(), reference, alternate, writer);
+    }
+
+    /**
+     * Write the graphic for a registered view to a writer. The writer is neither flushed nor closed.
+     *
+     * @param viewName  name of the view, e.g., trekker-ri
+     * @param reference reference sequence
+     * @param alternate alternate sequence
+     * @param writer    destination of the SVG
+     * @throws IOException if the SVG cannot be written
+     */
+    public void writeSvg(String viewName, String reference, String alternate, Writer writer) throws IOException {
+        if (cache != null) {
+            writer.write(getSvg(viewName, reference, alternate));
+        } else {
+            writeSvg(document(viewName, reference, alternate), writer);
+        }
+    }
+
+    /**
+     * Write the graphic for one of the {@link VmvtView}s to an output stream as UTF-8, without building the SVG
+     * as a String first. The stream is flushed but not closed.
+     *
+     * @param view      the kind of graphic to create
+     * @param reference reference sequence
+     * @param alternate alternate sequence
+     * @param out       destination of the SVG
+     * @throws IOException if the SVG cannot be written
+     */
+    public void writeSvg(VmvtView view, String reference, String alternate, OutputStream out) throws IOException {
+        writeImage(view.getName(), reference, alternate, OutputFormat.SVG, out);
+    }
+
+    private void writeSvg(SvgDocument document, OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writeSvg(document, writer);
+        writer.flush();
+    }
+
+    /**
+     * Write the graphic for one of the {@link VmvtView}s to an output stream as gzip-compressed SVG (SVGZ). The
+     * SVG is compressed while it is written, so that the uncompressed SVG is never held in memory. The gzip
+     * stream is finished and the output stream is flushed but not closed, so that the bytes can be followed by
+     * other data, e.g., in an HTTP response or an archive.
+     *
+     * @param view      the kind of graphic to create
+     * @param reference reference sequence
+     * @param alternate alternate sequence
+     * @param out       destination of the SVGZ
+     * @throws IOException if the SVGZ cannot be written
+     */
+    public void writeSvgz(VmvtView view, String reference, String alternate, OutputStream out) throws IOException {
+        writeImage(view.getName(), reference, alternate, OutputFormat.SVGZ, out);
+    }
+
+    private void writeSvgz(SvgDocument document, OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+        writeSvg(document, gzip);
+        gzip.finish();
+        out.flush();
+    }
+
+    /**
+     * @param view      the kind of graphic to create
+     * @param reference reference sequence
+     * @param alternate alternate sequence
+     * @return the gzip-compressed SVG graphic (SVGZ)
+     */
+    public byte[] getSvgz(VmvtView view, String reference, String alternate) {
+        return getImage(view.getName(), reference, alternate, OutputFormat.SVGZ);
+    }
+
+    private byte[] getSvgz(SvgDocument document) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(GZIP_BUFFER_SIZE);
+        try {
+            writeSvgz(document, bytes);
+        } catch (IOException e) {
+            // a ByteArrayOutputStream does not throw
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Draw the graphic for one of the {@link VmvtView}s with Java2D and write it to an output stream as PNG. This
+     * works without a display (headless). The stream is flushed but not closed.
+     *
+     * @param view      the kind of graphic to create
+     * @param reference reference sequence
+     * @param alternate alternate sequence
+     * @param out       destination of the PNG
+     * @throws IOException if the PNG cannot be written
+     */
+    public void writePng(VmvtView view, String reference, String alternate, OutputStream out) throws IOException {
+        writeImage(view.getName(), reference, alternate, OutputFormat.PNG, out);
+    }
+
+    /**
+     * @param view      the kind of graphic to create
+     * @param reference reference sequence
+     * @param alternate alternate sequence
+     * @return the graphic as PNG
+     */
+    public byte[] getPng(VmvtView view, String reference, String alternate) {
+        return getImage(view.getName(), reference, alternate, OutputFormat.PNG);
+    }
+
+    /**
+     * Write the graphic for one of the {@link VmvtView}s to an output stream in the given format. The stream is
+     * flushed but not closed.
+     *
+     * @param view      the kind of graphic to create
+     * @param reference reference sequence
+     * @param alternate alternate sequence
+     * @param format    SVG, SVGZ or PNG
+     * @param out       destination of the graphic
+     * @throws IOException if the graphic cannot be written
+     */
+    public void writeImage(VmvtView view, String reference, String alternate, OutputFormat format, OutputStream out)
+            throws IOException {
+        writeImage(view.getName(), reference, alternate, format, out);
+    }
+
+    /**
+     * Write the graphic for a registered view to an output stream in the given format. The stream is flushed but
+     * not closed.
+     *
+     * @param viewName  name of the view, e.g., trekker-ri
+     * @param reference reference sequence
+     * @param alternate alternate sequence
+     * @param format    SVG, SVGZ or PNG
+     * @param out       destination of the graphic
+     * @throws IOException if the graphic cannot be written
+     */
+    public void writeImage(String viewName, String reference, String alternate, OutputFormat format, OutputStream out)
+            throws IOException {
+        if (cache != null) {
+            if (format == OutputFormat.SVG) {
+                out.write(getSvg(viewName, reference, alternate).getBytes(StandardCharsets.UTF_8));
+            } else {
+                out.write(cachedBytes(viewName, reference, alternate, format));
+            }
+            out.flush();
+            return;
+        }
+        writeImage(document(viewName, reference, alternate), format, out);
+    }
+
+    /**
+     * Write the sequence logo of the splice donor to an output stream in the given format. The stream is flushed
+     * but not closed.
+     *
+     * @param format SVG, SVGZ or PNG
+     * @param out    destination of the graphic
+     * @throws IOException if the graphic cannot be written
+     */
+    public void writeDonorLogo(OutputFormat format, OutputStream out) throws IOException {
+        writeImage(donorDocument(SvgSequenceLogo.donor(donorHeight)), format, out);
+    }
+
+    /**
+     * Write the sequence logo of the splice acceptor to an output stream in the given format. The stream is
+     * flushed but not closed.
+     *
+     * @param format SVG, SVGZ or PNG
+     * @param out    destination of the graphic
+     * @throws IOException if the graphic cannot be written
+     */
+    public void writeAcceptorLogo(OutputFormat format, OutputStream out) throws IOException {
+        writeImage(acceptorDocument(SvgSequenceLogo.acceptor(acceptorHeight)), format, out);
+    }
+
+    private void writeImage(SvgDocument document, OutputFormat format, OutputStream out) throws IOException {
+        switch (format) {
+            case SVG:
+                writeSvg(document, out);
+                break;
+            case SVGZ:
+                writeSvgz(document, out);
+                break;
+            case PNG:
+                rasterizer().writePng(getPlainSvg(document), out);
+                break;
+            default:
+                // should never happen
+                throw new VmvtRuntimeException("Unrecognized output format: " + format);
+        }
+    }
+
+    /**
+     * @param view      the kind of graphic to create
+     * @param reference reference sequence
+     * @param alternate alternate sequence
+     * @param format    SVG, SVGZ or PNG
+     * @return the encoded graphic (SVGs as UTF-8)
+     */
+    public byte[] getImage(VmvtView view, String reference, String alternate, OutputFormat format) {
+        return getImage(view.getName(), reference, alternate, format);
+    }
+
+    /**
+     * @param viewName  name of a registered view, e.g., trekker-ri
+     * @param reference reference sequence
+     * @param alternate alternate sequence
+     * @param format    SVG, SVGZ or PNG
+     * @return the encoded graphic (SVGs as UTF-8)
+     */
+    public byte[] getImage(String viewName, String reference, String alternate, OutputFormat format) {
+        if (format == OutputFormat.SVG) {
+            return getSvg(viewName, reference, alternate).getBytes(StandardCharsets.UTF_8);
+        } else if (cache != null) {
+            // the cached array must not be modified by the caller
+            return cachedBytes(viewName, reference, alternate, format).clone();
+        }
+        return encode(document(viewName, reference, alternate), format);
+    }
+
+    private byte[] cachedBytes(String viewName, String reference, String alternate, OutputFormat format) {
+        return cache.getBytes(viewName, reference, alternate, format,
+                () -> encode(document(viewName, reference, alternate), format));
+    }
+
+    /**
+     * @param format SVGZ or PNG
+     * @return the encoded graphic
+     */
+    private byte[] encode(SvgDocument document, OutputFormat format) {
+        switch (format) {
+            case SVGZ:
+                return getSvgz(document);
+            case PNG:
+                return rasterizer().toPng(getPlainSvg(document));
+            default:
+                // should never happen
+                throw new VmvtRuntimeException("Unrecognized output format: " + format);
+        }
+    }
+
+    /**
+     * @return the rasterizer for PNG output
+     * @throws VmvtRuntimeException if the module java.desktop, which the core module only requires statically, was
+     * not resolved
+     */
+    private static SvgRasterizer rasterizer() {
+        ModuleLayer layer = VmvtGenerator.class.getModule().getLayer();
+        if (layer != null && layer.findModule("java.desktop").isEmpty()) {
+            throw new VmvtRuntimeException("PNG output requires the module java.desktop (e.g., --add-modules java.desktop)");
+        }
+        return RasterizerHolder.RASTERIZER;
+    }
+
+    /** Created on first use, so that AWT is only loaded if PNGs are requested. */
+    private static class RasterizerHolder {
+        private static final SvgRasterizer RASTERIZER = new SvgRasterizer();
+    }
+
+    /**
+     * A render plan and the headers of its SVGs, which only depend on the size of the plan and the format of the
+     * generator.
+     */
+    private static class CompiledPlan {
+        private final RenderPlan plan;
+        /** Header in the format of this generator (compact or not). */
+        private final String header;
+        /** Header of non-compact SVGs, which are the input of the {@link SvgRasterizer}. */
+        private final String plainHeader;
+
+        CompiledPlan(RenderPlan plan, String header, String plainHeader) {
+            this.plan = plan;
+            this.header = header;
+            this.plainHeader = plainHeader;
+        }
+    }
+
+    /** The plans of a registered view. */
+    private static class CompiledView {
+        private final List<CompiledPlan> plans;
+
+        CompiledView(List<CompiledPlan> plans) {
+            this.plans = plans;
+        }
+
+        CompiledPlan plan(int seqlen) {
+            for (CompiledPlan compiled : plans) {
+                if (compiled.plan.accepts(seqlen)) {
+                    return compiled;
+                }
+            }
+            throw new VmvtRuntimeException(String.format("sequence length (%d) did not conform to donor or acceptor",
+                    seqlen));
+        }
+    }
+
+    private CompiledView view(String viewName) {
+        CompiledView view = views.get(viewName);
+        if (view == null) {
+            throw new VmvtRuntimeException("Unrecognized view: " + viewName);
+        }
+        return view;
+    }
+
+    private SvgDocument document(String viewName, String reference, String alternate) {
+        return document(view(viewName).plan(reference.length()), reference, alternate);
+    }
+
+    private SvgDocument document(String viewName, EncodedVariant variant) {
+        CompiledPlan compiled = view(viewName).plan(variant.length());
+        return new SvgDocument(compiled, compiled.plan.components(variant));
+    }
+
+    /**
+     * Graphics of the built-in views. If the length of the sequences matches the site, the graphic is the same as
+     * the graphic of the view, which is looked up in the cache.
+     *
+     * @param view a built-in view
+     * @param type donor or acceptor, ignored for the ESE views
+     */
+    private String builtInSvg(VmvtView view, MotifType type, String reference, String alternate) {
+        List<CompiledPlan> plans = views.get(view.getName()).plans;
+        // see registerBuiltInViews
+        CompiledPlan compiled = type == MotifType.ACCEPTOR ? plans.get(1) : plans.get(0);
+        if (cache != null && compiled.plan.accepts(reference.length())) {
+            return getSvg(view.getName(), reference, alternate);
+        }
+        return getSvg(document(compiled, reference, alternate));
+    }
+
+    private SvgDocument document(CompiledPlan compiled, String reference, String alternate) {
+        return new SvgDocument(compiled, compiled.plan.components(reference, alternate));
+    }
+
+    /**
+     * The width and the vertical components of an SVG graphic. The components are created before anything is
+     * written, so that the total height is known when the header is written. Documents of registered views take
+     * the header and the layout from their plan.
+     */
+    private static class SvgDocument {
+        private final int width;
+        private final List<SvgComponent> components;
+        /** The plan of the document, or null for graphics that are not a registered view. */
+        private final CompiledPlan compiled;
+
+        SvgDocument(int width, SvgComponent... components) {
+            this.width = width;
+            this.components = Arrays.asList(components);
+            this.compiled = null;
+        }
+
+        SvgDocument(CompiledPlan compiled, SvgComponent... components) {
+            this.width = compiled.plan.getWidth();
+            this.components = Arrays.asList(components);
+            this.compiled = compiled;
+        }
+
+        int height() {
+            int totalComponentHeight = components.stream().mapToInt(SvgComponent::height).sum();
+            int totalIntercomponentHeight = (components.size() - 1) * INTERCOMPONENT_VERTICAL_OFFSET;
+            return totalComponentHeight + totalIntercomponentHeight + SVG_Y_TOP_MARGIN + SVG_Y_BOTTOM_MARGIN;
+        }
+    }
+
+    /**
+     * @param components vertical parts of an SVG for a splice donor variant
+     */
+    private SvgDocument donorDocument(SvgComponent... components) {
+        return new SvgDocument(SVG_DONOR_WIDTH, components);
+    }
+
+    /**
+     * @param components vertical parts of an SVG for a splice acceptor variant
+     */
+    private SvgDocument acceptorDocument(SvgComponent... components) {
+        return new SvgDocument(SVG_ACCEPTOR_WIDTH, components);
+    }
+
+    /**
+     * @param width      width of the SVG
+     * @param components vertical parts of the SVG
+     */
+    private SvgDocument document(int width, SvgComponent... components) {
+        return new SvgDocument(width, components);
     }
 
     /**
@@ -231,8 +791,7 @@ public class VmvtGenerator {
      * @return the SVG graphic
      */
     private String getDonorSvg(SvgComponent... components) {
-        List<SvgComponent> comps = new ArrayList<>(Arrays.asList(components));
-        return getSvg(SVG_DONOR_WIDTH, comps);
+        return getSvg(donorDocument(components));
     }
 
     /**
@@ -242,8 +801,7 @@ public class VmvtGenerator {
      * @return the SVG graphic
      */
     private String getAcceptorSvg(SvgComponent... components) {
-        List<SvgComponent> comps = new ArrayList<>(Arrays.asList(components));
-        return getSvg(SVG_ACCEPTOR_WIDTH, comps);
+        return getSvg(acceptorDocument(components));
     }
 
 
@@ -254,8 +812,7 @@ public class VmvtGenerator {
      * @return the SVG graphic
      */
     private String getDonorPlusTextSvg(SvgComponent... components) {
-        List<SvgComponent> comps = new ArrayList<>(Arrays.asList(components));
-        return getSvg(SVG_DONOR_SINGLE_WALKER_WIDTH+EXTRA_TEXT_WIDTH, comps);
+        return getSvg(document(SVG_DONOR_SINGLE_WALKER_WIDTH+EXTRA_TEXT_WIDTH, components));
     }
 
     /**
@@ -265,29 +822,58 @@ public class VmvtGenerator {
      * @return the SVG graphic
      */
     private String getSvg(int width, SvgComponent... components) {
-        List<SvgComponent> comps = new ArrayList<>(Arrays.asList(components));
-        return getSvg(width, comps);
+        return getSvg(document(width, components));
     }
 
-    private String getSvg(int width, List<SvgComponent> components) {
-        int totalComponentHeight = components.stream().mapToInt(SvgComponent::height).sum();
-        int totalIntercomponentHeight = (components.size() - 1) * INTERCOMPONENT_VERTICAL_OFFSET;
-        int totalHeight = totalComponentHeight + totalIntercomponentHeight + SVG_Y_TOP_MARGIN + SVG_Y_BOTTOM_MARGIN;
+    private String getSvg(SvgDocument document) {
         StringWriter swriter = new StringWriter();
-        int ypos = SVG_Y_TOP_MARGIN;
         try {
-            writeHeader(swriter, width, totalHeight, this.framed);
-            for (var c : components) {
-                c.write(swriter, ypos);
-                ypos += c.height() + INTERCOMPONENT_VERTICAL_OFFSET;
-            }
-            writeFooter(swriter);
+            writeSvg(document, swriter);
             return swriter.toString();
         } catch (IOException e) {
             return getSvgErrorMessage(e.getMessage());
         }
     }
 
+    /**
+     * @return the SVG in the default (non-compact) format, which is the input of the {@link SvgRasterizer}
+     */
+    private String getPlainSvg(SvgDocument document) {
+        StringWriter swriter = new StringWriter();
+        try {
+            writeSvg(document, new SvgWriter(swriter));
+        } catch (IOException e) {
+            // a StringWriter does not throw
+            throw new UncheckedIOException(e);
+        }
+        return swriter.toString();
+    }
+
+    /**
+     * Stream the header, the components and the footer of the SVG to the writer.
+     */
+    private void writeSvg(SvgDocument document, Writer out) throws IOException {
+        writeSvg(document, new SvgWriter(out, compact, decimals));
+    }
+
+    private void writeSvg(SvgDocument document, SvgWriter writer) throws IOException {
+        if (document.compiled != null) {
+            RenderPlan plan = document.compiled.plan;
+            writer.write(writer.isCompact() ? document.compiled.header : document.compiled.plainHeader);
+            for (int i = 0; i < document.components.size(); i++) {
+                document.components.get(i).write(writer, plan.getYOffset(i));
+            }
+        } else {
+            int ypos = SVG_Y_TOP_MARGIN;
+            writeHeader(writer, document.width, document.height(), this.framed);
+            for (var c : document.components) {
+                c.write(writer, ypos);
+                ypos += c.height() + INTERCOMPONENT_VERTICAL_OFFSET;
+            }
+        }
+        writeFooter(writer);
+    }
+
     /**
      * If there is some IO Exception, return an SVG with a text that indicates the error
      *
@@ -315,13 +901,18 @@ public class VmvtGenerator {
      * @param framed if true, write a black frame around the SVG
      * @throws IOException if we cannot write
      */
-    private void writeHeader(Writer writer, int width, int height, boolean framed) throws IOException {
+    private void writeHeader(SvgWriter writer, int width, int height, boolean framed) throws IOException {
         writer.write("<svg width=\"" + width + "\" height=\"" + height + "\" ");
         if (framed) {
             writer.write("style=\"border:1px solid black\" ");
         }
-        writer.write("xmlns=\"http://www.w3.org/2000/svg\" " +
-                "xmlns:svg=\"http://www.w3.org/2000/svg\">\n");
+        if (writer.isCompact()) {
+            // compact SVGs refer to the glyphs of the bases with xlink:href
+            writer.write("xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\">\n");
+        } else {
+            writer.write("xmlns=\"http://www.w3.org/2000/svg\" " +
+                    "xmlns:svg=\"http://www.w3.org/2000/svg\">\n");
+        }
         writer.write("<!-- Created by vmvt -->\n");
         writer.write("<style>\n" +
                 "  text { font: 24px " + SVG_FONTS + "; }\n" +
@@ -333,12 +924,15 @@ public class VmvtGenerator {
     }
 
     /**
-     * Write the footer of the SVG
+     * Write the footer of the SVG. Compact SVGs are streamed, so the glyphs they use are only known at the end
+     * of the document and are defined here.
      *
      * @param writer file handle
      * @throws IOException if we cannot write
      */
-    private void writeFooter(Writer writer) throws IOException {
-        writer.write("</g>\n</svg>\n");
+    private void writeFooter(SvgWriter writer) throws IOException {
+        writer.write("</g>\n");
+        writer.writeGlyphDefinitions();
+        writer.write("</svg>\n");
     }
 }
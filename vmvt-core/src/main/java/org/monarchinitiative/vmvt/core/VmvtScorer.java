@@ -0,0 +1,246 @@
+package org.monarchinitiative.vmvt.core;
+
+import org.monarchinitiative.vmvt.core.batch.VariantRequest;
+import org.monarchinitiative.vmvt.core.dist.ExactDistributionCalculator;
+import org.monarchinitiative.vmvt.core.dist.MotifRegistry;
+import org.monarchinitiative.vmvt.core.dist.RiTable;
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+import org.monarchinitiative.vmvt.core.hexamer.FileKMerParser;
+import org.monarchinitiative.vmvt.core.hexamer.HeptamerFeatureCalculator;
+import org.monarchinitiative.vmvt.core.hexamer.HexamerFeatureCalculator;
+import org.monarchinitiative.vmvt.core.hexamer.KmerFeatureCalculator;
+import org.monarchinitiative.vmvt.core.pssm.Bases;
+import org.monarchinitiative.vmvt.core.pssm.DoubleMatrix;
+import org.monarchinitiative.vmvt.core.svg.SvgConstants.MotifType;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+
+import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Sequence.*;
+
+/**
+ * Numeric counterpart of {@link VmvtGenerator}: calculates the individual sequence information (R_i) of
+ * reference and alternate splice sequences, the change in R_i, its percentile among random single-nucleotide
+ * variants, and the ESE k-mer score differences without creating any SVG graphics. Sequences are validated and
+ * encoded once as an {@link EncodedVariant}; the methods that take an encoded variant or a packed window and
+ * return primitive values do not allocate any objects. A scorer can be shared by multiple threads.
+ */
+public class VmvtScorer {
+
+    /** Length of the ESE sequences of {@link #score(String, String, String, String)}. */
+    private static final int ESE_NT_LENGTH = 13;
+
+    private final DoubleMatrix donor;
+    private final DoubleMatrix acceptor;
+    private final KmerFeatureCalculator hexamerCalculator;
+    private final KmerFeatureCalculator heptamerCalculator;
+
+    public VmvtScorer() {
+        donor = MotifRegistry.icMatrix(MotifType.DONOR);
+        acceptor = MotifRegistry.icMatrix(MotifType.ACCEPTOR);
+        hexamerCalculator = new HexamerFeatureCalculator(FileKMerParser.hexamerMap());
+        heptamerCalculator = new HeptamerFeatureCalculator(FileKMerParser.heptamerMap());
+    }
+
+    /**
+     * @param seq a donor (9 nt) or acceptor (27 nt) sequence
+     * @return individual sequence information of the sequence (bits)
+     */
+    public double ri(String seq) {
+        return ri(matrixForLength(seq.length()), seq);
+    }
+
+    /**
+     * @param ref reference donor (9 nt) or acceptor (27 nt) sequence
+     * @param alt alternate sequence of the same length
+     * @return R_i(ref) - R_i(alt)
+     */
+    public double deltaRi(String ref, String alt) {
+        return deltaRi(EncodedVariant.of(ref, alt));
+    }
+
+    /**
+     * @param variant encoded donor or acceptor variant
+     * @return R_i(ref) - R_i(alt)
+     */
+    public double deltaRi(EncodedVariant variant) {
+        DoubleMatrix site = variant.isDonor() ? donor : acceptor;
+        return site.refRi(variant) - site.altRi(variant);
+    }
+
+    /**
+     * Look up the R_i of a donor sequence in the table of all donor sequences ({@link MotifRegistry#donorRiTable()}),
+     * which is built the first time it is needed. The value is a float, see {@link RiTable}.
+     * @param window donor sequence packed with {@link PackedWindow#pack(CharSequence)}
+     * @return individual sequence information of the sequence (bits)
+     */
+    public double donorRi(long window) {
+        return MotifRegistry.donorRiTable().ri(window);
+    }
+
+    /**
+     * @param ref packed reference donor sequence
+     * @param alt packed alternate donor sequence
+     * @return R_i(ref) - R_i(alt), looked up as in {@link #donorRi(long)}
+     */
+    public double donorDeltaRi(long ref, long alt) {
+        RiTable table = MotifRegistry.donorRiTable();
+        return (double) table.ri(ref) - table.ri(alt);
+    }
+
+    /**
+     * @param deltaRi a change in R_i, see {@link #deltaRi(String, String)}
+     * @param isDonor true for donor sites, false for acceptor sites
+     * @return percentage of random single-nucleotide variants whose change in R_i is less than or equal to deltaRi
+     */
+    public double deltaRiPercentile(double deltaRi, boolean isDonor) {
+        return distribution(isDonor).percentile(deltaRi);
+    }
+
+    /**
+     * @param deltaRi a change in R_i, see {@link #deltaRi(String, String)}
+     * @param isDonor true for donor sites, false for acceptor sites
+     * @return probability that a random single-nucleotide variant causes a change in R_i greater than or equal
+     * to deltaRi (an empirical p-value for the loss of R_i)
+     */
+    public double deltaRiTailProbability(double deltaRi, boolean isDonor) {
+        return distribution(isDonor).tailProbability(deltaRi);
+    }
+
+    /**
+     * @param ref reference sequence (11 nt)
+     * @param alt alternate sequence (11 nt)
+     * @return difference of the hexamer scores of ref and alt, see {@link KmerFeatureCalculator#delta(String, String)}
+     */
+    public double hexamerDelta(String ref, String alt) {
+        return hexamerCalculator.delta(ref, alt);
+    }
+
+    /**
+     * @param ref reference sequence (13 nt)
+     * @param alt alternate sequence (13 nt)
+     * @return difference of the heptamer scores of ref and alt, see {@link KmerFeatureCalculator#delta(String, String)}
+     */
+    public double heptamerDelta(String ref, String alt) {
+        return heptamerCalculator.delta(ref, alt);
+    }
+
+    /**
+     * Score a donor or acceptor variant. The ESE deltas of the result are {@link Double#NaN}.
+     * @param ref reference donor (9 nt) or acceptor (27 nt) sequence
+     * @param alt alternate sequence of the same length
+     * @return scores of the variant
+     */
+    public VariantScore score(String ref, String alt) {
+        return score(EncodedVariant.of(ref, alt));
+    }
+
+    /**
+     * Score a donor or acceptor variant that was already encoded, e.g., because it is also drawn with
+     * {@link VmvtGenerator#getSvg(String, EncodedVariant)}. The ESE deltas of the result are {@link Double#NaN}.
+     * @param variant encoded donor or acceptor variant
+     * @return scores of the variant
+     */
+    public VariantScore score(EncodedVariant variant) {
+        DoubleMatrix site = variant.isDonor() ? donor : acceptor;
+        double refRi = site.refRi(variant);
+        double altRi = site.altRi(variant);
+        double percentile = deltaRiPercentile(refRi - altRi, variant.isDonor());
+        return new VariantScore(refRi, altRi, percentile, Double.NaN, Double.NaN);
+    }
+
+    /**
+     * Score a donor or acceptor variant together with the ESE scores of the variant.
+     * @param ref reference donor (9 nt) or acceptor (27 nt) sequence
+     * @param alt alternate sequence of the same length
+     * @param eseRef 13 nt of reference sequence centered on the variant. The hexamer scores are calculated on
+     *               the central 11 nt and the heptamer scores on the entire sequence.
+     * @param eseAlt the corresponding 13 nt of alternate sequence
+     * @return scores of the variant
+     */
+    public VariantScore score(String ref, String alt, String eseRef, String eseAlt) {
+        if (eseRef == null || eseAlt == null || eseRef.length() != ESE_NT_LENGTH || eseAlt.length() != ESE_NT_LENGTH) {
+            throw new VmvtRuntimeException(String.format("ESE sequences (%s, %s) need to have %d nt",
+                    eseRef, eseAlt, ESE_NT_LENGTH));
+        }
+        VariantScore score = score(EncodedVariant.of(ref, alt));
+        double hexamer = hexamerDelta(eseRef.substring(1, eseRef.length() - 1), eseAlt.substring(1, eseAlt.length() - 1));
+        double heptamer = heptamerDelta(eseRef, eseAlt);
+        return new VariantScore(score.getRefRi(), score.getAltRi(), score.getDeltaRiPercentile(), hexamer, heptamer);
+    }
+
+    /**
+     * Score all variants and write one tab-separated line per variant (id, ref, alt, ref_ri, alt_ri, delta_ri,
+     * delta_ri_percentile, hexamer_delta, heptamer_delta) after a header line. The ESE deltas are calculated for
+     * requests with ESE sequences ({@link VariantRequest#getEseReference()}) and are NA otherwise. Variants that
+     * cannot be scored, e.g., because of invalid characters, are written with NA values. One line is assembled
+     * per variant in a reused buffer, but the numbers are converted to text with {@link StringBuilder#append(double)},
+     * which creates temporary objects.
+     * @param requests variants to be scored
+     * @param writer handle to write the TSV to
+     * @return number of variants that were scored
+     * @throws IOException if we cannot write
+     */
+    public long scoreAll(Iterator<VariantRequest> requests, Writer writer) throws IOException {
+        writer.write("#id\tref\talt\tref_ri\talt_ri\tdelta_ri\tdelta_ri_percentile\thexamer_delta\theptamer_delta\n");
+        StringBuilder sb = new StringBuilder(160);
+        long n = 0;
+        while (requests.hasNext()) {
+            VariantRequest request = requests.next();
+            sb.setLength(0);
+            sb.append(request.getId()).append('\t')
+                    .append(request.getReference()).append('\t')
+                    .append(request.getAlternate()).append('\t');
+            try {
+                VariantScore score = request.getEseReference() == null
+                        ? score(EncodedVariant.of(request.getReference(), request.getAlternate()))
+                        : score(request.getReference(), request.getAlternate(),
+                                request.getEseReference(), request.getEseAlternate());
+                sb.append(score.getRefRi()).append('\t')
+                        .append(score.getAltRi()).append('\t')
+                        .append(score.getDeltaRi()).append('\t')
+                        .append(score.getDeltaRiPercentile()).append('\t');
+                appendOrNa(sb, score.getHexamerDelta()).append('\t');
+                appendOrNa(sb, score.getHeptamerDelta()).append('\n');
+                n++;
+            } catch (VmvtRuntimeException e) {
+                sb.append("NA\tNA\tNA\tNA\tNA\tNA\n");
+            }
+            writer.append(sb);
+        }
+        return n;
+    }
+
+    private static StringBuilder appendOrNa(StringBuilder sb, double value) {
+        return Double.isNaN(value) ? sb.append("NA") : sb.append(value);
+    }
+
+    private static ExactDistributionCalculator distribution(boolean isDonor) {
+        return MotifRegistry.distribution(isDonor ? MotifType.DONOR : MotifType.ACCEPTOR);
+    }
+
+    private DoubleMatrix matrixForLength(int seqlen) {
+        if (seqlen == DONOR_NT_LENGTH) {
+            return donor;
+        } else if (seqlen == ACCEPTOR_NT_LENGTH) {
+            return acceptor;
+        }
+        throw new VmvtRuntimeException(String.format("sequence length (%d) did not conform to donor or acceptor", seqlen));
+    }
+
+    /**
+     * Sum the information content of each base of the sequence without creating an index array.
+     */
+    private static double ri(DoubleMatrix site, String seq) {
+        double R_i = 0.0;
+        for (int i = 0; i < seq.length(); i++) {
+            int base = Bases.index(seq.charAt(i));
+            if (base < 0) {
+                throw new VmvtRuntimeException(String.format("Bad nucleotide in sequence (%s): Only ACGT/acgt allowed!", seq));
+            }
+            R_i += site.get(base, i);
+        }
+        return R_i;
+    }
+}
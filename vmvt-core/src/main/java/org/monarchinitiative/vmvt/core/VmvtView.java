@@ -0,0 +1,51 @@
+package org.monarchinitiative.vmvt.core;
+
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+
+/**
+ * The graphics that can be created for a pair of reference and alternate sequences with
+ * {@link VmvtGenerator#getSvg(VmvtView, String, String)}. With the exception of the ESE views, whether
+ * a donor or an acceptor graphic is drawn is determined by the length of the sequences.
+ */
+public enum VmvtView {
+    RULER("ruler"),
+    WALKER("walker"),
+    TREKKER("trekker"),
+    TREKKER_WITH_RI("trekker-ri"),
+    IC_BARS("ic-bars"),
+    IC_BARS_WITH_RI("ic-bars-ri"),
+    IC_BARS_WITH_LOGO_AND_RI("ic-bars-logo-ri"),
+    LOGO_RULER_AND_BARS("logo-ruler-bars"),
+    WALKER_WITH_MUTAGENESIS("walker-mutagenesis"),
+    DISTRIBUTION("distribution"),
+    HEXAMER("hexamer"),
+    HEPTAMER("heptamer");
+
+    private final String name;
+
+    VmvtView(String name) {
+        this.name = name;
+    }
+
+    /** @return the name of this view as used on the command line, e.g., trekker-ri */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @param name name of a view (e.g., trekker-ri). For backwards compatibility, "delta" is accepted
+     *             as a synonym of "distribution".
+     * @return the corresponding view
+     */
+    public static VmvtView fromName(String name) {
+        if (name.equals("delta")) {
+            return DISTRIBUTION;
+        }
+        for (VmvtView view : values()) {
+            if (view.name.equals(name)) {
+                return view;
+            }
+        }
+        throw new VmvtRuntimeException("Unrecognized view: " + name);
+    }
+}
@@ -0,0 +1,13 @@
+package org.monarchinitiative.vmvt.core.batch;
+
+import java.io.IOException;
+
+/**
+ * Receives the results of a {@link VmvtBatchRenderer}. The sink is always called from the thread that
+ * started the batch, so implementations do not need to be thread-safe.
+ */
+@FunctionalInterface
+public interface RenderSink {
+
+    void accept(RenderedSvg result) throws IOException;
+}
@@ -0,0 +1,75 @@
+package org.monarchinitiative.vmvt.core.batch;
+
+import org.monarchinitiative.vmvt.core.OutputFormat;
+
+/**
+ * The result of rendering one {@link VariantRequest}. If the SVG could not be created (e.g., because
+ * of an invalid sequence), {@link #getSvg()} returns null and {@link #getError()} the reason. If the
+ * renderer writes SVGZ or PNG, the graphic is only available as bytes ({@link #getBytes()}).
+ */
+public class RenderedSvg {
+    private final VariantRequest request;
+    /** Zero-based position of the request in the input. */
+    private final long index;
+    private final String svg;
+    /** The encoded graphic if the format is not {@link OutputFormat#SVG}. */
+    private final byte[] bytes;
+    private final OutputFormat format;
+    private final RuntimeException error;
+
+    private RenderedSvg(VariantRequest request, long index, String svg, byte[] bytes, OutputFormat format,
+                        RuntimeException error) {
+        this.request = request;
+        this.index = index;
+        this.svg = svg;
+        this.bytes = bytes;
+        this.format = format;
+        this.error = error;
+    }
+
+    static RenderedSvg success(VariantRequest request, long index, String svg) {
+        return new RenderedSvg(request, index, svg, null, OutputFormat.SVG, null);
+    }
+
+    static RenderedSvg encoded(VariantRequest request, long index, byte[] bytes, OutputFormat format) {
+        return new RenderedSvg(request, index, null, bytes, format, null);
+    }
+
+    static RenderedSvg failure(VariantRequest request, long index, OutputFormat format, RuntimeException error) {
+        return new RenderedSvg(request, index, null, null, format, error);
+    }
+
+    public VariantRequest getRequest() {
+        return request;
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /** @return the SVG, or null if rendering failed or the format is not {@link OutputFormat#SVG} */
+    public String getSvg() {
+        return svg;
+    }
+
+    /** @return the format of the renderer that created this result */
+    public OutputFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * @return the SVGZ or PNG bytes, or null if rendering failed or the format is {@link OutputFormat#SVG}. The
+     * array is not copied and must not be modified.
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public RuntimeException getError() {
+        return error;
+    }
+}
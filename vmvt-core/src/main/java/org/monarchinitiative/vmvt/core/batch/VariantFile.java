@@ -0,0 +1,239 @@
+package org.monarchinitiative.vmvt.core.batch;
+
+import org.monarchinitiative.vmvt.core.PackedWindow;
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Compact binary file of variants for batch rendering, with the sequences as {@link PackedWindow}s. The file
+ * starts with the magic bytes {@code VMVTVAR} and a version byte, followed by the number of view names (int) and
+ * the view names (modified UTF-8 as written by {@link DataOutput#writeUTF(String)}). Then, until the end of the
+ * file, each variant is a record of {@value #RECORD_BYTES} bytes: the reference key (long), the alternate key
+ * (long) and the index of the view name (short, -1 if the default view of the batch is to be used). All numbers
+ * are big-endian. Variants do not have ids; the reader numbers them starting at 1.
+ */
+public final class VariantFile {
+
+    /** Size of one variant in bytes. */
+    public static final int RECORD_BYTES = 18;
+    private static final byte[] MAGIC = {'V', 'M', 'V', 'T', 'V', 'A', 'R', 1};
+
+    private VariantFile() {
+    }
+
+    /**
+     * @param path a file
+     * @return true if the file starts with the magic bytes of a variant file
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isVariantFile(Path path) throws IOException {
+        byte[] start = new byte[MAGIC.length];
+        try (InputStream in = Files.newInputStream(path)) {
+            int n = in.readNBytes(start, 0, start.length);
+            return n == start.length && Arrays.equals(start, MAGIC);
+        }
+    }
+
+    /**
+     * Writes variants to a stream. The stream is closed when the writer is closed.
+     */
+    public static final class Writer implements Closeable {
+        private final DataOutputStream out;
+        private final Map<String, Integer> viewIndices = new HashMap<>();
+        private long count = 0;
+
+        /**
+         * @param out       destination of the file
+         * @param viewNames names of all views that are used by the variants
+         * @throws IOException if the header cannot be written
+         */
+        public Writer(OutputStream out, Collection<String> viewNames) throws IOException {
+            if (viewNames.size() > Short.MAX_VALUE) {
+                throw new VmvtRuntimeException("Too many view names: " + viewNames.size());
+            }
+            this.out = new DataOutputStream(new BufferedOutputStream(out));
+            this.out.write(MAGIC);
+            this.out.writeInt(viewNames.size());
+            for (String name : viewNames) {
+                viewIndices.put(name, viewIndices.size());
+                this.out.writeUTF(name);
+            }
+        }
+
+        /**
+         * @param reference packed reference sequence
+         * @param alternate packed alternate sequence
+         * @param viewName  one of the view names of the writer, or null for the default view of the batch
+         * @throws IOException if the variant cannot be written
+         */
+        public void write(long reference, long alternate, String viewName) throws IOException {
+            int index = -1;
+            if (viewName != null) {
+                Integer i = viewIndices.get(viewName);
+                if (i == null) {
+                    throw new VmvtRuntimeException("View was not declared in the header: " + viewName);
+                }
+                index = i;
+            }
+            out.writeLong(reference);
+            out.writeLong(alternate);
+            out.writeShort(index);
+            count++;
+        }
+
+        /**
+         * Write a variant (the id of the request is not stored).
+         * @param request a variant with sequences of up to {@link PackedWindow#MAX_LENGTH} nt
+         * @throws IOException if the variant cannot be written
+         */
+        public void write(VariantRequest request) throws IOException {
+            write(PackedWindow.pack(request.getReference()), PackedWindow.pack(request.getAlternate()),
+                    request.getViewName());
+        }
+
+        /** @return number of variants written */
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads variants from a stream, either record by record with {@link #next()}, which does not allocate, or as
+     * {@link VariantRequest}s with {@link #requests()}. The stream is closed when the reader is closed.
+     */
+    public static final class Reader implements Closeable {
+        private final DataInputStream in;
+        private final String[] viewNames;
+        private long count = 0;
+        private long reference;
+        private long alternate;
+        private int viewIndex;
+
+        /**
+         * @param in source of the file
+         * @throws IOException if the header cannot be read or is not the header of a variant file
+         */
+        public Reader(InputStream in) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(in));
+            byte[] magic = new byte[MAGIC.length];
+            this.in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a vmvt variant file (or an unsupported version)");
+            }
+            int n = this.in.readInt();
+            if (n < 0 || n > Short.MAX_VALUE) {
+                throw new IOException("Invalid number of view names: " + n);
+            }
+            viewNames = new String[n];
+            for (int i = 0; i < n; i++) {
+                viewNames[i] = this.in.readUTF();
+            }
+        }
+
+        /**
+         * Read the next variant.
+         * @return false at the end of the file
+         * @throws IOException if the file cannot be read, ends within a record or the record is invalid
+         */
+        public boolean next() throws IOException {
+            int first = in.read();
+            if (first < 0) {
+                return false;
+            }
+            try {
+                // the first byte (read to detect the end of the file) and the other seven bytes of the reference
+                reference = (long) first << 56 | readLong(7);
+                alternate = in.readLong();
+                viewIndex = in.readShort();
+            } catch (EOFException e) {
+                throw new IOException("Incomplete variant at the end of the file");
+            }
+            count++;
+            if (!PackedWindow.isValid(reference) || !PackedWindow.isValid(alternate)) {
+                throw new IOException("Invalid sequence key in variant " + count);
+            }
+            if (viewIndex < -1 || viewIndex >= viewNames.length) {
+                throw new IOException("Invalid view index in variant " + count + ": " + viewIndex);
+            }
+            return true;
+        }
+
+        private long readLong(int bytes) throws IOException {
+            long value = 0L;
+            for (int i = 0; i < bytes; i++) {
+                int b = in.read();
+                if (b < 0) {
+                    throw new EOFException();
+                }
+                value = value << 8 | b;
+            }
+            return value;
+        }
+
+        /** @return packed reference sequence of the current variant */
+        public long getReference() {
+            return reference;
+        }
+
+        /** @return packed alternate sequence of the current variant */
+        public long getAlternate() {
+            return alternate;
+        }
+
+        /** @return view name of the current variant, or null for the default view of the batch */
+        public String getViewName() {
+            return viewIndex < 0 ? null : viewNames[viewIndex];
+        }
+
+        /** @return the view names of the header */
+        public List<String> getViewNames() {
+            return Collections.unmodifiableList(Arrays.asList(viewNames));
+        }
+
+        /**
+         * @return the remaining variants as requests whose ids are the numbers of the variants in the file.
+         * Errors are thrown as {@link UncheckedIOException}.
+         */
+        public Iterator<VariantRequest> requests() {
+            return new Iterator<VariantRequest>() {
+                private Boolean hasNext;
+
+                @Override
+                public boolean hasNext() {
+                    if (hasNext == null) {
+                        try {
+                            hasNext = Reader.this.next();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                    return hasNext;
+                }
+
+                @Override
+                public VariantRequest next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    hasNext = null;
+                    return new VariantRequest(Long.toString(count), PackedWindow.unpack(reference),
+                            PackedWindow.unpack(alternate), getViewName());
+                }
+            };
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
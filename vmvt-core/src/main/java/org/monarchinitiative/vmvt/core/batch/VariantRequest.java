@@ -0,0 +1,88 @@
+package org.monarchinitiative.vmvt.core.batch;
+
+import org.monarchinitiative.vmvt.core.VmvtView;
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+
+/**
+ * One variant that is to be rendered by the {@link VmvtBatchRenderer} or scored by
+ * {@link org.monarchinitiative.vmvt.core.VmvtScorer#scoreAll}. The optional ESE sequences are only used for scoring.
+ */
+public class VariantRequest {
+    /** An identifier chosen by the caller, e.g., the name of the output file. */
+    private final String id;
+    private final String reference;
+    private final String alternate;
+    /** Name of the view to create for this variant, or null if the view of the batch is to be used. */
+    private final String viewName;
+    /** 13 nt of reference sequence centered on the variant for the ESE scores, or null. */
+    private final String eseReference;
+    /** The corresponding 13 nt of alternate sequence, or null. */
+    private final String eseAlternate;
+
+    public VariantRequest(String id, String reference, String alternate) {
+        this(id, reference, alternate, (String) null);
+    }
+
+    public VariantRequest(String id, String reference, String alternate, VmvtView view) {
+        this(id, reference, alternate, view.getName());
+    }
+
+    /**
+     * @param viewName name of a view that is registered with the generator of the batch, see
+     *                 {@link org.monarchinitiative.vmvt.core.VmvtGenerator#registerView}
+     */
+    public VariantRequest(String id, String reference, String alternate, String viewName) {
+        this(id, reference, alternate, viewName, null, null);
+    }
+
+    /**
+     * A variant that is to be scored together with its ESE scores, see
+     * {@link org.monarchinitiative.vmvt.core.VmvtScorer#score(String, String, String, String)}.
+     * @param eseReference 13 nt of reference sequence centered on the variant
+     * @param eseAlternate the corresponding 13 nt of alternate sequence
+     * @throws VmvtRuntimeException if only one of the ESE sequences is given
+     */
+    public VariantRequest(String id, String reference, String alternate, String eseReference, String eseAlternate) {
+        this(id, reference, alternate, null, eseReference, eseAlternate);
+        if ((eseReference == null) != (eseAlternate == null)) {
+            throw new VmvtRuntimeException(String.format("%s: Both or neither of the ESE sequences must be given", id));
+        }
+    }
+
+    private VariantRequest(String id, String reference, String alternate, String viewName,
+                           String eseReference, String eseAlternate) {
+        this.id = id;
+        this.reference = reference;
+        this.alternate = alternate;
+        this.viewName = viewName;
+        this.eseReference = eseReference;
+        this.eseAlternate = eseAlternate;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public String getAlternate() {
+        return alternate;
+    }
+
+    /** @return name of the view requested for this variant, or null if none was specified */
+    public String getViewName() {
+        return viewName;
+    }
+
+    /** @return 13 nt of reference sequence for the ESE scores, or null if none was specified */
+    public String getEseReference() {
+        return eseReference;
+    }
+
+    /** @return 13 nt of alternate sequence for the ESE scores, or null if none was specified */
+    public String getEseAlternate() {
+        return eseAlternate;
+    }
+}
@@ -0,0 +1,205 @@
+package org.monarchinitiative.vmvt.core.batch;
+
+import org.monarchinitiative.vmvt.core.DiskRenderCache;
+import org.monarchinitiative.vmvt.core.OutputFormat;
+import org.monarchinitiative.vmvt.core.VmvtGenerator;
+import org.monarchinitiative.vmvt.core.VmvtView;
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+/**
+ * Render many variants in parallel with one {@link VmvtGenerator}. At most {@link #window} variants are
+ * rendered or waiting to be delivered at any one time, so that memory use does not depend on the number of
+ * variants. Results are passed to a {@link RenderSink} on the calling thread, either in the order of the
+ * input or in the order in which they are finished. Optionally, the rendering threads encode the graphics as
+ * SVGZ or PNG, so that the thread that writes the results only has to copy bytes.
+ */
+public class VmvtBatchRenderer {
+
+    private final VmvtGenerator generator;
+    private final Executor executor;
+    /** Maximum number of variants that are being rendered or are waiting to be passed to the sink. */
+    private final int window;
+    /** If true, results are delivered in input order, otherwise in order of completion. */
+    private final boolean ordered;
+    /** Format of the results (see {@link RenderedSvg#getBytes()}). */
+    private final OutputFormat format;
+    /** Cache of graphics from previous runs, or null. */
+    private final DiskRenderCache diskCache;
+
+    /**
+     * Render on the common fork-join pool and deliver the results in input order.
+     * @param generator generator that is shared by all rendering threads
+     */
+    public VmvtBatchRenderer(VmvtGenerator generator) {
+        this(generator, ForkJoinPool.commonPool(), 4 * ForkJoinPool.commonPool().getParallelism(), true);
+    }
+
+    /**
+     * @param generator generator that is shared by all rendering threads
+     * @param executor  executor for the rendering tasks. The caller is responsible for shutting it down.
+     * @param window    maximum number of variants in flight
+     * @param ordered   if true, deliver results in input order, otherwise in order of completion
+     */
+    public VmvtBatchRenderer(VmvtGenerator generator, Executor executor, int window, boolean ordered) {
+        this(generator, executor, window, ordered, OutputFormat.SVG);
+    }
+
+    /**
+     * @param generator generator that is shared by all rendering threads
+     * @param executor  executor for the rendering tasks. The caller is responsible for shutting it down.
+     * @param window    maximum number of variants in flight
+     * @param ordered   if true, deliver results in input order, otherwise in order of completion
+     * @param format    format of the results, SVG, SVGZ or PNG
+     */
+    public VmvtBatchRenderer(VmvtGenerator generator, Executor executor, int window, boolean ordered,
+                             OutputFormat format) {
+        this(generator, executor, window, ordered, format, null);
+    }
+
+    /**
+     * @param generator generator that is shared by all rendering threads
+     * @param executor  executor for the rendering tasks. The caller is responsible for shutting it down.
+     * @param window    maximum number of variants in flight
+     * @param ordered   if true, deliver results in input order, otherwise in order of completion
+     * @param format    format of the results, SVG, SVGZ or PNG
+     * @param diskCache graphics that are in this cache are not rendered again, or null to render all graphics
+     */
+    public VmvtBatchRenderer(VmvtGenerator generator, Executor executor, int window, boolean ordered,
+                             OutputFormat format, DiskRenderCache diskCache) {
+        if (window < 1) {
+            throw new VmvtRuntimeException("Window size must be at least 1 but was " + window);
+        }
+        this.generator = generator;
+        this.executor = executor;
+        this.window = window;
+        this.ordered = ordered;
+        this.format = format;
+        this.diskCache = diskCache;
+    }
+
+    /**
+     * Render all requests with the view given in each {@link VariantRequest}.
+     * @param requests variants to render
+     * @param sink     receives one {@link RenderedSvg} per request
+     * @return number of requests that were rendered
+     * @throws IOException if the sink throws an IOException, in which case rendering stops
+     */
+    public long render(Iterator<VariantRequest> requests, RenderSink sink) throws IOException {
+        return render(requests, (String) null, sink);
+    }
+
+    /**
+     * Render all requests.
+     * @param requests variants to render
+     * @param view     view to use for requests that do not specify one
+     * @param sink     receives one {@link RenderedSvg} per request
+     * @return number of requests that were rendered
+     * @throws IOException if the sink throws an IOException, in which case rendering stops
+     */
+    public long render(Iterator<VariantRequest> requests, VmvtView view, RenderSink sink) throws IOException {
+        return render(requests, view.getName(), sink);
+    }
+
+    /**
+     * Render all requests. Exceptions of the generator are passed to the sink as failed results, but if rendering
+     * throws an {@link Error} (e.g., {@link OutOfMemoryError}), rendering stops and the error is rethrown.
+     * @param requests variants to render
+     * @param viewName name of the view to use for requests that do not specify one, or null if all requests
+     *                 specify a view
+     * @param sink     receives one {@link RenderedSvg} per request
+     * @return number of requests that were rendered
+     * @throws IOException if the sink throws an IOException, in which case rendering stops
+     * @throws CompletionException with the {@link Error} as its cause if rendering a variant throws an Error
+     */
+    public long render(Iterator<VariantRequest> requests, String viewName, RenderSink sink) throws IOException {
+        return ordered ? renderOrdered(requests, viewName, sink) : renderUnordered(requests, viewName, sink);
+    }
+
+    private long renderOrdered(Iterator<VariantRequest> requests, String view, RenderSink sink) throws IOException {
+        Queue<CompletableFuture<RenderedSvg>> pending = new ArrayDeque<>(window);
+        long n = 0;
+        while (requests.hasNext()) {
+            if (pending.size() == window) {
+                sink.accept(pending.remove().join());
+            }
+            VariantRequest request = requests.next();
+            long index = n++;
+            pending.add(CompletableFuture.supplyAsync(() -> renderOne(request, view, index), executor));
+            // deliver any results that are already finished to free memory early
+            while (!pending.isEmpty() && pending.peek().isDone()) {
+                sink.accept(pending.remove().join());
+            }
+        }
+        while (!pending.isEmpty()) {
+            sink.accept(pending.remove().join());
+        }
+        return n;
+    }
+
+    private long renderUnordered(Iterator<VariantRequest> requests, String view, RenderSink sink) throws IOException {
+        // futures are queued when they complete, also if rendering throws an Error, which join() then rethrows
+        BlockingQueue<CompletableFuture<RenderedSvg>> finished = new LinkedBlockingQueue<>();
+        int inFlight = 0;
+        long n = 0;
+        while (requests.hasNext()) {
+            if (inFlight == window) {
+                sink.accept(take(finished).join());
+                inFlight--;
+            }
+            VariantRequest request = requests.next();
+            long index = n++;
+            CompletableFuture<RenderedSvg> future = CompletableFuture.supplyAsync(() -> renderOne(request, view, index), executor);
+            future.whenComplete((result, error) -> finished.add(future));
+            inFlight++;
+            CompletableFuture<RenderedSvg> done;
+            while ((done = finished.poll()) != null) {
+                sink.accept(done.join());
+                inFlight--;
+            }
+        }
+        while (inFlight > 0) {
+            sink.accept(take(finished).join());
+            inFlight--;
+        }
+        return n;
+    }
+
+    private CompletableFuture<RenderedSvg> take(BlockingQueue<CompletableFuture<RenderedSvg>> finished) {
+        try {
+            return finished.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new VmvtRuntimeException("Interrupted while waiting for rendered SVG");
+        }
+    }
+
+    private RenderedSvg renderOne(VariantRequest request, String defaultView, long index) {
+        String view = request.getViewName() != null ? request.getViewName() : defaultView;
+        try {
+            if (view == null) {
+                throw new VmvtRuntimeException("No view given for " + request.getId());
+            }
+            if (diskCache != null) {
+                byte[] bytes = diskCache.getImage(generator, view, request.getReference(), request.getAlternate(), format);
+                return format == OutputFormat.SVG
+                        ? RenderedSvg.success(request, index, new String(bytes, StandardCharsets.UTF_8))
+                        : RenderedSvg.encoded(request, index, bytes, format);
+            }
+            if (format != OutputFormat.SVG) {
+                byte[] bytes = generator.getImage(view, request.getReference(), request.getAlternate(), format);
+                return RenderedSvg.encoded(request, index, bytes, format);
+            }
+            String svg = generator.getSvg(view, request.getReference(), request.getAlternate());
+            return RenderedSvg.success(request, index, svg);
+        } catch (RuntimeException e) {
+            return RenderedSvg.failure(request, index, format, e);
+        }
+    }
+}
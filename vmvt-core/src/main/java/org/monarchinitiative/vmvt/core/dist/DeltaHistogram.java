@@ -0,0 +1,114 @@
+package org.monarchinitiative.vmvt.core.dist;
+
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+
+/**
+ * Immutable histogram of the changes in R_i induced by random single-nucleotide variants. The histogram is
+ * calculated once by {@link DistributionCalculator} or {@link ExactDistributionCalculator} and shared by all
+ * {@link org.monarchinitiative.vmvt.core.svg.delta.DeltaSvg} objects that are created for the distribution.
+ * <p>
+ * The range from {@link #getMin()} to {@link #getMax()} is divided into {@link #getBinCount()} bins. A value x
+ * is placed into bin ceil((binCount - 1) * (x - min) / (max - min)), so that the first bin only contains the
+ * minimum.
+ */
+public final class DeltaHistogram {
+
+    /** Number of bins that is used for the delta SVGs. */
+    public static final int DEFAULT_BIN_COUNT = 51;
+
+    private final double min;
+    private final double max;
+    private final double mean;
+    /** Count (or total weight) of the values in each bin. */
+    private final double[] counts;
+    /** cumulativeCounts[i] is the sum of counts[0..i]. */
+    private final double[] cumulativeCounts;
+    private final double maxCount;
+
+    /**
+     * @param values  changes in R_i
+     * @param weights weights of the values (e.g., probabilities), or null if each value counts once
+     * @param binCount number of bins
+     */
+    DeltaHistogram(double[] values, double[] weights, int binCount) {
+        if (values.length == 0) {
+            throw new VmvtRuntimeException("Cannot create histogram without values");
+        }
+        if (weights != null && weights.length != values.length) {
+            throw new VmvtRuntimeException("Need one weight per value");
+        }
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double v : values) {
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        double span = max - min;
+        if (span == 0.0) {
+            throw new VmvtRuntimeException("min == max in DeltaHistogram");
+        }
+        double[] counts = new double[binCount];
+        double sum = 0.0;
+        double total = 0.0;
+        for (int j = 0; j < values.length; j++) {
+            double w = weights == null ? 1.0 : weights[j];
+            double normalized = (values[j] - min) / span;
+            counts[(int) Math.ceil((binCount - 1) * normalized)] += w;
+            sum += w * values[j];
+            total += w;
+        }
+        double[] cumulativeCounts = new double[binCount];
+        double cumulative = 0.0;
+        double maxCount = 0.0;
+        for (int i = 0; i < binCount; i++) {
+            cumulative += counts[i];
+            cumulativeCounts[i] = cumulative;
+            maxCount = Math.max(maxCount, counts[i]);
+        }
+        this.min = min;
+        this.max = max;
+        this.mean = sum / total;
+        this.counts = counts;
+        this.cumulativeCounts = cumulativeCounts;
+        this.maxCount = maxCount;
+    }
+
+    /** @return smallest change in R_i */
+    public double getMin() {
+        return min;
+    }
+
+    /** @return largest change in R_i */
+    public double getMax() {
+        return max;
+    }
+
+    /** @return mean change in R_i */
+    public double getMean() {
+        return mean;
+    }
+
+    public int getBinCount() {
+        return counts.length;
+    }
+
+    /** @return count (or total weight) of the values in bin i */
+    public double getCount(int i) {
+        return counts[i];
+    }
+
+    /** @return count (or total weight) of the values in bins 0 to i */
+    public double getCumulativeCount(int i) {
+        return cumulativeCounts[i];
+    }
+
+    /** @return total count (or weight) of all values */
+    public double getTotalCount() {
+        return cumulativeCounts[cumulativeCounts.length - 1];
+    }
+
+    /** @return the largest count of any bin */
+    public double getMaxCount() {
+        return maxCount;
+    }
+}
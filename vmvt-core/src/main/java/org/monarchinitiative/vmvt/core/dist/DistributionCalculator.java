@@ -1,18 +1,27 @@
 package org.monarchinitiative.vmvt.core.dist;
 
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
 import org.monarchinitiative.vmvt.core.pssm.DoubleMatrix;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.List;
-import java.util.Random;
+import java.util.RandomAccess;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
 
 /**
  * We will model the distribution of scores of the R_i as a normal distribution. Here,
  * we will collect all possible R_i scores for R_i. We will write 10,000 of these to a file
  * for visualization, and we will also calculate the mean and stddev
+ * <p>
+ * Sequences of up to {@link #MAX_ENUMERATED_LENGTH} nucleotides (e.g., the donor) are enumerated completely,
+ * longer sequences are sampled. The work is split into chunks of {@link #CHUNK_SIZE} sequences that are processed
+ * in parallel on the common fork-join pool. Each chunk draws its random numbers from its own
+ * {@link SplittableRandom} whose seed is derived from the seed of the calculator, so that the results for a given
+ * seed are identical regardless of the number of threads.
  * @author Peter N Robinson
  */
 public class DistributionCalculator  {
@@ -20,19 +29,21 @@ public class DistributionCalculator  {
     private final int seqlen;
     private final DoubleMatrix splicesite;
     /** R_i values (distribution) */
-    private final List<Double> values;
+    private final double[] values;
     /** Differences between R_i values and values with one changed base. */
-    private final List<Double> deltas;
-    private final Random random;
-    /** The current sequence is represented by indices (0,1,2,3) for the 4 bases. */
-    private final int [] currentIndices;
-    /** This is used to create a variant sequence that differs from the
-     * original sequence in one of multiple nucleotides. */
-    private final int [] variantIndices;
+    private final double[] deltas;
 
     private final double mean;
+    /** Histogram of {@link #deltas}. */
+    private final DeltaHistogram deltaHistogram;
 
     private final static int DEFAULT_NUM_SAMPLES = 100_000;
+    /** Seed that is used if none is given, so that results are reproducible by default. */
+    private final static long DEFAULT_SEED = 42L;
+    /** Sequences up to this length are enumerated, longer ones are sampled (4^9 = 262,144 sequences). */
+    private final static int MAX_ENUMERATED_LENGTH = 9;
+    /** Number of sequences per parallel task. */
+    private final static int CHUNK_SIZE = 1 << 12;
 
     public DistributionCalculator(DoubleMatrix site) {
         this(site, DEFAULT_NUM_SAMPLES);
@@ -43,93 +54,98 @@ public class DistributionCalculator  {
      * @param n_samples Number of samples to take to estimate distribution of differences for SNV
      */
     public DistributionCalculator(DoubleMatrix site, int n_samples) {
+        this(site, n_samples, DEFAULT_SEED);
+    }
+
+    /**
+     * @param site A representating of the donor/acceptor
+     * @param n_samples Number of samples to take to estimate distribution of differences for SNV (ignored if
+     *                  all sequences are enumerated)
+     * @param seed seed for the random choice of sequences and variants
+     */
+    public DistributionCalculator(DoubleMatrix site, int n_samples, long seed) {
         this.splicesite = site;
-        values = new ArrayList<>();
-        deltas = new ArrayList<>();
         seqlen = site.getMotifLength();
-        currentIndices = new int[seqlen]; // if all indices are zero, we have AAAAAAAA etc.
-        variantIndices = new int[seqlen];
-        random = new Random();
-        long max = (long)Math.pow(4, seqlen);
-        if (seqlen==9){
-            // i.e., donor sequence, we can calculate everything
-            for (long i = 0; i < max; i++) {
-                double R_i = getR_i(i);
-                values.add(R_i);
-                createVariantSequence(); // makes a modified copy of current sequence
-                double var_r_i = this.splicesite.getIndividualSequenceInformation(this.variantIndices);
-                double delta = R_i - var_r_i;
-                deltas.add(delta);
-            }
-            mean = values.stream().mapToDouble(Double::doubleValue).average().orElseThrow();
-        } else {
-            // acceptor sequence, too long to calculate everything, let's just sample
-            // 100 thousand times
-            for (int i = 0; i<100_000; i++) {
-                long j = (long) (Math.random() * max);
-                double R_i = getR_i(j);
-                values.add(R_i);
-                createVariantSequence(); // makes a modified copy of current sequence
-                double var_r_i = this.splicesite.getIndividualSequenceInformation(this.variantIndices);
-                double delta = R_i - var_r_i;
-                deltas.add(delta);
+        boolean enumerate = seqlen <= MAX_ENUMERATED_LENGTH;
+        int n = enumerate ? 1 << (2 * seqlen) : n_samples;
+        if (n < 1) {
+            throw new VmvtRuntimeException("Number of samples must be positive but was " + n_samples);
+        }
+        values = new double[n];
+        deltas = new double[n];
+        int chunks = (n + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        long[] chunkSeeds = new SplittableRandom(seed).longs(chunks).toArray();
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int from = c * CHUNK_SIZE;
+            int to = Math.min(n, from + CHUNK_SIZE);
+            fillChunk(from, to, enumerate, new SplittableRandom(chunkSeeds[c]));
+        });
+        double sum = 0.0;
+        for (double v : values) {
+            sum += v;
+        }
+        mean = sum / n;
+        deltaHistogram = new DeltaHistogram(deltas, null, DeltaHistogram.DEFAULT_BIN_COUNT);
+    }
+
+    /**
+     * Calculate {@link #values} and {@link #deltas} for the sequences from (inclusive) to to (exclusive). If
+     * enumerate is true, sequence i is the one whose bases are given by the base-4 digits of i, otherwise the
+     * bases are chosen at random. Each sequence gets one random single-nucleotide variant.
+     */
+    private void fillChunk(int from, int to, boolean enumerate, SplittableRandom random) {
+        int[] currentIndices = new int[seqlen];
+        for (int k = from; k < to; k++) {
+            long seq = k;
+            double R_i = 0.0;
+            for (int i = 0; i < seqlen; i++) {
+                int base = enumerate ? (int) (seq & 3) : random.nextInt(4);
+                seq >>>= 2;
+                currentIndices[i] = base;
+                R_i += splicesite.get(base, i);
             }
-            mean = values.stream().mapToDouble(Double::doubleValue).average().orElseThrow();
+            values[k] = R_i;
+            // random SNV: a random position, and one of the three other bases at that position
+            int pos = random.nextInt(seqlen);
+            int refBase = currentIndices[pos];
+            int altBase = (refBase + 1 + random.nextInt(3)) & 3;
+            deltas[k] = splicesite.get(refBase, pos) - splicesite.get(altBase, pos);
         }
     }
 
+    /** @return unmodifiable view of the R_i values */
     public List<Double> getValues() {
-        return values;
+        return new DoubleArrayView(values);
     }
 
+    /** @return unmodifiable view of the changes in R_i induced by random SNVs */
     public List<Double> getDeltas() {
-        return deltas;
+        return new DoubleArrayView(deltas);
     }
 
-    public DoubleMatrix getSplicesite() {
-        return splicesite;
+    /** @return a copy of the R_i values */
+    public double[] getValueArray() {
+        return values.clone();
     }
 
-    public double getMean() {
-        return mean;
+    /** @return a copy of the changes in R_i induced by random SNVs */
+    public double[] getDeltaArray() {
+        return deltas.clone();
     }
 
-    private double getR_i(long seq) {
-        for (int i=0;i<seqlen;i++) {
-            int remainder = (int)(seq % 4);
-            currentIndices[i] = remainder;
-            seq /= 4;
-        }
-        return splicesite.getIndividualSequenceInformation(currentIndices);
+    /** @return histogram of the changes in R_i induced by random SNVs */
+    public DeltaHistogram getDeltaHistogram() {
+        return deltaHistogram;
     }
 
-    /**
-     * There are four bases. This function chooses a base that is different from 'current' at random
-     * @param current current reference base
-     * @return one of the three bases other than current, at random
-     */
-    private int getRandomIndex(int current) {
-        int r = random.nextInt(4);
-        while (current==r){
-            r = random.nextInt(4);
-        }
-        return r;
+    public DoubleMatrix getSplicesite() {
+        return splicesite;
     }
 
-    /**
-     * This function creates a random single-nucleotide change in compared to the sequence
-     * that is currently represented in {@link #currentIndices} and places the variant
-     * sequence into {@link #variantIndices}. It choose a random position within the sequence
-     * and then choose a different base at random.
-     */
-    private void createVariantSequence() {
-        System.arraycopy(this.currentIndices, 0, this.variantIndices, 0, seqlen);
-        int i = random.nextInt(seqlen);
-        int randomBase = getRandomIndex(this.currentIndices[i]);
-        variantIndices[i] = randomBase;
+    public double getMean() {
+        return mean;
     }
 
-
     /**
      * Write the R_i scores of the examined sequences (from values) and write the delta scores.
      * This function can be used to write out results for plotting in R, but is not needed for
@@ -139,14 +155,14 @@ public class DistributionCalculator  {
      */
     public void writeVals(String fname, String deltaFname) {
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(fname))) {
-            for (Double v : values) {
+            for (double v : values) {
                 writer.write(v + "\n");
             }
         } catch (IOException e) {
             e.printStackTrace();
         }
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(deltaFname))) {
-            for (Double v : deltas) {
+            for (double v : deltas) {
                 writer.write(v + "\n");
             }
         } catch (IOException e) {
@@ -154,4 +170,25 @@ public class DistributionCalculator  {
         }
     }
 
+    /**
+     * Read-only {@link List} view of a double array, so that {@link #getValues()} and {@link #getDeltas()} do
+     * not need to copy and box all values.
+     */
+    private static class DoubleArrayView extends AbstractList<Double> implements RandomAccess {
+        private final double[] array;
+
+        DoubleArrayView(double[] array) {
+            this.array = array;
+        }
+
+        @Override
+        public Double get(int index) {
+            return array[index];
+        }
+
+        @Override
+        public int size() {
+            return array.length;
+        }
+    }
 }
@@ -0,0 +1,341 @@
+package org.monarchinitiative.vmvt.core.dist;
+
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+import org.monarchinitiative.vmvt.core.pssm.DoubleMatrix;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * Exact distributions of R_i and of the change in R_i induced by a random single-nucleotide variant (SNV) for
+ * sequences in which each base is chosen with equal probability. In contrast to {@link DistributionCalculator},
+ * nothing is sampled, so that the results are identical in every run and can be calculated for a matrix of any
+ * length (e.g., JASPAR matrices) within milliseconds.
+ * <p>
+ * R_i is the sum of independent terms, one per column of the information-content matrix. Its distribution is
+ * therefore calculated by convolving the distributions of the columns on a grid with spacing {@link #binWidth}.
+ * The change in R_i induced by an SNV at column i from base b to base b' is IC(b,i) - IC(b',i) and does not
+ * depend on the other columns. Its distribution therefore consists of the 12 differences of each column, each
+ * with the probability 1/(12 * L), and is represented without discretization.
+ * <p>
+ * Cumulative probabilities are precomputed, so that {@link #riCumulativeProbability(double)} is a single array
+ * lookup and {@link #percentile(double)} and {@link #tailProbability(double)} are a binary search over at most
+ * 12 * L sorted values.
+ */
+public class ExactDistributionCalculator {
+
+    private final DoubleMatrix splicesite;
+    /** Spacing of the grid that is used for the R_i distribution. */
+    private final double binWidth;
+    /** R_i value that corresponds to the first entry of {@link #riProbabilities}. */
+    private final double riMin;
+    /** Probability of R_i values at riMin, riMin + binWidth, riMin + 2 * binWidth, ... */
+    private final double[] riProbabilities;
+    /** Mean R_i value of all sequences (calculated analytically, not from the grid). */
+    private final double mean;
+    /** Sorted distinct changes in R_i induced by SNVs. */
+    private final double[] deltaValues;
+    /** Probabilities of the values in {@link #deltaValues}. */
+    private final double[] deltaProbabilities;
+    /** Histogram of {@link #deltaValues} weighted by {@link #deltaProbabilities}. */
+    private final DeltaHistogram deltaHistogram;
+    /** riCumulative[k] is the probability of R_i values up to riMin + k * binWidth. */
+    private final double[] riCumulative;
+    /** deltaCumulative[i] is the probability of changes in R_i up to deltaValues[i]. */
+    private final double[] deltaCumulative;
+
+    private final static double DEFAULT_BIN_WIDTH = 0.01;
+    /** First bytes of the binary representation ("VMVD"), see {@link #write(OutputStream)}. */
+    private final static int MAGIC = 0x564D5644;
+    /** Version of the binary representation. */
+    private final static int FORMAT_VERSION = 1;
+
+    public ExactDistributionCalculator(DoubleMatrix site) {
+        this(site, DEFAULT_BIN_WIDTH);
+    }
+
+    /**
+     * @param site     A representation of the donor/acceptor (or other motif) information content
+     * @param binWidth spacing of the grid (in bits) for the R_i distribution
+     */
+    public ExactDistributionCalculator(DoubleMatrix site, double binWidth) {
+        if (binWidth <= 0) {
+            throw new VmvtRuntimeException("Bin width must be positive but was " + binWidth);
+        }
+        this.splicesite = site;
+        this.binWidth = binWidth;
+        int seqlen = site.getMotifLength();
+        double riMin = 0.0;
+        double mean = 0.0;
+        double[] dist = {1.0};
+        for (int i = 0; i < seqlen; i++) {
+            double colMin = Double.MAX_VALUE;
+            for (int b = 0; b < 4; b++) {
+                colMin = Math.min(colMin, site.get(b, i));
+                mean += 0.25 * site.get(b, i);
+            }
+            riMin += colMin;
+            int[] offsets = new int[4];
+            int maxOffset = 0;
+            for (int b = 0; b < 4; b++) {
+                offsets[b] = (int) Math.round((site.get(b, i) - colMin) / binWidth);
+                maxOffset = Math.max(maxOffset, offsets[b]);
+            }
+            double[] convolved = new double[dist.length + maxOffset];
+            for (int b = 0; b < 4; b++) {
+                int offset = offsets[b];
+                for (int k = 0; k < dist.length; k++) {
+                    convolved[k + offset] += 0.25 * dist[k];
+                }
+            }
+            dist = convolved;
+        }
+        this.riMin = riMin;
+        this.riProbabilities = dist;
+        this.mean = mean;
+        // Distribution of the change in R_i for a random SNV
+        double[] deltas = new double[12 * seqlen];
+        int n = 0;
+        for (int i = 0; i < seqlen; i++) {
+            for (int ref = 0; ref < 4; ref++) {
+                for (int alt = 0; alt < 4; alt++) {
+                    if (ref != alt) {
+                        deltas[n++] = site.get(ref, i) - site.get(alt, i);
+                    }
+                }
+            }
+        }
+        Arrays.sort(deltas);
+        double p = 1.0 / deltas.length;
+        double[] values = new double[deltas.length];
+        double[] probabilities = new double[deltas.length];
+        int distinct = 0;
+        for (double d : deltas) {
+            if (distinct > 0 && values[distinct - 1] == d) {
+                probabilities[distinct - 1] += p;
+            } else {
+                values[distinct] = d;
+                probabilities[distinct] = p;
+                distinct++;
+            }
+        }
+        this.deltaValues = Arrays.copyOf(values, distinct);
+        this.deltaProbabilities = Arrays.copyOf(probabilities, distinct);
+        this.deltaHistogram = new DeltaHistogram(deltaValues, deltaProbabilities, DeltaHistogram.DEFAULT_BIN_COUNT);
+        this.riCumulative = cumulative(riProbabilities);
+        this.deltaCumulative = cumulative(deltaProbabilities);
+    }
+
+    private ExactDistributionCalculator(DoubleMatrix site, double binWidth, double riMin, double[] riProbabilities,
+                                        double mean, double[] deltaValues, double[] deltaProbabilities) {
+        this.splicesite = site;
+        this.binWidth = binWidth;
+        this.riMin = riMin;
+        this.riProbabilities = riProbabilities;
+        this.mean = mean;
+        this.deltaValues = deltaValues;
+        this.deltaProbabilities = deltaProbabilities;
+        this.deltaHistogram = new DeltaHistogram(deltaValues, deltaProbabilities, DeltaHistogram.DEFAULT_BIN_COUNT);
+        this.riCumulative = cumulative(riProbabilities);
+        this.deltaCumulative = cumulative(deltaProbabilities);
+    }
+
+    /**
+     * Write a binary representation of the distributions that can be read with
+     * {@link #read(InputStream, DoubleMatrix)}. The stream is not closed.
+     * @param out stream to write to
+     * @throws IOException if we cannot write
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeLong(fingerprint(splicesite));
+        data.writeDouble(binWidth);
+        data.writeDouble(riMin);
+        data.writeDouble(mean);
+        writeArray(data, riProbabilities);
+        writeArray(data, deltaValues);
+        writeArray(data, deltaProbabilities);
+        data.flush();
+    }
+
+    /**
+     * Read distributions that were written with {@link #write(OutputStream)}.
+     * @param in stream to read from
+     * @param site the matrix for which the distributions were calculated
+     * @return the distributions
+     * @throws IOException if we cannot read, or if the data were calculated for a different matrix
+     */
+    public static ExactDistributionCalculator read(InputStream in, DoubleMatrix site) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a vmvt distribution file");
+        }
+        int version = data.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported distribution file version " + version);
+        }
+        if (data.readLong() != fingerprint(site)) {
+            throw new IOException("Distribution was calculated for a different matrix");
+        }
+        double binWidth = data.readDouble();
+        double riMin = data.readDouble();
+        double mean = data.readDouble();
+        double[] riProbabilities = readArray(data);
+        double[] deltaValues = readArray(data);
+        double[] deltaProbabilities = readArray(data);
+        if (deltaValues.length == 0 || deltaValues.length != deltaProbabilities.length) {
+            throw new IOException("Malformed distribution file");
+        }
+        return new ExactDistributionCalculator(site, binWidth, riMin, riProbabilities, mean, deltaValues, deltaProbabilities);
+    }
+
+    /**
+     * @return a hash of the dimensions and values of the matrix that changes whenever the matrix changes
+     */
+    static long fingerprint(DoubleMatrix site) {
+        int seqlen = site.getMotifLength();
+        long h = seqlen;
+        for (int i = 0; i < seqlen; i++) {
+            for (int b = 0; b < 4; b++) {
+                h = 31 * h + Double.doubleToLongBits(site.get(b, i));
+            }
+        }
+        return h;
+    }
+
+    /**
+     * @return running sums of the probabilities. The last entry is set to exactly 1 so that rounding errors
+     * cannot result in cumulative probabilities below 1 at the end of the range.
+     */
+    private static double[] cumulative(double[] probabilities) {
+        double[] cumulative = new double[probabilities.length];
+        double sum = 0.0;
+        for (int i = 0; i < probabilities.length; i++) {
+            sum += probabilities[i];
+            cumulative[i] = Math.min(sum, 1.0);
+        }
+        if (cumulative.length > 0) {
+            cumulative[cumulative.length - 1] = 1.0;
+        }
+        return cumulative;
+    }
+
+    private static void writeArray(DataOutputStream data, double[] values) throws IOException {
+        data.writeInt(values.length);
+        for (double v : values) {
+            data.writeDouble(v);
+        }
+    }
+
+    private static double[] readArray(DataInputStream data) throws IOException {
+        int n = data.readInt();
+        if (n < 0) {
+            throw new IOException("Malformed distribution file");
+        }
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = data.readDouble();
+        }
+        return values;
+    }
+
+    public DoubleMatrix getSplicesite() {
+        return splicesite;
+    }
+
+    /** @return mean R_i of all sequences of the length of the motif */
+    public double getMean() {
+        return mean;
+    }
+
+    public double getBinWidth() {
+        return binWidth;
+    }
+
+    /** @return the R_i value that corresponds to the first entry of {@link #getRiProbabilities()} */
+    public double getRiMin() {
+        return riMin;
+    }
+
+    /** @return probabilities of the R_i values riMin, riMin + binWidth, riMin + 2 * binWidth, ... */
+    public double[] getRiProbabilities() {
+        return riProbabilities.clone();
+    }
+
+    /** @return sorted distinct changes in R_i induced by single-nucleotide variants */
+    public double[] getDeltaValues() {
+        return deltaValues.clone();
+    }
+
+    /** @return probabilities of the values returned by {@link #getDeltaValues()} */
+    public double[] getDeltaProbabilities() {
+        return deltaProbabilities.clone();
+    }
+
+    /** @return histogram of the changes in R_i induced by single-nucleotide variants (bin weights are probabilities) */
+    public DeltaHistogram getDeltaHistogram() {
+        return deltaHistogram;
+    }
+
+    public double getMinDelta() {
+        return deltaValues[0];
+    }
+
+    public double getMaxDelta() {
+        return deltaValues[deltaValues.length - 1];
+    }
+
+    /**
+     * @param ri an R_i value
+     * @return probability that a random sequence has an R_i less than or equal to ri (up to the grid spacing)
+     */
+    public double riCumulativeProbability(double ri) {
+        int k = (int) Math.floor((ri - riMin) / binWidth + 0.5);
+        if (k < 0) {
+            return 0.0;
+        }
+        return riCumulative[Math.min(k, riCumulative.length - 1)];
+    }
+
+    /**
+     * @param delta a change in R_i
+     * @return probability that a random SNV causes a change in R_i that is less than or equal to delta
+     */
+    public double deltaCumulativeProbability(double delta) {
+        int n = countLessOrEqual(delta);
+        return n == 0 ? 0.0 : deltaCumulative[n - 1];
+    }
+
+    /**
+     * @param delta a change in R_i
+     * @return percentage of random SNVs that cause a change in R_i less than or equal to delta
+     */
+    public double percentile(double delta) {
+        return 100.0 * deltaCumulativeProbability(delta);
+    }
+
+    /**
+     * Empirical p-value of a loss of R_i: the probability that a random SNV causes a change in R_i
+     * (ref - alt) that is at least as large as delta.
+     * @param delta a change in R_i
+     * @return probability that a random SNV causes a change in R_i greater than or equal to delta
+     */
+    public double tailProbability(double delta) {
+        int n = countLess(delta);
+        return n == 0 ? 1.0 : Math.max(0.0, 1.0 - deltaCumulative[n - 1]);
+    }
+
+    /** @return number of entries of the sorted {@link #deltaValues} that are less than or equal to delta */
+    private int countLessOrEqual(double delta) {
+        int i = Arrays.binarySearch(deltaValues, delta);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    /** @return number of entries of the sorted {@link #deltaValues} that are less than delta */
+    private int countLess(double delta) {
+        int i = Arrays.binarySearch(deltaValues, delta);
+        return i >= 0 ? i : -i - 1;
+    }
+}
@@ -0,0 +1,98 @@
+package org.monarchinitiative.vmvt.core.dist;
+
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+import org.monarchinitiative.vmvt.core.pssm.DoubleMatrix;
+import org.monarchinitiative.vmvt.core.svg.SvgConstants.MotifType;
+
+import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Sequence.ACCEPTOR_NT_LENGTH;
+import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Sequence.DONOR_NT_LENGTH;
+
+/**
+ * Process-wide registry of the donor and acceptor matrices and of their R_i distributions. The matrices are
+ * created once when the class is first used, the distributions (see {@link SpliceDistributions}) and the donor
+ * {@link RiTable} when they are first requested. All objects returned by the registry are shared and must not be modified. The
+ * registry is thread-safe because it only hands out objects that are initialized by the JVM's class
+ * initialization.
+ * <p>
+ * JASPAR motifs do not have a fixed matrix, so {@link MotifType#JASPAR} is rejected.
+ */
+public final class MotifRegistry {
+
+    private static final DoubleMatrix DONOR = DoubleMatrix.donor();
+    private static final DoubleMatrix ACCEPTOR = DoubleMatrix.acceptor();
+    private static final DoubleMatrix DONOR_HEIGHT = DoubleMatrix.donorHeightMatrix();
+    private static final DoubleMatrix ACCEPTOR_HEIGHT = DoubleMatrix.acceptorHeightMatrix();
+
+    private MotifRegistry() {
+    }
+
+    /**
+     * @param type donor or acceptor
+     * @return the shared information-content matrix
+     */
+    public static DoubleMatrix icMatrix(MotifType type) {
+        switch (type) {
+            case DONOR:
+                return DONOR;
+            case ACCEPTOR:
+                return ACCEPTOR;
+            default:
+                throw new VmvtRuntimeException("No registered matrix for " + type);
+        }
+    }
+
+    /**
+     * @param type donor or acceptor
+     * @return the shared matrix with the heights of the letters of the sequence logo
+     */
+    public static DoubleMatrix heightMatrix(MotifType type) {
+        switch (type) {
+            case DONOR:
+                return DONOR_HEIGHT;
+            case ACCEPTOR:
+                return ACCEPTOR_HEIGHT;
+            default:
+                throw new VmvtRuntimeException("No registered height matrix for " + type);
+        }
+    }
+
+    /**
+     * @param type donor or acceptor
+     * @return the shared distributions of R_i and of SNV-induced changes in R_i
+     */
+    public static ExactDistributionCalculator distribution(MotifType type) {
+        switch (type) {
+            case DONOR:
+                return SpliceDistributions.donor();
+            case ACCEPTOR:
+                return SpliceDistributions.acceptor();
+            default:
+                throw new VmvtRuntimeException("No registered distribution for " + type);
+        }
+    }
+
+    /**
+     * @return the shared table of the R_i of all 262,144 donor sequences, calculated when it is first requested
+     */
+    public static RiTable donorRiTable() {
+        return DonorRiTableHolder.TABLE;
+    }
+
+    /** Initialized by the JVM on the first call of {@link #donorRiTable()}. */
+    private static class DonorRiTableHolder {
+        private static final RiTable TABLE = new RiTable(DONOR);
+    }
+
+    /**
+     * @param seqlen length of a splice sequence
+     * @return {@link MotifType#DONOR} for 9 nt and {@link MotifType#ACCEPTOR} for 27 nt sequences
+     */
+    public static MotifType typeForLength(int seqlen) {
+        if (seqlen == DONOR_NT_LENGTH) {
+            return MotifType.DONOR;
+        } else if (seqlen == ACCEPTOR_NT_LENGTH) {
+            return MotifType.ACCEPTOR;
+        }
+        throw new VmvtRuntimeException(String.format("sequence length (%d) did not conform to donor or acceptor", seqlen));
+    }
+}
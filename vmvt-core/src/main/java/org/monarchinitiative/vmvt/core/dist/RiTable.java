@@ -0,0 +1,94 @@
+package org.monarchinitiative.vmvt.core.dist;
+
+import org.monarchinitiative.vmvt.core.PackedWindow;
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+import org.monarchinitiative.vmvt.core.pssm.DoubleMatrix;
+
+import java.util.stream.IntStream;
+
+/**
+ * The individual sequence information (R_i) of every possible sequence of a short motif, indexed by the bases of
+ * the sequence as in {@link PackedWindow} (base i in bits 2i and 2i+1, A=0,C=1,G=2,T=3). For the 9 nt donor,
+ * the table has 4^9 = 262,144 entries (1 MiB), and the R_i of a sequence is a single array read. The values are
+ * stored as floats, i.e., they differ from the sums of {@link DoubleMatrix#getIndividualSequenceInformation(String)}
+ * by less than 1e-5 bits. The table is calculated in parallel on the common fork-join pool and is immutable.
+ */
+public final class RiTable {
+
+    /** Longest motif for which a table can be created (4^9 entries). */
+    public static final int MAX_LENGTH = 9;
+    /** Number of sequences per parallel task. */
+    private static final int CHUNK_SIZE = 1 << 12;
+
+    private final DoubleMatrix splicesite;
+    private final int seqlen;
+    /** R_i of the sequence whose bases are given by the base-4 digits of the index. */
+    private final float[] values;
+
+    /**
+     * @param site information content matrix of a motif of up to {@link #MAX_LENGTH} nt
+     * @throws VmvtRuntimeException if the motif is longer
+     */
+    public RiTable(DoubleMatrix site) {
+        this.splicesite = site;
+        this.seqlen = site.getMotifLength();
+        if (seqlen < 1 || seqlen > MAX_LENGTH) {
+            throw new VmvtRuntimeException(String.format("R_i tables are limited to motifs of 1 to %d nt but motif has %d nt",
+                    MAX_LENGTH, seqlen));
+        }
+        int n = 1 << (2 * seqlen);
+        values = new float[n];
+        int chunks = (n + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, chunks).parallel().forEach(c -> fillChunk(c * CHUNK_SIZE, Math.min(n, (c + 1) * CHUNK_SIZE)));
+    }
+
+    private void fillChunk(int from, int to) {
+        for (int k = from; k < to; k++) {
+            int seq = k;
+            double R_i = 0.0;
+            for (int i = 0; i < seqlen; i++) {
+                R_i += splicesite.get(seq & 3, i);
+                seq >>>= 2;
+            }
+            values[k] = (float) R_i;
+        }
+    }
+
+    /**
+     * @param index bases of a sequence, base i in bits 2i and 2i+1 (0 to {@link #size()} - 1)
+     * @return R_i of the sequence (bits)
+     */
+    public float riByPackedIndex(int index) {
+        return values[index];
+    }
+
+    /**
+     * @param window a {@link PackedWindow} of the length of the motif
+     * @return R_i of the sequence (bits)
+     * @throws VmvtRuntimeException if the window has a different length
+     */
+    public float ri(long window) {
+        if (PackedWindow.length(window) != seqlen) {
+            throw new VmvtRuntimeException(String.format("Window of %d nt does not match motif of %d nt",
+                    PackedWindow.length(window), seqlen));
+        }
+        return values[packedIndex(window)];
+    }
+
+    /**
+     * @param window a {@link PackedWindow} of the length of the motif
+     * @return the index of the window in the table, see {@link #riByPackedIndex(int)}
+     */
+    public int packedIndex(long window) {
+        return (int) window & (values.length - 1);
+    }
+
+    /** @return number of entries (4^length) */
+    public int size() {
+        return values.length;
+    }
+
+    public DoubleMatrix getSplicesite() {
+        return splicesite;
+    }
+}
@@ -0,0 +1,97 @@
+package org.monarchinitiative.vmvt.core.dist;
+
+import org.monarchinitiative.vmvt.core.pssm.DoubleMatrix;
+import org.monarchinitiative.vmvt.core.svg.SvgConstants.MotifType;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Distributions of R_i and of the change in R_i induced by random SNVs for the donor and acceptor matrices.
+ * The distributions are precomputed and bundled as resources with vmvt-core (see
+ * src/main/resources/org/monarchinitiative/vmvt/core/dist). Each distribution is loaded the first time it is
+ * requested, so that generators and scorers that do not need it do not pay for it. If a resource is missing or
+ * was calculated for a different matrix, the distribution is calculated instead.
+ * <p>
+ * The resources need to be regenerated whenever the donor or acceptor matrix changes:
+ * <pre>
+ * java -cp vmvt-core/target/classes org.monarchinitiative.vmvt.core.dist.SpliceDistributions \
+ *      vmvt-core/src/main/resources/org/monarchinitiative/vmvt/core/dist
+ * </pre>
+ */
+public final class SpliceDistributions {
+
+    static final String DONOR_RESOURCE = "donor-distribution.bin.gz";
+    static final String ACCEPTOR_RESOURCE = "acceptor-distribution.bin.gz";
+
+    private SpliceDistributions() {
+    }
+
+    /**
+     * @return distributions for {@link DoubleMatrix#donor()}
+     */
+    public static ExactDistributionCalculator donor() {
+        return DonorHolder.DONOR;
+    }
+
+    /**
+     * @return distributions for {@link DoubleMatrix#acceptor()}
+     */
+    public static ExactDistributionCalculator acceptor() {
+        return AcceptorHolder.ACCEPTOR;
+    }
+
+    /** Initialized by the JVM on the first call of {@link #donor()}. */
+    private static class DonorHolder {
+        private static final ExactDistributionCalculator DONOR = load(DONOR_RESOURCE, MotifRegistry.icMatrix(MotifType.DONOR));
+    }
+
+    /** Initialized by the JVM on the first call of {@link #acceptor()}. */
+    private static class AcceptorHolder {
+        private static final ExactDistributionCalculator ACCEPTOR = load(ACCEPTOR_RESOURCE, MotifRegistry.icMatrix(MotifType.ACCEPTOR));
+    }
+
+    /**
+     * @param resourcePath name of the gzipped resource relative to this class
+     * @param site matrix the resource was calculated for
+     * @return the bundled distribution or, if it cannot be used, a newly calculated distribution
+     */
+    static ExactDistributionCalculator load(String resourcePath, DoubleMatrix site) {
+        InputStream is = SpliceDistributions.class.getResourceAsStream(resourcePath);
+        if (is != null) {
+            try (InputStream in = new BufferedInputStream(new GZIPInputStream(is))) {
+                return ExactDistributionCalculator.read(in, site);
+            } catch (IOException e) {
+                System.err.printf("[WARNING] Could not use %s (%s), recalculating distribution\n", resourcePath, e.getMessage());
+            }
+        }
+        return new ExactDistributionCalculator(site);
+    }
+
+    static void write(ExactDistributionCalculator dist, Path path) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            dist.write(out);
+        }
+    }
+
+    /**
+     * Regenerate the bundled resources.
+     * @param args directory to which the resources are written
+     * @throws IOException if the resources cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: SpliceDistributions <output directory>");
+            System.exit(1);
+        }
+        Path dir = Paths.get(args[0]);
+        Files.createDirectories(dir);
+        write(new ExactDistributionCalculator(DoubleMatrix.donor()), dir.resolve(DONOR_RESOURCE));
+        write(new ExactDistributionCalculator(DoubleMatrix.acceptor()), dir.resolve(ACCEPTOR_RESOURCE));
+        System.out.println("[INFO] Wrote distributions to " + dir.toAbsolutePath());
+    }
+}
@@ -11,9 +11,12 @@ import java.util.stream.Stream;
 public abstract class KmerFeatureCalculator {
 
     protected final Map<String, Double> kmerMap;
+    /** Scores of the k-mers, indexed by their 2-bit encoding. */
+    protected final KmerTable kmerTable;
 
     protected KmerFeatureCalculator(Map<String, Double> kmerMap) {
         this.kmerMap = Collections.unmodifiableMap(kmerMap);
+        this.kmerTable = new KmerTable(kmerMap, getKmerLength());
     }
 
     /**
@@ -24,10 +27,8 @@ public abstract class KmerFeatureCalculator {
      * length of the {@code sequence} is less than {@link #getPadding()}+1
      */
     double scoreSequence(String sequence) {
-        return slidingWindow(sequence.toUpperCase(), getPadding() + 1)
-                .map(kmer -> kmerMap.getOrDefault(kmer, Double.NaN))
-                .reduce(Double::sum)
-                .orElse(Double.NaN);
+        // the window size getPadding() + 1 equals the k-mer length
+        return kmerTable.sumWindows(sequence);
     }
 
     public abstract int getPadding();
@@ -53,12 +54,22 @@ public abstract class KmerFeatureCalculator {
 
 
 
+    /**
+     * Score the k windows of length k that start at the first k positions of the sequence. The k-mers are
+     * looked up case-sensitively, i.e., windows with lower-case characters have the score 0.0.
+     * @param sequence sequence of length at least 2k-1
+     * @return scores of the windows, with 0.0 for windows that contain characters other than ACGT
+     */
     public double[] kmerScoreArray(String sequence) {
         int len = getKmerLength();
         double [] scores = new double[len];
-        for (int i=0;i<scores.length;i++) {
-            String subseq = sequence.substring(i,i+len);
-            scores[i] = kmerMap.getOrDefault(subseq,0.0);
+        kmerTable.scoreWindows(sequence, scores, 0.0);
+        for (int i = 0; i < 2 * len - 1; i++) {
+            if (Character.isLowerCase(sequence.charAt(i))) {
+                for (int w = Math.max(0, i - len + 1); w <= Math.min(i, len - 1); w++) {
+                    scores[w] = 0.0;
+                }
+            }
         }
         return scores;
     }
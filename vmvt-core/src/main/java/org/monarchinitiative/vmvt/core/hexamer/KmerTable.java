@@ -0,0 +1,125 @@
+package org.monarchinitiative.vmvt.core.hexamer;
+
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+import org.monarchinitiative.vmvt.core.pssm.Bases;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Scores of all k-mers (k &le; {@value #MAX_K}) stored in a primitive array of size 4^k. Each k-mer is indexed by its
+ * 2-bit encoding as in {@link org.monarchinitiative.vmvt.core.PackedWindow} (A=0, C=1, G=2, T=3, base i in
+ * bits 2i and 2i+1), which allows the windows of a sequence to be scored with a rolling index instead of creating a substring for each window. K-mers that
+ * are missing from the map that was used to create the table have the score {@link Double#NaN}.
+ */
+public class KmerTable {
+
+    /** Longest k-mer for which a table can be created (4^7 scores, 128 KiB). */
+    public static final int MAX_K = 7;
+
+    private final int k;
+    /** Position of the last base of a k-mer in the index. */
+    private final int lastShift;
+    private final double[] scores;
+
+    public KmerTable(Map<String, Double> kmerMap, int k) {
+        if (k < 1 || k > MAX_K) {
+            throw new VmvtRuntimeException("k-mer length must be between 1 and " + MAX_K + " but was " + k);
+        }
+        this.k = k;
+        this.lastShift = 2 * (k - 1);
+        this.scores = new double[1 << (2 * k)];
+        Arrays.fill(scores, Double.NaN);
+        for (Map.Entry<String, Double> entry : kmerMap.entrySet()) {
+            int index = index(entry.getKey());
+            if (index >= 0) {
+                scores[index] = entry.getValue();
+            }
+        }
+    }
+
+    /**
+     * @param kmer a sequence of length k
+     * @return index of the k-mer in the table or -1 if the length is not k or there is a character other than ACGT
+     */
+    public int index(CharSequence kmer) {
+        if (kmer.length() != k) {
+            return -1;
+        }
+        int index = 0;
+        for (int i = 0; i < k; i++) {
+            int code = Bases.index(kmer.charAt(i));
+            if (code < 0) {
+                return -1;
+            }
+            index |= code << (2 * i);
+        }
+        return index;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * @param kmer a sequence of length k
+     * @return score of the k-mer or {@link Double#NaN} if the k-mer is not in the table
+     */
+    public double score(CharSequence kmer) {
+        int index = index(kmer);
+        return index < 0 ? Double.NaN : scores[index];
+    }
+
+    /**
+     * Sum the scores of all windows of length k of the sequence.
+     * @param sequence nucleotide sequence
+     * @return sum of the scores or {@link Double#NaN} if a window contains a character other than ACGT or if the
+     * sequence is shorter than k
+     */
+    public double sumWindows(CharSequence sequence) {
+        int len = sequence.length();
+        if (len < k) {
+            return Double.NaN;
+        }
+        double sum = 0.0;
+        int index = 0;
+        for (int i = 0; i < len; i++) {
+            int code = Bases.index(sequence.charAt(i));
+            if (code < 0) {
+                return Double.NaN;
+            }
+            index = (index >>> 2) | (code << lastShift);
+            if (i >= k - 1) {
+                sum += scores[index];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Score the first {@code scores.length} windows of length k of the sequence.
+     * @param sequence nucleotide sequence with at least scores.length + k - 1 characters
+     * @param windowScores array to receive the scores of the windows starting at 0, 1, 2, ...
+     * @param missing value to use for windows that contain characters other than ACGT or that are not in the table
+     */
+    public void scoreWindows(CharSequence sequence, double[] windowScores, double missing) {
+        int index = 0;
+        // number of valid bases that are part of the current index
+        int valid = 0;
+        int end = windowScores.length + k - 1;
+        for (int i = 0; i < end; i++) {
+            int code = Bases.index(sequence.charAt(i));
+            if (code < 0) {
+                valid = 0;
+            } else {
+                index = (index >>> 2) | (code << lastShift);
+                valid++;
+            }
+            int window = i - k + 1;
+            if (window >= 0) {
+                double score = valid >= k ? scores[index] : Double.NaN;
+                windowScores[window] = Double.isNaN(score) ? missing : score;
+            }
+        }
+    }
+}
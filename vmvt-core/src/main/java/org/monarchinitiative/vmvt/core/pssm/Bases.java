@@ -0,0 +1,47 @@
+package org.monarchinitiative.vmvt.core.pssm;
+
+import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Sequence.*;
+
+/**
+ * The encoding of nucleotides that is used throughout vmvt: A=0, C=1, G=2, T=3 (the row of a {@link DoubleMatrix}).
+ * Sequences of several bases are encoded with base i in bits 2i and 2i+1 (see
+ * {@link org.monarchinitiative.vmvt.core.PackedWindow}).
+ */
+public final class Bases {
+
+    private static final char[] UPPER = {'A', 'C', 'G', 'T'};
+
+    private Bases() {
+    }
+
+    /**
+     * @param c a nucleotide character
+     * @return index of the nucleotide (A=0, C=1, G=2, T=3, case insensitive) or -1 for any other character
+     */
+    public static int index(char c) {
+        switch (c) {
+            case 'A':
+            case 'a':
+                return A_BASE;
+            case 'C':
+            case 'c':
+                return C_BASE;
+            case 'G':
+            case 'g':
+                return G_BASE;
+            case 'T':
+            case 't':
+                return T_BASE;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * @param index index of a base (0 to 3)
+     * @return the upper case character of the base
+     */
+    public static char upper(int index) {
+        return UPPER[index];
+    }
+}
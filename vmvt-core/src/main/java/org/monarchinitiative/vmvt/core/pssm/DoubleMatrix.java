@@ -1,5 +1,6 @@
 package org.monarchinitiative.vmvt.core.pssm;
 
+import org.monarchinitiative.vmvt.core.EncodedVariant;
 import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
 
 import java.util.*;
@@ -236,36 +237,92 @@ public class DoubleMatrix {
 
 
     public double getIndividualSequenceInformation(String seq) {
-        int N = seq.length();
-        int [] codedSequence = new int[N];
+        if (seq.length() != this.nCols) {
+            throw new VmvtRuntimeException("Attempt to get Ri with length mismatch");
+        }
+        double R_i = 0.0;
+        for (int i=0;i<seq.length(); i++) {
+            R_i += this.get(baseIndex(seq.charAt(i)), i);
+        }
+        return R_i;
+    }
+
+    /**
+     * @param variant encoded variant of the length of the motif
+     * @return individual sequence information of the reference sequence (bits)
+     */
+    public double refRi(EncodedVariant variant) {
+        checkLength(variant);
+        double R_i = 0.0;
+        for (int i = 0; i < nCols; i++) {
+            R_i += this.get(variant.refBase(i), i);
+        }
+        return R_i;
+    }
+
+    /**
+     * @param variant encoded variant of the length of the motif
+     * @return individual sequence information of the alternate sequence (bits)
+     */
+    public double altRi(EncodedVariant variant) {
+        checkLength(variant);
         double R_i = 0.0;
-        for (int i=0;i<N; i++) {
-            switch (seq.charAt(i)) {
-                case 'A':
-                case 'a':
-                    R_i += this.get(0,i);
-                    codedSequence[i] = 0; break;
-                case 'C':
-                case 'c':
-                    R_i += this.get(1,i);
-                    codedSequence[i] = 1; break;
-                case 'G':
-                case 'g':
-                    R_i += this.get(2,i);
-                    codedSequence[i] = 2; break;
-                case 'T':
-                case 't':
-                    R_i += this.get(3,i);
-                    codedSequence[i] = 3; break;
-                default:
-                    throw new VmvtRuntimeException("Did not recognize base character: " + seq.charAt(i));
+        for (int i = 0; i < nCols; i++) {
+            R_i += this.get(variant.altBase(i), i);
+        }
+        return R_i;
+    }
+
+    private void checkLength(EncodedVariant variant) {
+        if (variant.length() != this.nCols) {
+            throw new VmvtRuntimeException("Attempt to get Ri with length mismatch");
+        }
+    }
+
+    /**
+     * Saturation mutagenesis: the change in R_i caused by every single-nucleotide substitution of a sequence. As a
+     * substitution only changes one term of the sum, R_i(seq) - R_i(mutant) is the difference of two cells of the
+     * matrix, and the 3L values are obtained without summing the sequence again.
+     * @param sequence bases of a sequence of the length of the motif (0=A,1=C,2=G,3=T)
+     * @return grid[i][b] = R_i(seq) - R_i(seq with base b at position i), i.e., positive values are a loss of
+     * information; the entries of the bases of the sequence are 0
+     */
+    public double[][] saturationMutagenesis(int [] sequence) {
+        if (sequence.length != this.nCols) {
+            throw new VmvtRuntimeException("Attempt to get Ri with length mismatch");
+        }
+        double[][] grid = new double[sequence.length][4];
+        for (int i=0; i<sequence.length; i++) {
+            int index = sequence[i];
+            if (index<0 || index>3) {
+                throw new VmvtRuntimeException("Index for R_i matrix must be between 0 and 3");
+            }
+            double ref = this.get(index, i);
+            for (int b=0; b<4; b++) {
+                grid[i][b] = b == index ? 0.0 : ref - this.get(b, i);
             }
         }
-        double R_i2 = getIndividualSequenceInformation(codedSequence);
-        if ((R_i2 - R_i)>0.00001) {
-            throw new VmvtRuntimeException("Bad R_i from string cal");
+        return grid;
+    }
+
+    /**
+     * @param seq a sequence of the length of the motif (ACGT/acgt)
+     * @return grid of the changes in R_i of all substitutions, see {@link #saturationMutagenesis(int[])}
+     */
+    public double[][] saturationMutagenesis(String seq) {
+        int[] sequence = new int[seq.length()];
+        for (int i=0; i<sequence.length; i++) {
+            sequence[i] = baseIndex(seq.charAt(i));
+        }
+        return saturationMutagenesis(sequence);
+    }
+
+    private static int baseIndex(char c) {
+        int index = Bases.index(c);
+        if (index < 0) {
+            throw new VmvtRuntimeException("Did not recognize base character: " + c);
         }
-        return R_i2;
+        return index;
     }
 
     public int getMotifLength() {
@@ -0,0 +1,638 @@
+package org.monarchinitiative.vmvt.core.raster;
+
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Draws the SVGs of {@link org.monarchinitiative.vmvt.core.VmvtGenerator} onto a {@link BufferedImage} with
+ * Java2D and encodes them as PNG with ImageIO, so that no external SVG converter is needed. The rasterizer
+ * understands the subset of SVG that the vmvt components write: {@code g}, {@code text} and {@code tspan},
+ * {@code rect}, {@code line}, {@code path} (straight lines), and {@code circle}, with colours, opacities, stroke
+ * widths and dash arrays as attributes or inline styles, the transforms {@code translate}, {@code scale} and
+ * {@code rotate}, and the font sizes of the {@code <style>} element. It does not need a display, i.e., it runs
+ * with {@code -Djava.awt.headless=true}. Instances are thread-safe.
+ */
+public class SvgRasterizer {
+
+    /** Matches CSS rules such as {@code text.t14 { font: 14px courier, monospace; }}. */
+    private static final Pattern FONT_RULE = Pattern.compile("text(\\.[\\w-]+)?\\s*\\{\\s*font:\\s*([\\d.]+)px");
+    private static final Pattern TRANSFORM = Pattern.compile("(\\w+)\\s*\\(([^)]*)\\)");
+    private static final Pattern PATH_TOKEN = Pattern.compile("[MmLlHhVvZz]|-?[\\d.]+(?:[eE][-+]?\\d+)?");
+    private static final Map<String, Color> NAMED_COLORS = Map.of(
+            "black", Color.BLACK,
+            "white", Color.WHITE,
+            "red", Color.RED,
+            "green", new Color(0, 128, 0),
+            "blue", Color.BLUE,
+            "gray", Color.GRAY,
+            "grey", Color.GRAY);
+    /** SVG default font size. */
+    private static final float DEFAULT_FONT_SIZE = 16f;
+    private static final Font BASE_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 1);
+    /** Used to measure text independently of the transform of the text. */
+    private static final FontRenderContext MEASURE_CONTEXT = new FontRenderContext(null, true, true);
+
+    private final XMLInputFactory xmlInputFactory;
+    /** Factor by which the image is larger than the SVG. */
+    private final double scale;
+
+    public SvgRasterizer() {
+        this(1.0);
+    }
+
+    /**
+     * @param scale factor by which the image is larger than the SVG, e.g. 2 for high-resolution displays
+     */
+    public SvgRasterizer(double scale) {
+        if (!(scale > 0.0) || Double.isInfinite(scale)) {
+            throw new VmvtRuntimeException("Scale must be positive but was " + scale);
+        }
+        this.scale = scale;
+        xmlInputFactory = XMLInputFactory.newFactory();
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * @param svg an SVG created by vmvt
+     * @return the SVG drawn onto an image with a transparent background
+     */
+    BufferedImage rasterize(String svg) {
+        XMLStreamReader reader;
+        // the factory is not guaranteed to be thread-safe, the readers it creates are independent
+        synchronized (xmlInputFactory) {
+            try {
+                reader = xmlInputFactory.createXMLStreamReader(new StringReader(svg));
+            } catch (XMLStreamException e) {
+                throw new VmvtRuntimeException("Could not parse SVG: " + e.getMessage());
+            }
+        }
+        Canvas canvas = new Canvas(scale);
+        try {
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamReader.START_ELEMENT:
+                        canvas.startElement(reader);
+                        break;
+                    case XMLStreamReader.CHARACTERS:
+                    case XMLStreamReader.CDATA:
+                        canvas.characters(reader.getText());
+                        break;
+                    case XMLStreamReader.END_ELEMENT:
+                        canvas.endElement(reader.getLocalName());
+                        break;
+                    default:
+                        // comments, processing instructions, ignorable white space
+                }
+            }
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new VmvtRuntimeException("Could not parse SVG: " + e.getMessage());
+        }
+        return canvas.getImage();
+    }
+
+    /**
+     * Draw an SVG and write it as PNG. The stream is flushed but not closed.
+     * @param svg an SVG created by vmvt
+     * @param out destination of the PNG
+     * @throws IOException if the PNG cannot be written
+     */
+    public void writePng(String svg, OutputStream out) throws IOException {
+        BufferedImage image = rasterize(svg);
+        // ImageIO.write(image, "png", out) would cache the stream in a temporary file
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        try (ImageOutputStream ios = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(ios);
+            writer.write(image);
+        } finally {
+            writer.dispose();
+        }
+        out.flush();
+    }
+
+    /**
+     * @param svg an SVG created by vmvt
+     * @return the SVG as PNG
+     */
+    public byte[] toPng(String svg) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            writePng(svg, bytes);
+        } catch (IOException e) {
+            // a ByteArrayOutputStream does not throw
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * The presentation attributes of an element, inherited from its parent. Opacity and text shadow are not
+     * inherited in SVG, but vmvt only sets them on elements without children (other than tspans).
+     */
+    private static class Style implements Cloneable {
+        private AffineTransform transform = new AffineTransform();
+        private Color fill = Color.BLACK;
+        private float fillOpacity = 1f;
+        private Color stroke = null;
+        private float strokeOpacity = 1f;
+        private float strokeWidth = 1f;
+        private float[] dashArray = null;
+        private float opacity = 1f;
+        private float fontSize = DEFAULT_FONT_SIZE;
+        /** Offset and colour of a text shadow, or null. */
+        private float shadowX;
+        private float shadowY;
+        private Color shadow = null;
+
+        Style copy() {
+            try {
+                Style style = (Style) clone();
+                style.transform = new AffineTransform(transform);
+                return style;
+            } catch (CloneNotSupportedException e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        void set(String name, String value) {
+            switch (name) {
+                case "transform":
+                    transform.concatenate(parseTransform(value));
+                    break;
+                case "fill":
+                    fill = parseColor(value);
+                    break;
+                case "fill-opacity":
+                    fillOpacity = Float.parseFloat(value);
+                    break;
+                case "stroke":
+                    stroke = parseColor(value);
+                    break;
+                case "stroke-opacity":
+                    strokeOpacity = Float.parseFloat(value);
+                    break;
+                case "stroke-width":
+                    strokeWidth = parseLength(value);
+                    break;
+                case "stroke-dasharray":
+                    dashArray = parseDashArray(value);
+                    break;
+                case "opacity":
+                    opacity = Float.parseFloat(value);
+                    break;
+                case "font-size":
+                    fontSize = parseLength(value);
+                    break;
+                case "font":
+                    // e.g. "14px courier, monospace", only the size is used
+                    fontSize = parseLength(value.trim().split("\\s+")[0]);
+                    break;
+                case "text-shadow":
+                    setShadow(value);
+                    break;
+                default:
+                    // attributes that do not influence the presentation (e.g., x, y, class) or are not supported
+            }
+        }
+
+        /** @param declarations CSS declarations, e.g. {@code fill:#4dbbd5; stroke-width:1} */
+        void setAll(String declarations) {
+            for (String declaration : declarations.split(";")) {
+                int colon = declaration.indexOf(':');
+                if (colon > 0) {
+                    set(declaration.substring(0, colon).trim(), declaration.substring(colon + 1).trim());
+                }
+            }
+        }
+
+        private void setShadow(String value) {
+            String[] fields = value.trim().split("\\s+");
+            if (fields.length < 3 || fields[0].equals("none")) {
+                shadow = null;
+                return;
+            }
+            shadowX = parseLength(fields[0]);
+            shadowY = parseLength(fields[1]);
+            shadow = parseColor(fields[fields.length - 1]);
+        }
+    }
+
+    /**
+     * The state of drawing one SVG. The image is created when the {@code <svg>} element is read.
+     */
+    private static class Canvas {
+        private final double scale;
+        private final Deque<Style> styles = new ArrayDeque<>();
+        /** Font sizes of the CSS rules of the style element, key: class or empty string for all texts. */
+        private final Map<String, Float> fontRules = new HashMap<>();
+        private BufferedImage image = null;
+        private Graphics2D graphics = null;
+        private AffineTransform baseTransform = null;
+        private boolean border = false;
+        /** Contents of the style element while it is read, otherwise null. */
+        private StringBuilder css = null;
+        /** Position of the next character of the current text element, or NaN outside of text elements. */
+        private double penX = Double.NaN;
+        private double penY = Double.NaN;
+        /** True until the first character of a text element is drawn (leading white space is removed). */
+        private boolean startOfText = false;
+
+        Canvas(double scale) {
+            this.scale = scale;
+            styles.push(new Style());
+        }
+
+        BufferedImage getImage() {
+            if (image == null) {
+                throw new VmvtRuntimeException("Could not find svg element");
+            }
+            return image;
+        }
+
+        void startElement(XMLStreamReader reader) {
+            String name = reader.getLocalName();
+            Style style = styles.peek().copy();
+            Map<String, String> attributes = new HashMap<>();
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                String attribute = reader.getAttributeLocalName(i);
+                String value = reader.getAttributeValue(i);
+                attributes.put(attribute, value);
+                if (!attribute.equals("style")) {
+                    style.set(attribute, value);
+                }
+            }
+            // CSS rules take precedence over presentation attributes, inline styles over both
+            if (name.equals("text")) {
+                Float size = fontRules.get("");
+                if (size != null) {
+                    style.fontSize = size;
+                }
+                Float classSize = fontRules.get(attributes.getOrDefault("class", ""));
+                if (classSize != null) {
+                    style.fontSize = classSize;
+                }
+            }
+            if (attributes.containsKey("style")) {
+                style.setAll(attributes.get("style"));
+            }
+            styles.push(style);
+            switch (name) {
+                case "svg":
+                    startSvg(attributes);
+                    break;
+                case "style":
+                    css = new StringBuilder();
+                    break;
+                case "text":
+                    penX = number(attributes, "x");
+                    penY = number(attributes, "y");
+                    startOfText = true;
+                    break;
+                case "tspan":
+                    penX = attributes.containsKey("x") ? number(attributes, "x") : penX + number(attributes, "dx");
+                    penY = attributes.containsKey("y") ? number(attributes, "y") : penY + number(attributes, "dy");
+                    break;
+                case "rect":
+                    drawRect(attributes, style);
+                    break;
+                case "line":
+                    draw(new Line2D.Double(number(attributes, "x1"), number(attributes, "y1"),
+                            number(attributes, "x2"), number(attributes, "y2")), style);
+                    break;
+                case "circle":
+                    double r = number(attributes, "r");
+                    draw(new Ellipse2D.Double(number(attributes, "cx") - r, number(attributes, "cy") - r,
+                            2 * r, 2 * r), style);
+                    break;
+                case "path":
+                    draw(parsePath(attributes.getOrDefault("d", "")), style);
+                    break;
+                default:
+                    // g and elements without graphics
+            }
+        }
+
+        void characters(String text) {
+            if (css != null) {
+                css.append(text);
+            } else if (!Double.isNaN(penX)) {
+                drawText(text, styles.peek());
+            }
+        }
+
+        void endElement(String name) {
+            styles.pop();
+            switch (name) {
+                case "style":
+                    Matcher matcher = FONT_RULE.matcher(css);
+                    while (matcher.find()) {
+                        String cls = matcher.group(1) == null ? "" : matcher.group(1).substring(1);
+                        fontRules.put(cls, Float.parseFloat(matcher.group(2)));
+                    }
+                    css = null;
+                    break;
+                case "text":
+                    penX = Double.NaN;
+                    penY = Double.NaN;
+                    break;
+                case "svg":
+                    if (border) {
+                        graphics.setTransform(new AffineTransform());
+                        graphics.setColor(Color.BLACK);
+                        graphics.setStroke(new BasicStroke((float) scale));
+                        double inset = scale / 2;
+                        graphics.draw(new Rectangle2D.Double(inset, inset, image.getWidth() - scale,
+                                image.getHeight() - scale));
+                    }
+                    graphics.dispose();
+                    break;
+                default:
+            }
+        }
+
+        private void startSvg(Map<String, String> attributes) {
+            if (image != null) {
+                throw new VmvtRuntimeException("Nested svg elements are not supported");
+            }
+            int width = (int) Math.ceil(number(attributes, "width") * scale);
+            int height = (int) Math.ceil(number(attributes, "height") * scale);
+            if (width < 1 || height < 1) {
+                throw new VmvtRuntimeException("Invalid size of SVG: " + width + "x" + height);
+            }
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            graphics = image.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            graphics.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+            graphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            baseTransform = AffineTransform.getScaleInstance(scale, scale);
+            border = attributes.getOrDefault("style", "").contains("border");
+        }
+
+        private void drawRect(Map<String, String> attributes, Style style) {
+            double width = number(attributes, "width");
+            double height = number(attributes, "height");
+            if (width <= 0 || height <= 0) {
+                // as in SVG, rectangles with a negative or zero size are not drawn
+                return;
+            }
+            double rx = number(attributes, attributes.containsKey("rx") ? "rx" : "ry");
+            double ry = number(attributes, attributes.containsKey("ry") ? "ry" : "rx");
+            rx = Math.min(rx, width / 2);
+            ry = Math.min(ry, height / 2);
+            double x = number(attributes, "x");
+            double y = number(attributes, "y");
+            Shape rect = rx > 0 || ry > 0
+                    ? new RoundRectangle2D.Double(x, y, width, height, 2 * rx, 2 * ry)
+                    : new Rectangle2D.Double(x, y, width, height);
+            draw(rect, style);
+        }
+
+        /** Fill and stroke a shape with the style of its element. */
+        private void draw(Shape shape, Style style) {
+            if (!setTransform(style)) {
+                return;
+            }
+            if (style.fill != null) {
+                graphics.setColor(withAlpha(style.fill, style.fillOpacity * style.opacity));
+                graphics.fill(shape);
+            }
+            if (style.stroke != null && style.strokeWidth > 0) {
+                graphics.setStroke(new BasicStroke(style.strokeWidth, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER,
+                        4f, style.dashArray, 0f));
+                graphics.setColor(withAlpha(style.stroke, style.strokeOpacity * style.opacity));
+                graphics.draw(shape);
+            }
+        }
+
+        private void drawText(String characters, Style style) {
+            // SVG white space handling: remove new lines, collapse spaces, and strip leading spaces
+            String text = characters.replace("\n", "").replace("\r", "").replace('\t', ' ')
+                    .replaceAll(" {2,}", " ");
+            if (startOfText) {
+                text = text.stripLeading();
+            }
+            if (text.isEmpty()) {
+                return;
+            }
+            startOfText = false;
+            Font font = BASE_FONT.deriveFont(style.fontSize);
+            float x = (float) penX;
+            float y = (float) penY;
+            penX += font.getStringBounds(text, MEASURE_CONTEXT).getWidth();
+            if (style.fill == null || !setTransform(style)) {
+                return;
+            }
+            graphics.setFont(font);
+            if (style.shadow != null) {
+                graphics.setColor(withAlpha(style.shadow, style.opacity));
+                graphics.drawString(text, x + style.shadowX, y + style.shadowY);
+            }
+            graphics.setColor(withAlpha(style.fill, style.fillOpacity * style.opacity));
+            graphics.drawString(text, x, y);
+        }
+
+        /**
+         * @return false if the transform of the style is singular, e.g., a letter of the sequence logo that is
+         * scaled to a height of zero, so that there is nothing to draw
+         */
+        private boolean setTransform(Style style) {
+            if (graphics == null) {
+                throw new VmvtRuntimeException("Graphics outside of the svg element");
+            }
+            if (style.transform.getDeterminant() == 0.0) {
+                return false;
+            }
+            AffineTransform transform = new AffineTransform(baseTransform);
+            transform.concatenate(style.transform);
+            graphics.setTransform(transform);
+            return true;
+        }
+    }
+
+    private static double number(Map<String, String> attributes, String name) {
+        String value = attributes.get(name);
+        return value == null ? 0.0 : parseLength(value);
+    }
+
+    /** @param value a length in user units or pixels, e.g. 3 or 3px */
+    private static float parseLength(String value) {
+        String v = value.trim();
+        if (v.endsWith("px")) {
+            v = v.substring(0, v.length() - 2);
+        }
+        try {
+            return Float.parseFloat(v);
+        } catch (NumberFormatException e) {
+            throw new VmvtRuntimeException("Invalid length: " + value);
+        }
+    }
+
+    /**
+     * @param value #rrggbb, #rgb, rgb(r, g, b), a colour name, or none
+     * @return the colour or null for none
+     */
+    static Color parseColor(String value) {
+        String v = value.trim();
+        if (v.equals("none")) {
+            return null;
+        }
+        try {
+            if (v.startsWith("#") && v.length() == 7) {
+                return new Color(Integer.parseInt(v.substring(1), 16));
+            } else if (v.startsWith("#") && v.length() == 4) {
+                int r = Integer.parseInt(v.substring(1, 2), 16);
+                int g = Integer.parseInt(v.substring(2, 3), 16);
+                int b = Integer.parseInt(v.substring(3, 4), 16);
+                return new Color(r * 17, g * 17, b * 17);
+            } else if (v.startsWith("rgb(") && v.endsWith(")")) {
+                String[] fields = v.substring(4, v.length() - 1).split(",");
+                return new Color(Integer.parseInt(fields[0].trim()), Integer.parseInt(fields[1].trim()),
+                        Integer.parseInt(fields[2].trim()));
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new VmvtRuntimeException("Invalid colour: " + value);
+        }
+        Color color = NAMED_COLORS.get(v.toLowerCase(Locale.ROOT));
+        if (color == null) {
+            throw new VmvtRuntimeException("Unsupported colour: " + value);
+        }
+        return color;
+    }
+
+    private static Color withAlpha(Color color, float opacity) {
+        if (opacity >= 1f) {
+            return color;
+        }
+        int alpha = Math.round(Math.max(0f, opacity) * 255);
+        return new Color(color.getRed(), color.getGreen(), color.getBlue(), alpha);
+    }
+
+    private static float[] parseDashArray(String value) {
+        if (value.trim().equals("none")) {
+            return null;
+        }
+        String[] fields = value.trim().split("[\\s,]+");
+        float[] dashes = new float[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            dashes[i] = parseLength(fields[i]);
+        }
+        return dashes;
+    }
+
+    /** @param value list of translate, scale and rotate transforms, e.g. {@code translate(10,20) scale(1,2)} */
+    static AffineTransform parseTransform(String value) {
+        AffineTransform transform = new AffineTransform();
+        Matcher matcher = TRANSFORM.matcher(value);
+        while (matcher.find()) {
+            String[] fields = matcher.group(2).trim().split("[\\s,]+");
+            double[] args = new double[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                args[i] = parseLength(fields[i]);
+            }
+            switch (matcher.group(1)) {
+                case "translate":
+                    transform.translate(args[0], args.length > 1 ? args[1] : 0.0);
+                    break;
+                case "scale":
+                    transform.scale(args[0], args.length > 1 ? args[1] : args[0]);
+                    break;
+                case "rotate":
+                    if (args.length == 3) {
+                        transform.rotate(Math.toRadians(args[0]), args[1], args[2]);
+                    } else {
+                        transform.rotate(Math.toRadians(args[0]));
+                    }
+                    break;
+                default:
+                    throw new VmvtRuntimeException("Unsupported transform: " + matcher.group());
+            }
+        }
+        return transform;
+    }
+
+    /** @param d path data with straight lines only (M, L, H, V, Z and their relative forms) */
+    static Path2D parsePath(String d) {
+        Path2D.Double path = new Path2D.Double();
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = PATH_TOKEN.matcher(d);
+        while (matcher.find()) {
+            tokens.add(matcher.group());
+        }
+        double x = 0.0;
+        double y = 0.0;
+        double startX = 0.0;
+        double startY = 0.0;
+        char command = 'M';
+        int i = 0;
+        while (i < tokens.size()) {
+            String token = tokens.get(i);
+            if (Character.isLetter(token.charAt(0))) {
+                command = token.charAt(0);
+                i++;
+                if (command == 'Z' || command == 'z') {
+                    path.closePath();
+                    x = startX;
+                    y = startY;
+                }
+                continue;
+            }
+            boolean relative = Character.isLowerCase(command);
+            double dx = relative ? x : 0.0;
+            double dy = relative ? y : 0.0;
+            switch (Character.toUpperCase(command)) {
+                case 'M':
+                case 'L':
+                    if (i + 1 >= tokens.size()) {
+                        throw new VmvtRuntimeException("Invalid path: " + d);
+                    }
+                    x = dx + Double.parseDouble(tokens.get(i));
+                    y = dy + Double.parseDouble(tokens.get(i + 1));
+                    i += 2;
+                    if (Character.toUpperCase(command) == 'M') {
+                        path.moveTo(x, y);
+                        startX = x;
+                        startY = y;
+                        // further coordinate pairs are implicit line-tos
+                        command = relative ? 'l' : 'L';
+                    } else {
+                        path.lineTo(x, y);
+                    }
+                    break;
+                case 'H':
+                    x = dx + Double.parseDouble(tokens.get(i++));
+                    path.lineTo(x, y);
+                    break;
+                case 'V':
+                    y = dy + Double.parseDouble(tokens.get(i++));
+                    path.lineTo(x, y);
+                    break;
+                default:
+                    throw new VmvtRuntimeException("Unsupported path command " + command + " in " + d);
+            }
+        }
+        return path;
+    }
+}
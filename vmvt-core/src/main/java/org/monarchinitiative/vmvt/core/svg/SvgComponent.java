@@ -14,7 +14,24 @@ import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Sequence.*;
  */
 public interface SvgComponent {
 
-    void write(Writer writer, int starty) throws IOException;
+    /**
+     * Write the component.
+     * @param writer An SVG writer
+     * @param starty y position of the top of the component
+     * @throws IOException if we cannot write
+     */
+    void write(SvgWriter writer, int starty) throws IOException;
+
+    /**
+     * Write the component to a plain writer, which is wrapped in an {@link SvgWriter} (non-compact output). This
+     * method is kept for callers that wrote components before the {@link SvgWriter} was introduced.
+     * @param writer destination of the SVG
+     * @param starty y position of the top of the component
+     * @throws IOException if we cannot write
+     */
+    default void write(Writer writer, int starty) throws IOException {
+        write(writer instanceof SvgWriter ? (SvgWriter) writer : new SvgWriter(writer), starty);
+    }
 
     int height();
 
@@ -53,17 +70,16 @@ public interface SvgComponent {
     /**
      * Write one lower case nucleotide (a, c, g, t) to show the sequence. This goes above the actual walker logo
      * and is just a plain letter but with one of the four base colors
-     * @param writer A string writer
+     * @param writer An SVG writer
      * @param x x position
      * @param y y position
      * @param base index of the base
      * @throws IOException if we cannot write
      */
-    default void writePlainBase(Writer writer, int x, int y, int base) throws IOException {
+    default void writePlainBase(SvgWriter writer, int x, int y, int base) throws IOException {
         String color = getBaseColor(base);
         String nt = getBaseCharLC(base);
-        String basestring = String.format("<text x=\"%d\" y=\"%d\" fill=\"%s\">%s</text>",x,y,color,nt);
-        writer.write(basestring + "\n");
+        writer.text(x, y, color, nt).append('\n');
     }
 
 
@@ -25,7 +25,8 @@ public final class SvgConstants {
 
     public final static class Vmvt {
         public final static String PROGRAM_NAME = "vmvt";
-        public final static String PROGRAM_VERSION = "0.9.3";
+        /** Must be the version in pom.xml (checked by DiskRenderCacheTest). */
+        public final static String PROGRAM_VERSION = "0.9.4";
     }
 
     /**
@@ -100,6 +101,8 @@ public final class SvgConstants {
 
         public static final int ESE_SVG_WIDTH = 420;
         public static final int SVG_RI_BOX_HEIGHT = 30;
+        /** Height of the saturation mutagenesis heatmap (four rows of cells). */
+        public static final int SVG_MUTAGENESIS_HEIGHT = 40;
 
     }
 
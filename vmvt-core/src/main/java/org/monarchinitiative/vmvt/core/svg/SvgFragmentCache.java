@@ -0,0 +1,83 @@
+package org.monarchinitiative.vmvt.core.svg;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache for parts of an SVG that do not depend on the variant, e.g., the sequence logo of the donor or acceptor
+ * or the histogram of a delta SVG. The part is rendered once for each y position at which it is drawn and each
+ * output format of {@link SvgWriter} (compact mode and precision), and then written as an immutable string. The
+ * components only use a handful of y positions and formats, so the cache does not need to be bounded. The cache is
+ * thread-safe.
+ */
+public final class SvgFragmentCache {
+
+    /**
+     * Renders the part of an SVG at a given y position. The output must only depend on the y position and the
+     * format of the writer.
+     */
+    @FunctionalInterface
+    public interface Fragment {
+        void write(SvgWriter writer, int starty) throws IOException;
+    }
+
+    /** A rendered fragment and the compact glyphs it uses, see {@link SvgWriter#writeGlyphDefinitions()}. */
+    private static class Rendered {
+        private final String svg;
+        private final int usedGlyphs;
+
+        Rendered(String svg, int usedGlyphs) {
+            this.svg = svg;
+            this.usedGlyphs = usedGlyphs;
+        }
+    }
+
+    /** Key: format (upper 32 bits) and y position (lower 32 bits), value: the rendered fragment. */
+    private final ConcurrentMap<Long, Rendered> fragments = new ConcurrentHashMap<>();
+
+    /**
+     * Write the fragment at y position starty, rendering it first if it has not been rendered for this position.
+     * @param writer   handle to the writer
+     * @param starty   y position of the fragment
+     * @param fragment renders the fragment; must produce the same output for the same y position and format
+     * @throws IOException if the fragment cannot be written
+     */
+    public void write(SvgWriter writer, int starty, Fragment fragment) throws IOException {
+        long key = key(writer, starty);
+        Rendered rendered = fragments.get(key);
+        if (rendered == null) {
+            rendered = fragments.computeIfAbsent(key, k -> render(writer, fragment, starty));
+        }
+        writer.write(rendered.svg);
+        writer.addUsedGlyphs(rendered.usedGlyphs);
+    }
+
+    /**
+     * @return key for the format of the writer (upper 32 bits) and the y position (lower 32 bits), also used by
+     * {@link SvgFragmentTable}
+     */
+    static long key(SvgWriter writer, int starty) {
+        long format = writer.isCompact() ? 1 + writer.getDecimals() : 0;
+        return format << 32 | (starty & 0xFFFF_FFFFL);
+    }
+
+    private static Rendered render(SvgWriter writer, Fragment fragment, int starty) {
+        StringWriter swriter = new StringWriter();
+        SvgWriter fragmentWriter = writer.withSameFormat(swriter);
+        try {
+            fragment.write(fragmentWriter, starty);
+        } catch (IOException e) {
+            // a StringWriter does not throw
+            throw new UncheckedIOException(e);
+        }
+        return new Rendered(swriter.toString(), fragmentWriter.getUsedGlyphs());
+    }
+
+    /** @return number of rendered fragments (for all formats) */
+    public int size() {
+        return fragments.size();
+    }
+}
@@ -0,0 +1,108 @@
+package org.monarchinitiative.vmvt.core.svg;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Table of the SVG fragments of single bases of a sequence, e.g., the letters of a sequence walker, whose output
+ * only depends on the position, the base, the y position and the format of the {@link SvgWriter}. For each y
+ * position and format, the fragments of all positions and all four bases are rendered once, and a sequence is
+ * then written by concatenating the fragments of its bases. This is the per-base counterpart of
+ * {@link SvgFragmentCache}. The table is thread-safe.
+ */
+public final class SvgFragmentTable {
+
+    /**
+     * Renders one base at a given position and y position. The output must only depend on these arguments and
+     * the format of the writer.
+     */
+    @FunctionalInterface
+    public interface Fragment {
+        void write(SvgWriter writer, int pos, int base, int y) throws IOException;
+    }
+
+    /** The rendered fragments of all positions and bases for one y position and format. */
+    public static final class Fragments {
+        /** Index: 4 * position + base (A=0,C=1,G=2,T=3). */
+        private final String[] svg;
+        /** Compact glyphs used by each fragment, see {@link SvgWriter#writeGlyphDefinitions()}. */
+        private final int[] usedGlyphs;
+
+        private Fragments(int positions) {
+            this.svg = new String[4 * positions];
+            this.usedGlyphs = new int[4 * positions];
+        }
+
+        /**
+         * Write the fragment of one base.
+         * @param writer handle to the writer (with the format of the table)
+         * @param pos    position in the sequence
+         * @param base   index of the base (A=0,C=1,G=2,T=3)
+         * @throws IOException if the fragment cannot be written
+         */
+        public void write(SvgWriter writer, int pos, int base) throws IOException {
+            int i = 4 * pos + base;
+            writer.write(svg[i]);
+            writer.addUsedGlyphs(usedGlyphs[i]);
+        }
+    }
+
+    private final int positions;
+    /** Key: format (upper 32 bits) and y position (lower 32 bits), value: the rendered fragments. */
+    private final ConcurrentMap<Long, Fragments> tables = new ConcurrentHashMap<>();
+
+    /**
+     * @param positions length of the sequences that are written with this table
+     */
+    public SvgFragmentTable(int positions) {
+        this.positions = positions;
+    }
+
+    /**
+     * Get the fragments for a y position and the format of the writer, rendering them first if necessary.
+     * @param writer   handle to the writer
+     * @param y        y position of the bases
+     * @param fragment renders one base; must produce the same output for the same arguments and format
+     * @return the fragments of all positions and bases
+     */
+    public Fragments fragments(SvgWriter writer, int y, Fragment fragment) {
+        long key = SvgFragmentCache.key(writer, y);
+        Fragments table = tables.get(key);
+        if (table == null) {
+            table = tables.computeIfAbsent(key, k -> render(writer, fragment, y));
+        }
+        return table;
+    }
+
+    private Fragments render(SvgWriter writer, Fragment fragment, int y) {
+        Fragments table = new Fragments(positions);
+        try {
+            for (int pos = 0; pos < positions; pos++) {
+                for (int base = 0; base < 4; base++) {
+                    StringWriter swriter = new StringWriter();
+                    SvgWriter fragmentWriter = writer.withSameFormat(swriter);
+                    fragment.write(fragmentWriter, pos, base, y);
+                    table.svg[4 * pos + base] = swriter.toString();
+                    table.usedGlyphs[4 * pos + base] = fragmentWriter.getUsedGlyphs();
+                }
+            }
+        } catch (IOException e) {
+            // a StringWriter does not throw
+            throw new UncheckedIOException(e);
+        }
+        return table;
+    }
+
+    /** @return number of positions of the sequences */
+    public int getPositions() {
+        return positions;
+    }
+
+    /** @return number of rendered tables (one per y position and format) */
+    public int size() {
+        return tables.size();
+    }
+}
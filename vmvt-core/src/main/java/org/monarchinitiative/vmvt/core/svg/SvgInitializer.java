@@ -1,6 +1,7 @@
 package org.monarchinitiative.vmvt.core.svg;
 
 import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+import org.monarchinitiative.vmvt.core.pssm.Bases;
 
 import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Sequence.*;
 
@@ -23,25 +24,9 @@ public interface SvgInitializer {
         int seqlen = seq.length();
         int [] idx = new int[seqlen];
         for (int i=0; i<seqlen; i++) {
-            switch (seq.charAt(i)) {
-                case 'a':
-                case 'A':
-                    idx[i] = A_BASE;
-                    break;
-                case 'c':
-                case 'C':
-                    idx[i] = C_BASE;
-                    break;
-                case 'g':
-                case 'G':
-                    idx[i] = G_BASE;
-                    break;
-                case 't':
-                case 'T':
-                    idx[i] = T_BASE;
-                    break;
-                default:
-                    throw new VmvtRuntimeException(String.format("Bad nucleotide in ref (%s): Only ACGT/acgt allowed!",seq));
+            idx[i] = Bases.index(seq.charAt(i));
+            if (idx[i] < 0) {
+                throw new VmvtRuntimeException(String.format("Bad nucleotide in ref (%s): Only ACGT/acgt allowed!",seq));
             }
         }
         return idx;
@@ -0,0 +1,448 @@
+package org.monarchinitiative.vmvt.core.svg;
+
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Writer for SVG elements that appends numbers directly instead of going through {@link String#format}, i.e.,
+ * without parsing a format string, boxing the arguments and creating temporary strings. Integers are written
+ * like {@code %d}, and doubles like {@code %f} (six decimal places) or {@code %.nf}, so that the output is
+ * identical to the output of the corresponding format strings in the root locale.
+ * <p>
+ * Besides the number appenders, there are methods for tags and attributes and for the elements that are
+ * used by many components. All methods return the writer, so that calls can be chained.
+ * <p>
+ * In compact mode, coordinates ({@link #number(double)}) are written with the given number of decimal places and
+ * without trailing zeros, and the letters of the logos and walkers are {@code <use>} elements that refer to
+ * glyphs that are defined once per document by {@link #writeGlyphDefinitions()}. The writer keeps track of the
+ * glyphs that were used, so that only these are defined. Numbers with an explicit number of decimal places (e.g.,
+ * the R_i values) are written the same way in both modes.
+ */
+public class SvgWriter extends Writer {
+
+    /** Number of decimal places of {@code %f}. */
+    public static final int DEFAULT_DECIMALS = 6;
+    /** Number of decimal places of coordinates in compact mode unless another precision is requested. */
+    public static final int DEFAULT_COMPACT_DECIMALS = 2;
+    /** Letters with a glyph in compact mode, and their colours. */
+    private static final String GLYPHS = "AaCcGgTt";
+    private static final String[] GLYPH_COLORS = {SvgConstants.Colors.A_COLOR, SvgConstants.Colors.C_COLOR,
+            SvgConstants.Colors.G_COLOR, SvgConstants.Colors.T_COLOR};
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L,
+            10_000_000L, 100_000_000L, 1_000_000_000L};
+    /** Doubles with a larger absolute value are formatted with BigDecimal. */
+    private static final double FAST_PATH_LIMIT = 1e9;
+
+    private final Writer out;
+    /** If true, write compact SVG (see class comment). */
+    private final boolean compact;
+    /** Number of decimal places of coordinates. */
+    private final int decimals;
+    /** Scratch space for the digits of a number. */
+    private final char[] digits = new char[20];
+    /** Bit i is set if the glyph of the i-th letter of {@link #GLYPHS} was used. */
+    private int usedGlyphs = 0;
+
+    public SvgWriter(Writer out) {
+        this(out, false, DEFAULT_DECIMALS);
+    }
+
+    /**
+     * @param out      destination of the SVG
+     * @param compact  if true, write compact SVG
+     * @param decimals number of decimal places of coordinates in compact mode (0-9), ignored otherwise
+     */
+    public SvgWriter(Writer out, boolean compact, int decimals) {
+        if (decimals < 0 || decimals >= POWERS_OF_TEN.length) {
+            throw new VmvtRuntimeException("Number of decimal places must be between 0 and "
+                    + (POWERS_OF_TEN.length - 1) + " but was " + decimals);
+        }
+        this.out = out;
+        this.compact = compact;
+        this.decimals = compact ? decimals : DEFAULT_DECIMALS;
+    }
+
+    /**
+     * @param out destination of the SVG
+     * @return a writer with the same format (compact mode, precision) as this writer
+     */
+    public SvgWriter withSameFormat(Writer out) {
+        return new SvgWriter(out, compact, decimals);
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    /** @return number of decimal places of coordinates */
+    public int getDecimals() {
+        return decimals;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        out.write(cbuf, off, len);
+    }
+
+    @Override
+    public void write(String str) throws IOException {
+        out.write(str);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        out.write(c);
+    }
+
+    @Override
+    public SvgWriter append(CharSequence csq) throws IOException {
+        out.append(csq);
+        return this;
+    }
+
+    @Override
+    public SvgWriter append(char c) throws IOException {
+        out.write(c);
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Append an integer, like {@code %d}.
+     */
+    public SvgWriter number(int value) throws IOException {
+        return number((long) value);
+    }
+
+    /**
+     * Append an integer, like {@code %d}.
+     */
+    public SvgWriter number(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            out.write(Long.toString(value));
+            return this;
+        }
+        if (value < 0) {
+            out.write('-');
+            value = -value;
+        }
+        int pos = digits.length;
+        do {
+            digits[--pos] = (char) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        out.write(digits, pos, digits.length - pos);
+        return this;
+    }
+
+    /**
+     * Append a coordinate with six decimal places, like {@code %f}, or in compact mode with the precision of this
+     * writer and without trailing zeros.
+     */
+    public SvgWriter number(double value) throws IOException {
+        return writeDouble(value, decimals, compact);
+    }
+
+    /**
+     * Append a double with the given number of decimal places, like {@code %.nf}. As with
+     * {@link java.util.Formatter}, the shortest decimal representation of the value is rounded half-up.
+     * @param value    the number to write
+     * @param decimals number of decimal places (0-9)
+     */
+    public SvgWriter number(double value, int decimals) throws IOException {
+        return writeDouble(value, decimals, false);
+    }
+
+    /**
+     * @param trim if true, remove trailing zeros (and the decimal point) and write zero without a sign
+     */
+    private SvgWriter writeDouble(double value, int decimals, boolean trim) throws IOException {
+        if (Double.isNaN(value)) {
+            out.write("NaN");
+            return this;
+        }
+        boolean negative = Double.compare(value, 0.0) < 0;
+        double abs = Math.abs(value);
+        if (Double.isInfinite(abs)) {
+            out.write(negative ? "-Infinity" : "Infinity");
+            return this;
+        }
+        if (abs < FAST_PATH_LIMIT) {
+            long scale = POWERS_OF_TEN[decimals];
+            double scaled = abs * scale;
+            long floor = (long) scaled;
+            double fraction = scaled - floor;
+            // Close to a tie, the binary value and its shortest decimal representation may round differently
+            if (Math.abs(fraction - 0.5) > 4 * Math.ulp(scaled)) {
+                long rounded = fraction > 0.5 ? floor + 1 : floor;
+                long remainder = rounded % scale;
+                int fractionDigits = decimals;
+                if (trim) {
+                    while (fractionDigits > 0 && remainder % 10 == 0) {
+                        remainder /= 10;
+                        fractionDigits--;
+                    }
+                    negative &= rounded != 0;
+                }
+                if (negative) {
+                    out.write('-');
+                }
+                number(rounded / scale);
+                if (fractionDigits > 0) {
+                    out.write('.');
+                    for (int i = fractionDigits - 1; i >= 0; i--) {
+                        digits[i] = (char) ('0' + (remainder % 10));
+                        remainder /= 10;
+                    }
+                    out.write(digits, 0, fractionDigits);
+                }
+                return this;
+            }
+        }
+        BigDecimal rounded = new BigDecimal(Double.toString(abs)).setScale(decimals, RoundingMode.HALF_UP);
+        if (trim) {
+            negative &= rounded.signum() != 0;
+            rounded = rounded.signum() == 0 ? BigDecimal.ZERO : rounded.stripTrailingZeros();
+        }
+        if (negative) {
+            out.write('-');
+        }
+        out.write(rounded.toPlainString());
+        return this;
+    }
+
+    /**
+     * Start an element, e.g. {@code <rect}. Attributes can then be added with the attribute methods, and the
+     * element must be closed by the caller.
+     */
+    public SvgWriter tag(String name) throws IOException {
+        out.write('<');
+        out.write(name);
+        return this;
+    }
+
+    /** Append {@code  name="value"}. */
+    public SvgWriter attribute(String name, int value) throws IOException {
+        startAttribute(name);
+        number(value);
+        out.write('"');
+        return this;
+    }
+
+    /** Append {@code  name="value"} with six decimal places. */
+    public SvgWriter attribute(String name, double value) throws IOException {
+        startAttribute(name);
+        number(value);
+        out.write('"');
+        return this;
+    }
+
+    /** Append {@code  name="value"}. */
+    public SvgWriter attribute(String name, String value) throws IOException {
+        startAttribute(name);
+        out.write(value);
+        out.write('"');
+        return this;
+    }
+
+    private void startAttribute(String name) throws IOException {
+        out.write(' ');
+        out.write(name);
+        out.write("=\"");
+    }
+
+    /**
+     * Append {@code translate(x,y)} as used in transform attributes.
+     */
+    public SvgWriter translate(int x, int y) throws IOException {
+        out.write("translate(");
+        number(x);
+        out.write(',');
+        number(y);
+        out.write(')');
+        return this;
+    }
+
+    /**
+     * Append {@code translate(x,y)} with six decimal places for y.
+     */
+    public SvgWriter translate(int x, double y) throws IOException {
+        out.write("translate(");
+        number(x);
+        out.write(',');
+        number(y);
+        out.write(')');
+        return this;
+    }
+
+    /**
+     * Append {@code translate(x,y)} with six decimal places for x.
+     */
+    public SvgWriter translate(double x, int y) throws IOException {
+        out.write("translate(");
+        number(x);
+        out.write(',');
+        number(y);
+        out.write(')');
+        return this;
+    }
+
+    /**
+     * Write {@code <line x1="x1" y1="y1" x2="x2" y2="y2" stroke="stroke"/>} and a new line.
+     */
+    public SvgWriter line(int x1, int y1, int x2, int y2, String stroke) throws IOException {
+        tag("line").attribute("x1", x1).attribute("y1", y1).attribute("x2", x2).attribute("y2", y2);
+        return endLine(stroke);
+    }
+
+    /**
+     * Write a line with six decimal places for the x coordinates.
+     */
+    public SvgWriter line(double x1, int y1, double x2, int y2, String stroke) throws IOException {
+        tag("line").attribute("x1", x1).attribute("y1", y1).attribute("x2", x2).attribute("y2", y2);
+        return endLine(stroke);
+    }
+
+    /**
+     * Write a line with six decimal places for the y coordinates.
+     */
+    public SvgWriter line(int x1, double y1, int x2, double y2, String stroke) throws IOException {
+        tag("line").attribute("x1", x1).attribute("y1", y1).attribute("x2", x2).attribute("y2", y2);
+        return endLine(stroke);
+    }
+
+    private SvgWriter endLine(String stroke) throws IOException {
+        attribute("stroke", stroke);
+        out.write("/>\n");
+        return this;
+    }
+
+    /**
+     * Write {@code <text x="x" y="y" fill="fill">content</text>} (without a new line).
+     */
+    public SvgWriter text(int x, int y, String fill, String content) throws IOException {
+        tag("text").attribute("x", x).attribute("y", y).attribute("fill", fill);
+        out.write('>');
+        out.write(content);
+        out.write("</text>");
+        return this;
+    }
+
+    /**
+     * Start the letter of a base that is positioned by a transform. The caller appends the value of the transform
+     * attribute (e.g., with {@link #translate(int, int)}) and then calls {@link #endGlyph(String, String)}. In
+     * compact mode, this is a {@code <use>} of the glyph of the base, otherwise a group with a text element.
+     * @param nt letter of the base (upper or lower case)
+     */
+    public SvgWriter startGlyph(String nt) throws IOException {
+        if (compact) {
+            usedGlyphs |= 1 << glyphIndex(nt);
+            out.write("<use xlink:href=\"#");
+            out.write(glyphId(nt));
+            out.write("\" transform=\"");
+        } else {
+            out.write("<g transform='");
+        }
+        return this;
+    }
+
+    /**
+     * End the letter of a base that was started with {@link #startGlyph(String)}.
+     * @param fill colour of the base (not used in compact mode)
+     * @param nt   letter of the base
+     */
+    public SvgWriter endGlyph(String fill, String nt) throws IOException {
+        return endGlyph(fill, nt, "");
+    }
+
+    /**
+     * End the letter of a base that was started with {@link #startGlyph(String)}.
+     * @param fill       colour of the base (not used in compact mode)
+     * @param nt         letter of the base
+     * @param attributes additional attributes of the letter, e.g. {@code  opacity="0.8"}, with a leading space
+     */
+    public SvgWriter endGlyph(String fill, String nt, String attributes) throws IOException {
+        if (compact) {
+            out.write('"');
+            out.write(attributes);
+            out.write("/>");
+        } else {
+            out.write("'>\n<text x=\"0\" y=\"0\" fill=\"");
+            out.write(fill);
+            out.write('"');
+            out.write(attributes);
+            out.write('>');
+            out.write(nt);
+            out.write("</text>\n</g>");
+        }
+        return this;
+    }
+
+    /**
+     * Write a {@code <defs>} element with the glyphs that were used by {@link #startGlyph(String)} so far,
+     * including those of fragments added with {@link #addUsedGlyphs(int)}. Nothing is written if no glyphs
+     * were used.
+     */
+    public SvgWriter writeGlyphDefinitions() throws IOException {
+        if (usedGlyphs == 0) {
+            return this;
+        }
+        out.write("<defs>\n");
+        for (int i = 0; i < GLYPHS.length(); i++) {
+            if ((usedGlyphs & 1 << i) != 0) {
+                String nt = GLYPHS.substring(i, i + 1);
+                out.write("<text id=\"");
+                out.write(glyphId(nt));
+                out.write("\" fill=\"");
+                out.write(GLYPH_COLORS[i / 2]);
+                out.write("\">");
+                out.write(nt);
+                out.write("</text>\n");
+            }
+        }
+        out.write("</defs>\n");
+        return this;
+    }
+
+    /** @return bit set of the glyphs that were used (for {@link SvgFragmentCache}) */
+    int getUsedGlyphs() {
+        return usedGlyphs;
+    }
+
+    /** @param glyphs bit set of glyphs that were used by a fragment that was rendered by another writer */
+    void addUsedGlyphs(int glyphs) {
+        usedGlyphs |= glyphs;
+    }
+
+    /** @return id of the glyph of a base letter in compact SVGs, e.g., gA or ga */
+    private static String glyphId(String nt) {
+        return "g" + nt;
+    }
+
+    private static int glyphIndex(String nt) {
+        int i = GLYPHS.indexOf(nt);
+        if (nt.length() != 1 || i < 0) {
+            throw new VmvtRuntimeException("No glyph for " + nt);
+        }
+        return i;
+    }
+
+    /** Write {@code </g>}. */
+    public SvgWriter endGroup() throws IOException {
+        out.write("</g>");
+        return this;
+    }
+}
@@ -2,47 +2,59 @@ package org.monarchinitiative.vmvt.core.svg.delta;
 
 
 
+import org.monarchinitiative.vmvt.core.EncodedVariant;
+import org.monarchinitiative.vmvt.core.dist.DeltaHistogram;
 import org.monarchinitiative.vmvt.core.dist.DistributionCalculator;
+import org.monarchinitiative.vmvt.core.dist.ExactDistributionCalculator;
+import org.monarchinitiative.vmvt.core.dist.MotifRegistry;
 import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
 import org.monarchinitiative.vmvt.core.pssm.DoubleMatrix;
 import org.monarchinitiative.vmvt.core.svg.SvgComponent;
+import org.monarchinitiative.vmvt.core.svg.SvgFragmentCache;
+import org.monarchinitiative.vmvt.core.svg.SvgWriter;
 
 
 import java.io.IOException;
-import java.io.Writer;
-import java.util.Arrays;
-import java.util.List;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Colors.*;
-import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Sequence.ACCEPTOR_NT_LENGTH;
-import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Sequence.DONOR_NT_LENGTH;
 
 
 /**
  * Write an SVG that shows the distribution of differences expected by a random single-nucleotide variant
  * in a splice sequence (acceptor or donor). Note that the difference induced by a multinucleotide change
  * or indel can be greater, but we will still display it in this graphic for simplicity.
+ * <p>
+ * The bars of the histogram and the X axis only depend on the histogram. They are rendered once per histogram
+ * and y position, and only the information about the delta R_i of the variant is written for each SVG.
  * @author Peter Robinson
  */
 public class DeltaSvg implements SvgComponent {
-    /** List of values for the change in R_i induced by random SNVs. */
-    private final List<Double> deltavals;
+    /** Rendered bars and axes of the histograms. The histograms are compared by identity and are not kept alive. */
+    private static final Map<DeltaHistogram, SvgFragmentCache> HISTOGRAM_FRAGMENTS =
+            Collections.synchronizedMap(new WeakHashMap<>());
     /** Minumum R_i value for any sequence */
     private final double min;
     /** Maximum R_i value for any sequence */
     private final double max;
-    /** Number of bins to show in the histogram. */
-    private static final int BIN_COUNT = 51;
-    /** Counts of values in each of the bins. */
-    private final int [] bins;
+    /** Histogram of the changes in R_i induced by random SNVs, shared by all DeltaSvg objects of a distribution. */
+    private final DeltaHistogram histogram;
     /** Canvas width of the SVG. */
     private final static int SVG_DELTA_WIDTH = 400;
     /** Canvas height of the SVG. */
     private final static int SVG_DELTA_HEIGHT = 400;
+    /** Height of the component in a document. */
+    public final static int COMPONENT_HEIGHT = 350;
     /** Y position to start writing -- this will be the location of the X axis. */
     private final static int START_Y = SVG_DELTA_HEIGHT - 60;
     /** Where to write the text showing the delta-Ri (x). */
     private final static int X_LOC_DELTA_RI = 230;
+    /** X position of the first bar of the histogram. */
+    private final static int START_X = 50;
+    /** Number of ticks of the X axis (-10 to +10). */
+    private final static int TICK_SPAN = 21;
     /** Representation of the information content matrix of a donor or acceptor splice site. */
     private final DoubleMatrix splicesite;
     /** Individual sequence information content of the reference sequence. */
@@ -53,75 +65,78 @@ public class DeltaSvg implements SvgComponent {
     private final double delta;
 
     /**
-     * Construct Delta-SVG for either a donor or an acceptor site.
+     * Construct Delta-SVG for either a donor or an acceptor site using the bundled exact distribution
+     * of changes induced by SNVs, see {@link MotifRegistry}.
      * @param ref reference sequence
      * @param alt alternate sequence
      */
     public DeltaSvg(String ref, String alt) {
-        if (ref.length() != alt.length()) {
-            throw new VmvtRuntimeException("Ref and alt must have the same length");
-        }
-        if (ref.length() == DONOR_NT_LENGTH) {
-            splicesite = DoubleMatrix.donor();
-        } else if (ref.length() == ACCEPTOR_NT_LENGTH) {
-            splicesite = DoubleMatrix.acceptor();
-        } else {
-            throw new VmvtRuntimeException("Sequence length must be 9 or 27");
-        }
-        DistributionCalculator dcal = new DistributionCalculator(splicesite);
-        this.deltavals = dcal.getDeltas();
-        this.min = deltavals.stream().mapToDouble(Double::doubleValue).min().orElseThrow();
-        this.max = deltavals.stream().mapToDouble(Double::doubleValue).max().orElseThrow();
-        double span = max - min;
-        if (span==0.0) {
-            throw new VmvtRuntimeException("min == max in DeltaSvg");
-        }
-        bins = new int[BIN_COUNT];
-        for (Double d : deltavals) {
-            double normalized = (d-min)/span;
-            int i = (int)Math.ceil((BIN_COUNT-1) * normalized);
-            bins[i]++;
-        }
-        this.ref_R_i = this.splicesite.getIndividualSequenceInformation(ref);
-        this.alt_R_i = this.splicesite.getIndividualSequenceInformation(alt);
-        this.delta = ref_R_i - alt_R_i;
+        this(ref, alt, distributionForSequence(ref, alt));
     }
 
     /**
-     * Construct Delta-SVG for either a donor or an acceptor site.
+     * Construct Delta-SVG for either a donor or an acceptor site using sampled SNV changes.
      * @param ref reference sequence
      * @param alt alternate sequence
+     * @param dcal distribution of changes in R_i induced by random SNVs
      */
     public DeltaSvg(String ref, String alt, DistributionCalculator dcal) {
-        this.deltavals = dcal.getDeltas();
-        this.min = deltavals.stream().mapToDouble(Double::doubleValue).min().orElseThrow();
-        this.max = deltavals.stream().mapToDouble(Double::doubleValue).max().orElseThrow();
-        double span = max - min;
-        if (span==0.0) {
-            throw new VmvtRuntimeException("min == max in DeltaSvg");
-        }
-        bins = new int[BIN_COUNT];
-        for (Double d : deltavals) {
-            double normalized = (d-min)/span;
-            int i = (int)Math.ceil((BIN_COUNT-1) * normalized);
-            bins[i]++;
-        }
-        this.splicesite = dcal.getSplicesite();
-        this.ref_R_i = this.splicesite.getIndividualSequenceInformation(ref);
-        this.alt_R_i = this.splicesite.getIndividualSequenceInformation(alt);
-        this.delta = ref_R_i - alt_R_i;
+        this(ref, alt, dcal.getSplicesite(), dcal.getDeltaHistogram());
+    }
+
+    /**
+     * Construct Delta-SVG for either a donor or an acceptor site using the exact distribution of SNV changes.
+     * @param ref reference sequence
+     * @param alt alternate sequence
+     * @param dist exact distribution of changes in R_i induced by random SNVs
+     */
+    public DeltaSvg(String ref, String alt, ExactDistributionCalculator dist) {
+        this(ref, alt, dist.getSplicesite(), dist.getDeltaHistogram());
     }
 
+    /**
+     * @param splicesite information content matrix of the donor or acceptor
+     * @param histogram precomputed histogram of the changes in R_i induced by random SNVs
+     */
+    public DeltaSvg(String ref, String alt, DoubleMatrix splicesite, DeltaHistogram histogram) {
+        this(splicesite, histogram, splicesite.getIndividualSequenceInformation(ref),
+                splicesite.getIndividualSequenceInformation(alt));
+    }
 
+    /**
+     * Construct Delta-SVG for an encoded variant using the exact distribution of SNV changes.
+     * @param variant encoded reference and alternate sequence
+     * @param dist exact distribution of changes in R_i induced by random SNVs
+     */
+    public DeltaSvg(EncodedVariant variant, ExactDistributionCalculator dist) {
+        this(dist.getSplicesite(), dist.getDeltaHistogram(), dist.getSplicesite().refRi(variant),
+                dist.getSplicesite().altRi(variant));
+    }
 
+    private DeltaSvg(DoubleMatrix splicesite, DeltaHistogram histogram, double refRi, double altRi) {
+        this.histogram = histogram;
+        this.min = histogram.getMin();
+        this.max = histogram.getMax();
+        this.splicesite = splicesite;
+        this.ref_R_i = refRi;
+        this.alt_R_i = altRi;
+        this.delta = ref_R_i - alt_R_i;
+    }
+
+    private static ExactDistributionCalculator distributionForSequence(String ref, String alt) {
+        if (ref.length() != alt.length()) {
+            throw new VmvtRuntimeException("Ref and alt must have the same length");
+        }
+        return MotifRegistry.distribution(MotifRegistry.typeForLength(ref.length()));
+    }
 
 
     /**
      * For testing. Dump the number of counts in each bin to the shell.
      */
     public void dump() {
-        for (int i=0;i<bins.length;i++) {
-            System.out.printf("%d: %d\n", i, bins[i]);
+        for (int i=0;i<histogram.getBinCount();i++) {
+            System.out.printf("%d: %f\n", i, histogram.getCount(i));
         }
     }
 
@@ -129,9 +144,8 @@ public class DeltaSvg implements SvgComponent {
     /**
      *   Write an axis from -10 to +10
      */
-    private void writeTicks(Writer writer, double startX, double endX, int ypos) throws IOException {
-        writer.write(String.format("<line x1=\"%f\" y1=\"%d\" x2=\"%f\" y2=\"%d\" stroke=\"%s\"/>\n",
-                startX,ypos,endX,ypos, BLACK));
+    private void writeTicks(SvgWriter writer, double startX, double endX, int ypos) throws IOException {
+        writer.line(startX, ypos, endX, ypos, BLACK);
         // for both donor and acceptor the biggest change is nearly 10/-10 startX is -10 and startY is 10
         if (Math.round(this.min) != -10) {
             // should never happen
@@ -140,7 +154,7 @@ public class DeltaSvg implements SvgComponent {
         if (Math.round(this.max) != 10) {
             throw new VmvtRuntimeException("Bad end point -- should be 10");
         }
-        int span = 21;
+        int span = TICK_SPAN;
         double increment = (endX - startX)/(double)span;
         double X = startX;
         int tickHeight = 5;
@@ -149,51 +163,35 @@ public class DeltaSvg implements SvgComponent {
         int Y_INCREMENT = 25; // amount of space to "lower" the numbers on the X axixs
         for (int i=0;i<span;i++) {
             if (i%5==0) {
-                writer.write(String.format("<line x1=\"%f\" y1=\"%d\" x2=\"%f\" y2=\"%d\" stroke=\"%s\"/>\n",
-                        X, ypos, X, YmajorTick, BLACK));
+                writer.line(X, ypos, X, YmajorTick, BLACK);
             } else {
-                writer.write(String.format("<line x1=\"%f\" y1=\"%d\" x2=\"%f\" y2=\"%d\" stroke=\"%s\"/>\n",
-                        X, ypos, X, Y2, BLACK));
+                writer.line(X, ypos, X, Y2, BLACK);
             }
             // Write numbers under the tick marks. We use fudge factors to adjust for
             // different widths of the numbers (-10, -5, 0, 5, 10).
             if (i==0) {
                 int Y3 = Y2 + Y_INCREMENT;
                 int X3 = (int)X - 30;
-                writer.write(String.format("<g transform='translate(%d,%d)'><text>-10</text></g>\n", X3,Y3));
+                writeTickLabel(writer, X3, Y3, "-10");
             } else if (i==5) {
                 int Y3 = Y2 + Y_INCREMENT;
                 int X3 = (int)X - 20;
-                writer.write(String.format("<g transform='translate(%d,%d)'><text>-5</text></g>\n", X3,Y3));
+                writeTickLabel(writer, X3, Y3, "-5");
             } else if (i==10) {
                 int Y3 = Y2 + Y_INCREMENT;
                 int X3 = (int)X - 7;
-                writer.write(String.format("<g transform='translate(%d,%d)'><text>0</text></g>\n", X3,Y3));
+                writeTickLabel(writer, X3, Y3, "0");
             } else if (i==15) {
                 int Y3 = Y2 + Y_INCREMENT;
                 int X3 = (int)X - 7;
-                writer.write(String.format("<g transform='translate(%d,%d)'><text>5</text></g>\n", X3,Y3));
+                writeTickLabel(writer, X3, Y3, "5");
             } else if (i==20) {
                 int Y3 = Y2 + Y_INCREMENT;
                 int X3 = (int)X - 12;
-                writer.write(String.format("<g transform='translate(%d,%d)'><text>10</text></g>\n", X3,Y3));
+                writeTickLabel(writer, X3, Y3, "10");
             }
             X += increment;
         }
-        // the following should never happen
-//        if (delta>max) {
-//            throw new VmvtRuntimeException("Bad data -- measured delta greater than max");
-//        } else if (delta < min) {
-//            throw new VmvtRuntimeException("Bad data -- measured delta smaller than min");
-//        }
-        double Xzero = (10.0*increment) + startX; // X position at ZERO of the graph
-        if (delta > 0) {
-            int x1 = (int)((delta*increment) + Xzero);
-            writeDeltaInformation(writer,x1, ypos);
-        } else {
-            int x1 = (int)((min*increment) + Xzero);
-            writeDeltaInformation(writer,x1, ypos);
-        }
     }
 
 
@@ -206,16 +204,14 @@ public class DeltaSvg implements SvgComponent {
      * @throws IOException if there are problems writing the SVG elements
      */
 
-    private void writeDeltaInformation(Writer writer, int x, int ypos) throws IOException {
+    private void writeDeltaInformation(SvgWriter writer, int x, int ypos) throws IOException {
         int Y_LOC_DELTA_RI = ypos-250;
-        String deltaRi = String.format("<text x=\"%d\" y=\"%d\" font-size=\"16\">\n" +
-                "ΔR" +
-                "<tspan dy=\"3\" font-size=\"12\">i</tspan></text>\n" +
-                "<text x=\"%d\" y=\"%d\">: %.2f</text>\n",
-                X_LOC_DELTA_RI,Y_LOC_DELTA_RI,X_LOC_DELTA_RI+38,Y_LOC_DELTA_RI,this.delta);
         int y_offset = 100;
         int lineheight = ypos-y_offset;
-        writer.write(deltaRi);
+        writer.tag("text").attribute("x", X_LOC_DELTA_RI).attribute("y", Y_LOC_DELTA_RI)
+                .append(" font-size=\"16\">\nΔR<tspan dy=\"3\" font-size=\"12\">i</tspan></text>\n");
+        writer.tag("text").attribute("x", X_LOC_DELTA_RI + 38).attribute("y", Y_LOC_DELTA_RI)
+                .append(">: ").number(this.delta, 2).append("</text>\n");
         if (delta > max) {
             // In this case, the delta-Ri is larger than the delta-Ri of any single nt mutation
             // draw a red box around the delta Ri
@@ -224,53 +220,94 @@ public class DeltaSvg implements SvgComponent {
             int x_left = X_LOC_DELTA_RI - 10;
             int x_right = X_LOC_DELTA_RI + 150;
 
-            writer.write(String.format("<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"%s\" stroke-width=\"3\"/>\n",
-                    x_left,y_bottom,x_right,y_bottom, RED));
-            writer.write(String.format("<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"%s\" stroke-width=\"3\"/>\n",
-                    x_left,y_top,x_right, y_top, RED));
-            writer.write(String.format("<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"%s\" stroke-width=\"3\"/>\n",
-                    x_left+1,y_bottom,x_left+1,y_top, RED));
-            writer.write(String.format("<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"%s\" stroke-width=\"3\"/>\n",
-                    x_right-1,y_bottom,x_right-1,y_top, RED));
+            writeThickLine(writer, x_left, y_bottom, x_right, y_bottom);
+            writeThickLine(writer, x_left, y_top, x_right, y_top);
+            writeThickLine(writer, x_left + 1, y_bottom, x_left + 1, y_top);
+            writeThickLine(writer, x_right - 1, y_bottom, x_right - 1, y_top);
         } else {
             // write a line with pinhead to show location of delta-Ri of the variant
-            String line2 = String.format("<g fill=\"none\" stroke=\"%s\" stroke-width=\"2\">\n" +
-                    "<path stroke-dasharray=\"2,2\" d=\"M%d %d l0 %d\"/>" +
-                    "</g>\n", PURPLE, x, y_offset, lineheight);
-            String circle = String.format("<circle cx=\"%d\" cy=\"%d\" r=\"8\" stroke=\"black\" \n" +
-                    " stroke-width=\"3\" fill=\"%s\"/>\n", x, y_offset, PURPLE);
-            writer.write(line2);
-            writer.write(circle);
+            writer.append("<g fill=\"none\" stroke=\"").append(PURPLE).append("\" stroke-width=\"2\">\n")
+                    .append("<path stroke-dasharray=\"2,2\" d=\"M").number(x).append(' ').number(y_offset)
+                    .append(" l0 ").number(lineheight).append("\"/></g>\n");
+            writer.tag("circle").attribute("cx", x).attribute("cy", y_offset)
+                    .append(" r=\"8\" stroke=\"black\" \n stroke-width=\"3\" fill=\"").append(PURPLE).append("\"/>\n");
         }
     }
 
+    private void writeThickLine(SvgWriter writer, int x1, int y1, int x2, int y2) throws IOException {
+        writer.tag("line").attribute("x1", x1).attribute("y1", y1).attribute("x2", x2).attribute("y2", y2)
+                .attribute("stroke", RED).append(" stroke-width=\"3\"/>\n");
+    }
+
+    private void writeTickLabel(SvgWriter writer, int x, int y, String label) throws IOException {
+        writer.append("<g transform='").translate(x, y).append("'><text>").append(label).append("</text></g>\n");
+    }
+
     @Override
-    public void write(Writer writer, int ypos) throws IOException {
-        int startX = 50;
+    public void write(SvgWriter writer, int ypos) throws IOException {
+        HISTOGRAM_FRAGMENTS.computeIfAbsent(histogram, h -> new SvgFragmentCache())
+                .write(writer, ypos, this::writeHistogram);
+        writeDeltaInformation(writer, deltaX(), ypos + 300);
+    }
+
+    /**
+     * @return X position of the delta-Ri of the variant on the axis
+     */
+    private int deltaX() {
+        double startX = axisStartX();
+        double increment = (axisEndX() - startX)/(double)TICK_SPAN;
+        double Xzero = (10.0*increment) + startX; // X position at ZERO of the graph
+        if (delta > 0) {
+            return (int)((delta*increment) + Xzero);
+        } else {
+            return (int)((min*increment) + Xzero);
+        }
+    }
+
+    /**
+     * Write the bars of the histogram and the X axis. The output only depends on {@link #histogram}.
+     */
+    private void writeHistogram(SvgWriter writer, int ypos) throws IOException {
         int maxHeight = SVG_DELTA_HEIGHT - 120;
         // maximum bin count should be maxHeight
-        int maxCount = Arrays.stream(bins).max().orElseThrow();
-        double heightFactor = (double)maxHeight/(double)maxCount;
-        double barWidth = (double)(SVG_DELTA_WIDTH-2*startX)/(double)BIN_COUNT;
-        double X = startX;
+        double maxCount = histogram.getMaxCount();
+        double heightFactor = (double)maxHeight/maxCount;
+        int binCount = histogram.getBinCount();
+        double barWidth = barWidth();
+        double X = START_X;
         ypos += 300;
-        for (int bin : bins) {
-            double barHeight = heightFactor * bin;
+        for (int i = 0; i < binCount; i++) {
+            double barHeight = heightFactor * histogram.getCount(i);
             // the "y" of a rect is the upper left hand corner
             double Y = ypos - barHeight;
-            String rect = String.format("<rect x=\"%f\" y=\"%f\" width=\"%f\" height=\"%f\" rx=\"2\" " +
-                            "style=\"stroke:#006600; fill:%s\" />\n",
-                    X, Y, barWidth, barHeight, GREEN);
-            writer.write(rect);
+            writer.tag("rect").attribute("x", X).attribute("y", Y)
+                    .attribute("width", barWidth).attribute("height", barHeight)
+                    .append(" rx=\"2\" style=\"stroke:#006600; fill:").append(GREEN).append("\" />\n");
+            X += barWidth;
+        }
+        writeTicks(writer, axisStartX(), axisEndX(), ypos);
+    }
+
+    private double barWidth() {
+        return (double)(SVG_DELTA_WIDTH-2*START_X)/(double)histogram.getBinCount();
+    }
+
+    private double axisStartX() {
+        return START_X + barWidth();
+    }
+
+    /** The end of the axis is calculated by adding up the bar widths, as the bars are drawn. */
+    private double axisEndX() {
+        double barWidth = barWidth();
+        double X = START_X;
+        for (int i = 0; i < histogram.getBinCount(); i++) {
             X += barWidth;
         }
-        double X1 = startX + barWidth;
-        double X2 = X + 2*barWidth;
-        writeTicks(writer, X1, X2, ypos);
+        return X + 2*barWidth;
     }
 
     @Override
     public int height() {
-        return 350;
+        return COMPONENT_HEIGHT;
     }
 }
@@ -8,7 +8,6 @@ import org.monarchinitiative.vmvt.core.hexamer.KmerFeatureCalculator;
 import org.monarchinitiative.vmvt.core.svg.*;
 
 import java.io.IOException;
-import java.io.Writer;
 import java.util.Arrays;
 
 import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Colors.*;
@@ -17,7 +16,7 @@ public class EseSvg implements SvgComponent {
     /** Canvas width of the SVG */
     private final static int SVG_WIDTH = SvgConstants.Dimensions.ESE_SVG_WIDTH;
     /** Canvas height of the SVG.*/
-    private final static int SVG_HEIGHT = 300;
+    public final static int SVG_HEIGHT = 300;
     /** Width of one of the two kmer plots (ref/alt) this SVG will show. Needs to be less than half of {@link #SVG_WIDTH}*/
     private final static int KMER_PLOT_WIDTH = 350;
     /** Start to draw the first ESE plot here. */
@@ -85,9 +84,8 @@ public class EseSvg implements SvgComponent {
      * @param writer file handle
      * @throws IOException if we cannot write
      */
-    private void writeYaxis(Writer writer, int xstart) throws IOException {
-        writer.write(String.format("<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"black\"/>\n",
-                xstart, YTOP, xstart, YBOTTOM));
+    private void writeYaxis(SvgWriter writer, int xstart) throws IOException {
+        writer.line(xstart, YTOP, xstart, YBOTTOM, "black");
         // write axis ticks and numbers
         // We will show 11 ticks
         double Yincrement = (double) (YBOTTOM - YTOP) / 10.0;
@@ -106,13 +104,11 @@ public class EseSvg implements SvgComponent {
 
             // writer.write(String.format("<g transform='translate(%d,%d) scale(0.4,0.4)'><text>-10</text></g>\n", X3,Y3));
             if (i%5==0) { // just show ticks for -1, 0, and 1
-                writer.write(String.format("<g transform='translate(%d,%f)'><text>%.1f</text></g>\n",
-                        x, y + Ynudge, currentYval));
-                writer.write(String.format("<line x1=\"%d\" y1=\"%f\" x2=\"%d\" y2=\"%f\" stroke=\"black\"/>\n",
-                        XbigTickstart, y, xstart, y));
+                writer.append("<g transform='").translate(x, y + Ynudge).append("'><text>")
+                        .number(currentYval, 1).append("</text></g>\n");
+                writer.line(XbigTickstart, y, xstart, y, "black");
             } else {
-                writer.write(String.format("<line x1=\"%d\" y1=\"%f\" x2=\"%d\" y2=\"%f\" stroke=\"black\"/>\n",
-                        Xtickstart, y, xstart, y));
+                writer.line(Xtickstart, y, xstart, y, "black");
             }
             currentYval -= 0.2;
             y += Yincrement;
@@ -127,10 +123,9 @@ public class EseSvg implements SvgComponent {
      * @param meanEseScore Corresponding average ESE score
      * @throws IOException if we cannot write.
      */
-    private void writeEsePlot(Writer writer, double[] esescores, double meanEseScore, int xstart, int xend) throws IOException {
+    private void writeEsePlot(SvgWriter writer, double[] esescores, double meanEseScore, int xstart, int xend) throws IOException {
         int y = X_AXIS_BASELINE; // y at y=0, i.e., the X-axis baseline
-        writer.write(String.format("<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"black\"/>\n",
-                xstart, y, xend, y));
+        writer.line(xstart, y, xend, y, "black");
         int numbins = reference.length() - this.padding;
         double Xincrement = (double) (xend - xstart) / (double) numbins;
         double barWidth = 0.6 * Xincrement;
@@ -143,24 +138,23 @@ public class EseSvg implements SvgComponent {
             x += Xincrement;
             xposForNumbers += Xincrement;
             xposForBoxes += Xincrement;
-            writer.write(String.format("<line x1=\"%f\" y1=\"%d\" x2=\"%f\" y2=\"%d\" stroke=\"black\"/>\n",
-                    x, y, x, y2));
+            writer.line(x, y, x, y2, "black");
 
             double barHeight = esescores[i] * YSCALE;
             double Y = y - barHeight;
             if (barHeight > 1.0) {
-                String rect = String.format("<rect x=\"%f\" y=\"%f\" width=\"%f\" height=\"%f\" rx=\"2\" " +
-                                "style=\"stroke:%s; fill: %s\" />\n",
-                        xposForBoxes, Y, barWidth, barHeight, DARKGREEN, GREEN);
-                writer.write(rect);
+                writer.tag("rect").attribute("x", xposForBoxes).attribute("y", Y)
+                        .attribute("width", barWidth).attribute("height", barHeight)
+                        .append(" rx=\"2\" style=\"stroke:").append(DARKGREEN).append("; fill: ").append(GREEN)
+                        .append("\" />\n");
             } else if (barHeight < -1.0) {
-                String rect = String.format("<rect x=\"%f\" y=\"%d\" width=\"%f\" height=\"%f\" rx=\"2\" " +
-                                "style=\"stroke:%s; fill: %s\" fill-opacity=\"0.4\"/>\n",
-                        xposForBoxes, y, barWidth, Math.abs(barHeight), DARKGREEN, GREEN);
-                writer.write(rect);
+                writer.tag("rect").attribute("x", xposForBoxes).attribute("y", y)
+                        .attribute("width", barWidth).attribute("height", Math.abs(barHeight))
+                        .append(" rx=\"2\" style=\"stroke:").append(DARKGREEN).append("; fill: ").append(GREEN)
+                        .append("\" fill-opacity=\"0.4\"/>\n");
             }
-            writer.write(String.format("<g transform='translate(%f,%d) scale(0.75,0.75)'><text>%d</text></g>\n",
-                    xposForNumbers, YBOTTOM, (1 + i)));
+            writer.append("<g transform='").translate(xposForNumbers, YBOTTOM).append(" scale(0.75,0.75)'><text>")
+                    .number(1 + i).append("</text></g>\n");
         }
         if (meanEseScore == 0) {
             return; // no need to draw line
@@ -169,16 +163,15 @@ public class EseSvg implements SvgComponent {
         } else {
             y = X_AXIS_BASELINE - (int) (meanEseScore * YSCALE);
         }
-        writer.write(String.format("<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"%s\"/>\n",
-                xstart, y, xend, y, RED));
+        writer.line(xstart, y, xend, y, RED);
     }
 
-    private void plotReference(Writer writer) throws IOException {
+    private void plotReference(SvgWriter writer) throws IOException {
         writeYaxis(writer, XSTART_REF_PLOT);
         writeEsePlot(writer, this.ESEscoresRef, this.meanESEref, XSTART_REF_PLOT, XEND_REF_PLOT);
     }
 
-    private void plotAlternate(Writer writer) throws IOException {
+    private void plotAlternate(SvgWriter writer) throws IOException {
         writeYaxis(writer, XSTART_ALT_PLOT);
         int XEND_ALT_PLOT = XSTART_ALT_PLOT + KMER_PLOT_WIDTH;
         writeEsePlot(writer, this.ESEscoresAlt, this.meanESEalt, XSTART_ALT_PLOT, XEND_ALT_PLOT);
@@ -186,7 +179,7 @@ public class EseSvg implements SvgComponent {
 
 
     @Override
-    public void write(Writer writer, int starty) throws IOException {
+    public void write(SvgWriter writer, int starty) throws IOException {
         plotReference(writer);
         plotAlternate(writer);
     }
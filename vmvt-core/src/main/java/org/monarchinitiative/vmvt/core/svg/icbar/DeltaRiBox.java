@@ -1,16 +1,16 @@
 package org.monarchinitiative.vmvt.core.svg.icbar;
 
-import org.monarchinitiative.vmvt.core.svg.SvgInitializer;
+import org.monarchinitiative.vmvt.core.EncodedVariant;
 import org.monarchinitiative.vmvt.core.pssm.DoubleMatrix;
 import org.monarchinitiative.vmvt.core.svg.SvgComponent;
+import org.monarchinitiative.vmvt.core.svg.SvgWriter;
 
 import java.io.IOException;
-import java.io.Writer;
 
 import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Colors.BLUE;
 import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Dimensions.*;
 
-public class DeltaRiBox implements SvgInitializer, SvgComponent {
+public class DeltaRiBox implements SvgComponent {
 
     private final double refR_i;
     private final double altR_i;
@@ -22,6 +22,12 @@ public class DeltaRiBox implements SvgInitializer, SvgComponent {
         this.middle = width/2 ;
     }
 
+    public DeltaRiBox(EncodedVariant variant, DoubleMatrix splicesite, int width) {
+        this.refR_i = splicesite.refRi(variant);
+        this.altR_i = splicesite.altRi(variant);
+        this.middle = width/2 ;
+    }
+
 
     /**
      * Write text such as Ri :7.00 -> -1.96 to show the effect of a mutation
@@ -30,28 +36,23 @@ public class DeltaRiBox implements SvgInitializer, SvgComponent {
      * @param y vertical start position.
      * @throws IOException if we cannot write to the handle
      */
-    private void writeRiChange(Writer writer, int y) throws IOException {
+    private void writeRiChange(SvgWriter writer, int y) throws IOException {
         int blueBoxStart = middle - (int)(0.5*BLUE_BOX_WIDTH);
         int startx = blueBoxStart+10;
         int blueBoxFudge = 16; // move back up by this amount to be in the right place
-        String blueRect = String.format("<rect x=\"%d\" y=\"%d\" rx=\"3\" ry=\"3\" width=\"%d\" height=\"%d\" style=\"stroke: %s; fill: none;fill-opacity: 0.1\"></rect>",
-                blueBoxStart,
-                y-blueBoxFudge,
-                BLUE_BOX_WIDTH,
-                BLUE_BOX_HEIGHT,
-                BLUE);
-        writer.write(blueRect);
-        String RefRiString = String.format("<text x=\"%d\" y=\"%d\" class=\"t12\">Ref: %.2f bits</text>\n",
-                startx,y, refR_i);
-        String AltRiString = String.format("<text x=\"%d\" y=\"%d\" class=\"t12\">Alt: %.2f bits</text>\n",
-                startx,y+15, altR_i);
-        writer.write(RefRiString);
-        writer.write(AltRiString);
+        writer.tag("rect").attribute("x", blueBoxStart).attribute("y", y-blueBoxFudge)
+                .append(" rx=\"3\" ry=\"3\"")
+                .attribute("width", BLUE_BOX_WIDTH).attribute("height", BLUE_BOX_HEIGHT)
+                .append(" style=\"stroke: ").append(BLUE).append("; fill: none;fill-opacity: 0.1\"></rect>");
+        writer.tag("text").attribute("x", startx).attribute("y", y)
+                .append(" class=\"t12\">Ref: ").number(refR_i, 2).append(" bits</text>\n");
+        writer.tag("text").attribute("x", startx).attribute("y", y+15)
+                .append(" class=\"t12\">Alt: ").number(altR_i, 2).append(" bits</text>\n");
     }
 
 
     @Override
-    public void write(Writer writer, int starty) throws IOException {
+    public void write(SvgWriter writer, int starty) throws IOException {
         writeRiChange(writer, starty);
     }
 
@@ -68,4 +69,12 @@ public class DeltaRiBox implements SvgInitializer, SvgComponent {
     public static DeltaRiBox acceptor(String ref, String alt, DoubleMatrix acceptor) {
         return new DeltaRiBox(ref, alt, acceptor, SVG_ACCEPTOR_WIDTH);
     }
+
+    public static DeltaRiBox donor(EncodedVariant variant, DoubleMatrix donor) {
+        return new DeltaRiBox(variant, donor, SVG_DONOR_WIDTH);
+    }
+
+    public static DeltaRiBox acceptor(EncodedVariant variant, DoubleMatrix acceptor) {
+        return new DeltaRiBox(variant, acceptor, SVG_ACCEPTOR_WIDTH);
+    }
 }
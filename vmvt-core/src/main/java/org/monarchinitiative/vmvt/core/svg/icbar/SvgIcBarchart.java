@@ -1,43 +1,48 @@
 package org.monarchinitiative.vmvt.core.svg.icbar;
 
-import org.monarchinitiative.vmvt.core.svg.SvgInitializer;
+import org.monarchinitiative.vmvt.core.EncodedVariant;
 import org.monarchinitiative.vmvt.core.pssm.DoubleMatrix;
 
 import org.monarchinitiative.vmvt.core.svg.SvgComponent;
 import org.monarchinitiative.vmvt.core.svg.SvgConstants;
+import org.monarchinitiative.vmvt.core.svg.SvgWriter;
 
 import java.io.IOException;
-import java.io.Writer;
 
 import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Dimensions.*;
 
 
-public class SvgIcBarchart implements SvgInitializer, SvgComponent {
+public class SvgIcBarchart implements SvgComponent {
     private final int seqlen;
-    /** A coding of the String representing the reference sequence using A=0,C=1,G=2,T=3. */
-    private final int [] refidx;
-    /** A coding of the String representing the alternate sequence using A=0,C=1,G=2,T=3. */
-    private final int [] altidx;
+    /** The encoded reference and alternate sequences. */
+    private final EncodedVariant variant;
     private final DoubleMatrix splicesite;
 
     private final int ICBOX_WIDTH = LOWER_CASE_BASE_INCREMENT - 2;
     private final int Y_JUMP = 2; // jump across the 'y axis' for IC +/1 zero
 
 
-    private SvgIcBarchart(String ref, String alt, DoubleMatrix splicesite, SvgConstants.MotifType type){
+    private SvgIcBarchart(EncodedVariant variant, DoubleMatrix splicesite, SvgConstants.MotifType type){
         this.splicesite = splicesite;
-        this.refidx = sequenceIndex(ref);
-        this.altidx = sequenceIndex(alt);
-        this.seqlen = sequenceLength(ref, alt);
+        this.variant = variant;
+        this.seqlen = variant.length();
     }
 
 
     public static SvgIcBarchart donorBarChart(String ref, String alt, DoubleMatrix splicesite) {
-        return new SvgIcBarchart(ref, alt, splicesite, SvgConstants.MotifType.DONOR);
+        return donorBarChart(EncodedVariant.of(ref, alt), splicesite);
+    }
+
+    public static SvgIcBarchart donorBarChart(EncodedVariant variant, DoubleMatrix splicesite) {
+        return new SvgIcBarchart(variant, splicesite, SvgConstants.MotifType.DONOR);
     }
 
     public static SvgIcBarchart acceptorBarChart(String ref, String alt, DoubleMatrix splicesite) {
-        return new SvgIcBarchart(ref, alt, splicesite, SvgConstants.MotifType.ACCEPTOR);
+        return acceptorBarChart(EncodedVariant.of(ref, alt), splicesite);
+    }
+
+    public static SvgIcBarchart acceptorBarChart(EncodedVariant variant, DoubleMatrix splicesite) {
+        return new SvgIcBarchart(variant, splicesite, SvgConstants.MotifType.ACCEPTOR);
     }
 
     /**
@@ -47,24 +52,22 @@ public class SvgIcBarchart implements SvgInitializer, SvgComponent {
      * @param y y position
      * @param base index of the base
      */
-    private void writeRefBaseBox(Writer writer, int x, double y, int base, int pos) throws IOException {
+    private void writeRefBaseBox(SvgWriter writer, int x, double y, int base, int pos) throws IOException {
         String color = getBaseColor(base);
         double IC = this.splicesite.get(base, pos);
         double BOX_HEIGHT_UNIT = 10;
         double boxHeight;
-        String rect;
+        double boxY;
         if (IC>0) {
             boxHeight = IC * BOX_HEIGHT_UNIT;
-            rect = String.format("<rect x=\"%d\" y=\"%f\" width=\"%d\" height=\"%f\"  " +
-                            "style=\"fill:%s\" />\n",
-                    x, y-boxHeight, ICBOX_WIDTH, boxHeight, color);
+            boxY = y-boxHeight;
         } else {
             boxHeight = -IC * BOX_HEIGHT_UNIT;
-            rect = String.format("<rect x=\"%d\" y=\"%f\" width=\"%d\" height=\"%f\"  " +
-                            "style=\"fill:%s\" />\n",
-                    x, y+Y_JUMP, ICBOX_WIDTH, boxHeight, color);
+            boxY = y+Y_JUMP;
         }
-        writer.write(rect);
+        writer.tag("rect").attribute("x", x).attribute("y", boxY)
+                .attribute("width", ICBOX_WIDTH).attribute("height", boxHeight)
+                .append("  style=\"fill:").append(color).append("\" />\n");
     }
 
     /**
@@ -75,47 +78,45 @@ public class SvgIcBarchart implements SvgInitializer, SvgComponent {
      * @param refbase index of the reference base
      * @param altbase index of the alternate base
      */
-    private void writeRefAltDuplexBox(Writer writer, int x, double y, int refbase, int altbase, int pos) throws IOException {
+    private void writeRefAltDuplexBox(SvgWriter writer, int x, double y, int refbase, int altbase, int pos) throws IOException {
         String refcolor = getBaseColor(refbase);
         String altcolor = getBaseColor(altbase);
         double ICref = this.splicesite.get(refbase, pos);
         double ICalt = this.splicesite.get(altbase, pos);
         double BOX_HEIGHT_UNIT = 10;
         double refBoxHeight = ICref * BOX_HEIGHT_UNIT;
-        String rect;
         if (ICref>0) {
-            rect = String.format("<rect x=\"%d\" y=\"%f\" width=\"%d\" height=\"%f\" " +
-                            "style=\"stroke:%s;stroke-width:1;fill:%s;fill-opacity:0.15\" />\n",
-                    x, y-refBoxHeight, ICBOX_WIDTH, refBoxHeight-1,  refcolor,refcolor);
+            writer.tag("rect").attribute("x", x).attribute("y", y-refBoxHeight)
+                    .attribute("width", ICBOX_WIDTH).attribute("height", refBoxHeight-1)
+                    .append(" style=\"stroke:");
         } else {
             refBoxHeight *= -1;
-            rect = String.format("<rect x=\"%d\" y=\"%f\" width=\"%d\" height=\"%f\"  " +
-                            "style=\"stroke:%s;stroke-width:1;fill:%s;fill-opacity:0.15\" />\n",
-                    x, y+1+Y_JUMP, ICBOX_WIDTH, refBoxHeight-1,  refcolor,refcolor);
+            writer.tag("rect").attribute("x", x).attribute("y", y+1+Y_JUMP)
+                    .attribute("width", ICBOX_WIDTH).attribute("height", refBoxHeight-1)
+                    .append("  style=\"stroke:");
         }
-        writer.write(rect);
+        writer.append(refcolor).append(";stroke-width:1;fill:").append(refcolor).append(";fill-opacity:0.15\" />\n");
         double altBoxHeight = ICalt * BOX_HEIGHT_UNIT;
         if (ICalt>0) {
-            rect = String.format("<rect x=\"%d\" y=\"%f\" width=\"%d\" height=\"%f\"  " +
-                            "style=\"fill:%s\"  />\n",
-                    x, y-altBoxHeight, ICBOX_WIDTH, altBoxHeight, altcolor);
+            writer.tag("rect").attribute("x", x).attribute("y", y-altBoxHeight)
+                    .attribute("width", ICBOX_WIDTH).attribute("height", altBoxHeight)
+                    .append("  style=\"fill:").append(altcolor).append("\"  />\n");
         } else {
             altBoxHeight *= -1;
-            rect = String.format("<rect x=\"%d\" y=\"%f\" width=\"%d\" height=\"%f\"  " +
-                            "style=\"fill:%s\" />\n",
-                    x, y+Y_JUMP, ICBOX_WIDTH, altBoxHeight, altcolor);
+            writer.tag("rect").attribute("x", x).attribute("y", y+Y_JUMP)
+                    .attribute("width", ICBOX_WIDTH).attribute("height", altBoxHeight)
+                    .append("  style=\"fill:").append(altcolor).append("\" />\n");
         }
-        writer.write(rect);
     }
 
 
-    private void writeIcBars(Writer writer, int y) throws IOException {
+    private void writeIcBars(SvgWriter writer, int y) throws IOException {
         int X = SVG_STARTX;
         for (int i=0; i<seqlen; i++) {
-            if (refidx[i] == this.altidx[i]) {
-                writeRefBaseBox(writer, X, y, refidx[i], i);
+            if (!variant.isVariant(i)) {
+                writeRefBaseBox(writer, X, y, variant.refBase(i), i);
             } else {
-                writeRefAltDuplexBox(writer, X, y, refidx[i], altidx[i], i);
+                writeRefAltDuplexBox(writer, X, y, variant.refBase(i), variant.altBase(i), i);
             }
             X += LOWER_CASE_BASE_INCREMENT;
         }
@@ -123,7 +124,7 @@ public class SvgIcBarchart implements SvgInitializer, SvgComponent {
 
 
     @Override
-    public void write(Writer writer, int starty) throws IOException {
+    public void write(SvgWriter writer, int starty) throws IOException {
         writeIcBars(writer, starty);
     }
 
@@ -0,0 +1,94 @@
+package org.monarchinitiative.vmvt.core.svg.icbar;
+
+import org.monarchinitiative.vmvt.core.EncodedVariant;
+import org.monarchinitiative.vmvt.core.pssm.DoubleMatrix;
+import org.monarchinitiative.vmvt.core.svg.SvgComponent;
+import org.monarchinitiative.vmvt.core.svg.SvgWriter;
+
+import java.io.IOException;
+
+import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Colors.*;
+import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Dimensions.*;
+
+/**
+ * Heatmap of the change in R_i of every single-nucleotide substitution of the reference sequence (saturation
+ * mutagenesis, see {@link DoubleMatrix#saturationMutagenesis(int[])}). The columns are aligned with the walker
+ * and the ruler, the rows are the bases A, C, G, T from top to bottom. Substitutions that reduce R_i are red, those
+ * that increase it blue, with an opacity that grows with the change up to {@link #SATURATION_BITS}. The cells of
+ * the reference bases are outlined in the color of the base, and the substitutions of the variant in black.
+ */
+public class SvgMutagenesisHeatmap implements SvgComponent {
+
+    /** Changes in R_i of at least this many bits are drawn with full opacity. */
+    public static final double SATURATION_BITS = 8.0;
+    private static final int CELL_WIDTH = LOWER_CASE_BASE_INCREMENT - 2;
+    private static final int ROW_HEIGHT = SVG_MUTAGENESIS_HEIGHT / 4;
+    private static final int CELL_HEIGHT = ROW_HEIGHT - 1;
+
+    private final EncodedVariant variant;
+    /** Change in R_i for each position and base. */
+    private final double[][] grid;
+
+    private SvgMutagenesisHeatmap(EncodedVariant variant, DoubleMatrix splicesite) {
+        this.variant = variant;
+        int[] ref = new int[variant.length()];
+        for (int i = 0; i < ref.length; i++) {
+            ref[i] = variant.refBase(i);
+        }
+        this.grid = splicesite.saturationMutagenesis(ref);
+    }
+
+    public static SvgMutagenesisHeatmap donor(String ref, String alt, DoubleMatrix donor) {
+        return donor(EncodedVariant.of(ref, alt), donor);
+    }
+
+    public static SvgMutagenesisHeatmap donor(EncodedVariant variant, DoubleMatrix donor) {
+        return new SvgMutagenesisHeatmap(variant, donor);
+    }
+
+    public static SvgMutagenesisHeatmap acceptor(String ref, String alt, DoubleMatrix acceptor) {
+        return acceptor(EncodedVariant.of(ref, alt), acceptor);
+    }
+
+    public static SvgMutagenesisHeatmap acceptor(EncodedVariant variant, DoubleMatrix acceptor) {
+        return new SvgMutagenesisHeatmap(variant, acceptor);
+    }
+
+    /** @return change in R_i for each position (first index) and base (second index, 0=A,1=C,2=G,3=T) */
+    public double[][] getGrid() {
+        return grid;
+    }
+
+    private void writeCell(SvgWriter writer, int x, int y, int pos, int base) throws IOException {
+        writer.tag("rect").attribute("x", x).attribute("y", y)
+                .attribute("width", CELL_WIDTH).attribute("height", CELL_HEIGHT);
+        if (base == variant.refBase(pos)) {
+            writer.append(" style=\"stroke:").append(getBaseColor(base)).append(";stroke-width:1;fill:none\" />\n");
+            return;
+        }
+        double delta = grid[pos][base];
+        double opacity = Math.min(1.0, Math.abs(delta) / SATURATION_BITS);
+        writer.append(" style=\"fill:").append(delta >= 0 ? RED : DARKBLUE)
+                .append(";fill-opacity:").number(opacity, 2);
+        if (variant.isVariant(pos) && base == variant.altBase(pos)) {
+            writer.append(";stroke:").append(BLACK).append(";stroke-width:1.5");
+        }
+        writer.append("\" />\n");
+    }
+
+    @Override
+    public void write(SvgWriter writer, int starty) throws IOException {
+        int X = SVG_STARTX;
+        for (int i = 0; i < grid.length; i++) {
+            for (int b = 0; b < 4; b++) {
+                writeCell(writer, X, starty + b * ROW_HEIGHT, i, b);
+            }
+            X += LOWER_CASE_BASE_INCREMENT;
+        }
+    }
+
+    @Override
+    public int height() {
+        return SVG_MUTAGENESIS_HEIGHT;
+    }
+}
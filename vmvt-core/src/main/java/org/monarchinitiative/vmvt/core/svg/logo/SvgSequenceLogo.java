@@ -1,23 +1,37 @@
 package org.monarchinitiative.vmvt.core.svg.logo;
 
 
+import org.monarchinitiative.vmvt.core.dist.MotifRegistry;
 import org.monarchinitiative.vmvt.core.pssm.DoubleMatrix;
 import org.monarchinitiative.vmvt.core.svg.SvgComponent;
 import org.monarchinitiative.vmvt.core.svg.SvgConstants;
+import org.monarchinitiative.vmvt.core.svg.SvgFragmentCache;
+import org.monarchinitiative.vmvt.core.svg.SvgWriter;
 
 import java.io.IOException;
-import java.io.Writer;
 import java.util.Map;
 import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Dimensions.*;
 /**
  * This class writes a sequence logo as an SVG element.
+ * <p>
+ * The logos of the shared donor and acceptor height matrices of the {@link MotifRegistry} do not depend on the
+ * variant, so {@link #donor(DoubleMatrix)} and {@link #acceptor(DoubleMatrix)} return shared instances for them
+ * that render the logo once per y position and then write the cached SVG fragment.
  * @author Peter N Robinson
  */
 public class SvgSequenceLogo implements SvgComponent {
+
+    private static final SvgSequenceLogo DONOR_LOGO =
+            new SvgSequenceLogo(MotifRegistry.heightMatrix(SvgConstants.MotifType.DONOR), SVG_DONOR_WIDTH, new SvgFragmentCache());
+    private static final SvgSequenceLogo ACCEPTOR_LOGO =
+            new SvgSequenceLogo(MotifRegistry.heightMatrix(SvgConstants.MotifType.ACCEPTOR), SVG_ACCEPTOR_WIDTH, new SvgFragmentCache());
+
     /** Position where we will start to write things from the left side of the SVG. */
     protected final int XSTART;
     /** Representation of the Splice donor/acceptor IC matrix. */
     protected final DoubleMatrix splicesite;
+    /** Rendered logos of the shared donor and acceptor matrices, null for other matrices. */
+    private final SvgFragmentCache cache;
 
     /**
      * Create an Svg Logo for the donor or acceptor with representation of reference sequence and alt bases
@@ -27,8 +41,13 @@ public class SvgSequenceLogo implements SvgComponent {
      * @param w width of the SVG canvas
      */
     public SvgSequenceLogo(DoubleMatrix site, int w) {
+        this(site, w, null);
+    }
+
+    private SvgSequenceLogo(DoubleMatrix site, int w, SvgFragmentCache cache) {
         splicesite = site;
         this.XSTART = SvgConstants.Dimensions.SVG_STARTX;
+        this.cache = cache;
     }
 
 
@@ -40,16 +59,15 @@ public class SvgSequenceLogo implements SvgComponent {
      * @param x x position
      * @param y y position
      */
-    protected void writeLogoBaseColumn(Writer writer, int x, int y, int pos) throws IOException {
+    protected void writeLogoBaseColumn(SvgWriter writer, int x, int y, int pos) throws IOException {
         Map<String, Double> sortedIcMap = this.splicesite.getIcValuesColumn(pos);
         double ypos = (double)y - SvgConstants.Fonts.LOGO_COLUMN_HEIGHT;
         for (Map.Entry<String, Double> entry : sortedIcMap.entrySet()) {
             String nt = entry.getKey();
             double ic = entry.getValue();
             String color = getBaseColorFromChar(nt);
-            writer.write(String.format("<g transform='translate(%d,%f) scale(1,%f)'>\n",x,ypos,ic)); //scale(1,%f)
-            writer.write(String.format("<text x=\"0\" y=\"0\" fill=\"%s\">%s</text>\n",color,nt));
-            writer.write("</g>");
+            writer.startGlyph(nt).translate(x, ypos).append(" scale(1,").number(ic).append(")");
+            writer.endGlyph(color, nt);
             // The total ic should be 2.0
             // increment the Y value back up
             ypos -= (ic/ SvgConstants.Fonts.VERTICAL_SCALING_FACTOR) * SvgConstants.Fonts.LOGO_COLUMN_HEIGHT;
@@ -63,7 +81,15 @@ public class SvgSequenceLogo implements SvgComponent {
      * @throws IOException if we cannot write the logo
      */
     @Override
-    public void write(Writer swriter, int starty) throws IOException {
+    public void write(SvgWriter swriter, int starty) throws IOException {
+        if (cache != null) {
+            cache.write(swriter, starty, this::writeLogo);
+        } else {
+            writeLogo(swriter, starty);
+        }
+    }
+
+    private void writeLogo(SvgWriter swriter, int starty) throws IOException {
         int X = this.XSTART;
         int seqlen = this.splicesite.getMotifLength();
         int ypos = starty + SvgConstants.Dimensions.SVG_LOGO_STARTY;
@@ -81,11 +107,19 @@ public class SvgSequenceLogo implements SvgComponent {
 
 
 
+    /**
+     * @param donorHeight height matrix of the donor
+     * @return the shared logo if donorHeight is the height matrix of the {@link MotifRegistry}, a new logo otherwise
+     */
     public static SvgSequenceLogo donor(DoubleMatrix donorHeight) {
-        return new SvgSequenceLogo(donorHeight, SVG_DONOR_WIDTH);
+        return donorHeight == DONOR_LOGO.splicesite ? DONOR_LOGO : new SvgSequenceLogo(donorHeight, SVG_DONOR_WIDTH);
     }
 
+    /**
+     * @param acceptorHeight height matrix of the acceptor
+     * @return the shared logo if acceptorHeight is the height matrix of the {@link MotifRegistry}, a new logo otherwise
+     */
     public static SvgSequenceLogo acceptor(DoubleMatrix acceptorHeight) {
-        return new SvgSequenceLogo(acceptorHeight, SVG_ACCEPTOR_WIDTH);
+        return acceptorHeight == ACCEPTOR_LOGO.splicesite ? ACCEPTOR_LOGO : new SvgSequenceLogo(acceptorHeight, SVG_ACCEPTOR_WIDTH);
     }
 }
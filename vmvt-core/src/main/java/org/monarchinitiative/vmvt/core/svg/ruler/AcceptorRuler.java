@@ -1,10 +1,12 @@
 package org.monarchinitiative.vmvt.core.svg.ruler;
 
+import org.monarchinitiative.vmvt.core.EncodedVariant;
 import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
 import org.monarchinitiative.vmvt.core.svg.SvgConstants;
+import org.monarchinitiative.vmvt.core.svg.SvgFragmentCache;
+import org.monarchinitiative.vmvt.core.svg.SvgWriter;
 
 import java.io.IOException;
-import java.io.Writer;
 
 import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Colors.RED;
 import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Dimensions.*;
@@ -17,6 +19,9 @@ import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Sequence.DONOR_NT
  */
 public class AcceptorRuler extends SvgSequenceRuler {
 
+    /** Position ruler for offset zero, see {@link #positionRulerCache()}. */
+    private static final SvgFragmentCache POSITION_RULER = new SvgFragmentCache();
+
     /**
      * This constructor should be used to show a sequence ruler for a canonical acceptor splice site, i.e., with
      * offset zero
@@ -35,7 +40,15 @@ public class AcceptorRuler extends SvgSequenceRuler {
      * @param offset offset of this (cryptic) site site to the corresponding canonical splice site
      */
     public AcceptorRuler(String ref, String alt, int offset) {
-        super(ref, alt, offset);
+        this(EncodedVariant.of(ref, alt), offset);
+    }
+
+    /**
+     * @param variant encoded reference and alternate sequence of a splice site
+     * @param offset offset of this (cryptic) site site to the corresponding canonical splice site
+     */
+    public AcceptorRuler(EncodedVariant variant, int offset) {
+        super(variant, offset);
         if (this.seqlen != ACCEPTOR_NT_LENGTH) {
             throw new VmvtRuntimeException(String.format("Sequence length must be %d for acceptor but was %d",
                     ACCEPTOR_NT_LENGTH, this.seqlen));
@@ -43,7 +56,12 @@ public class AcceptorRuler extends SvgSequenceRuler {
     }
 
     @Override
-    void writePositionRuler(Writer writer, int starty) throws IOException {
+    SvgFragmentCache positionRulerCache() {
+        return POSITION_RULER;
+    }
+
+    @Override
+    void writePositionRuler(SvgWriter writer, int starty) throws IOException {
         int xpos = SVG_STARTX;
         final int X_NUDGE = 2;
         for (int i = 0; i < seqlen; i++) {
@@ -51,10 +69,10 @@ public class AcceptorRuler extends SvgSequenceRuler {
             j = j <= 0 ? j - 1 : j; // we do not have a zeroth position in this display!
             if (j == 1) xpos += X_NUDGE;
             if (j == -25 || j == -20 || j == -15 || j > -10) {
-                writer.write(String.format("<g transform='translate(%d,%d) scale(0.4,0.4)'>\n", xpos, starty));
-                writer.write(String.format("<text x=\"0\" y=\"0\" fill=\"black\">%d</text>\n", j));
+                writer.append("<g transform='").translate(xpos, starty).append(" scale(0.4,0.4)'>\n");
+                writer.append("<text x=\"0\" y=\"0\" fill=\"black\">").number(j).append("</text>\n");
             } else {
-                writer.write(String.format("<g transform='translate(%d,%d) scale(0.4,0.4)'>\n", xpos + X_NUDGE, starty));
+                writer.append("<g transform='").translate(xpos + X_NUDGE, starty).append(" scale(0.4,0.4)'>\n");
                 writer.write("<text x=\"0\" y=\"0\" fill=\"black\">.</text>\n");
             }
             writer.write("</g>");
@@ -64,11 +82,11 @@ public class AcceptorRuler extends SvgSequenceRuler {
         xpos = SVG_STARTX + 25 * LOWER_CASE_BASE_INCREMENT;
         int Y1 = starty - 8;
         int Y2 = starty + 4;
-        writer.write(String.format("<line x1=\"%s\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"%s\"/>\n", xpos, Y1, xpos, Y2, RED));
+        writer.line(xpos, Y1, xpos, Y2, RED);
     }
 
     @Override
-    void writeOffsetPositionRuler(Writer writer, int starty) throws IOException {
+    void writeOffsetPositionRuler(SvgWriter writer, int starty) throws IOException {
         int xpos = SVG_STARTX;
         final int X_NUDGE = 2;
         for (int i = 0; i < seqlen; i++) {
@@ -76,12 +94,12 @@ public class AcceptorRuler extends SvgSequenceRuler {
             j = j<=0 ? j-1 : j; // we do not have a zeroth position in this display!
             if (j==1) xpos += X_NUDGE;
             if (i%5 == 0) {
-                writer.write(String.format("<g transform='translate(%d,%d) scale(0.4,0.4)'>\n", xpos, starty));
-                writer.write(String.format("<text x=\"0\" y=\"0\" fill=\"black\">%d</text>\n", j));
+                writer.append("<g transform='").translate(xpos, starty).append(" scale(0.4,0.4)'>\n");
+                writer.append("<text x=\"0\" y=\"0\" fill=\"black\">").number(j).append("</text>\n");
                 writer.write("</g>");
             }
             int ypos = starty + 4;
-            writer.write(String.format("<g transform='translate(%d,%d) scale(0.4,0.4)'>\n", xpos + X_NUDGE, ypos));
+            writer.append("<g transform='").translate(xpos + X_NUDGE, ypos).append(" scale(0.4,0.4)'>\n");
             writer.write("<text x=\"0\" y=\"0\" fill=\"black\">.</text>\n");
             writer.write("</g>");
             xpos += LOWER_CASE_BASE_INCREMENT;
@@ -90,7 +108,7 @@ public class AcceptorRuler extends SvgSequenceRuler {
         xpos = SVG_STARTX + 25 * LOWER_CASE_BASE_INCREMENT;
         int Y1 = starty - 8;
         int Y2 = starty + 4;
-        writer.write(String.format("<line x1=\"%s\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"%s\"/>\n", xpos, Y1, xpos, Y2, RED));
+        writer.line(xpos, Y1, xpos, Y2, RED);
     }
 
 }
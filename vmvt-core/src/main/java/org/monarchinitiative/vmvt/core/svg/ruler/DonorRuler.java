@@ -1,10 +1,12 @@
 package org.monarchinitiative.vmvt.core.svg.ruler;
 
+import org.monarchinitiative.vmvt.core.EncodedVariant;
 import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
 import org.monarchinitiative.vmvt.core.svg.SvgConstants;
+import org.monarchinitiative.vmvt.core.svg.SvgFragmentCache;
+import org.monarchinitiative.vmvt.core.svg.SvgWriter;
 
 import java.io.IOException;
-import java.io.Writer;
 
 import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Colors.RED;
 import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Dimensions.*;
@@ -16,6 +18,9 @@ import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Sequence.DONOR_NT
  */
 public class DonorRuler  extends SvgSequenceRuler {
 
+    /** Position ruler for offset zero, see {@link #positionRulerCache()}. */
+    private static final SvgFragmentCache POSITION_RULER = new SvgFragmentCache();
+
     /**
      * This constructor should be used to show a sequence ruler for a canonical donor splice site, i.e., with
      * offset zero
@@ -34,7 +39,15 @@ public class DonorRuler  extends SvgSequenceRuler {
      * @param offset offset of this (cryptic) site site to the corresponding canonical splice site
      */
     public DonorRuler(String ref, String alt, int offset) {
-        super(ref, alt, offset);
+        this(EncodedVariant.of(ref, alt), offset);
+    }
+
+    /**
+     * @param variant encoded reference and alternate sequence of a splice site
+     * @param offset offset of this (cryptic) site site to the corresponding canonical splice site
+     */
+    public DonorRuler(EncodedVariant variant, int offset) {
+        super(variant, offset);
         if (this.seqlen != DONOR_NT_LENGTH) {
             throw new VmvtRuntimeException(String.format("Sequence length must be %d for donor but was %d",
                     DONOR_NT_LENGTH, this.seqlen));
@@ -44,15 +57,20 @@ public class DonorRuler  extends SvgSequenceRuler {
 
 
     @Override
-    void writePositionRuler(Writer writer, int starty) throws IOException {
+    SvgFragmentCache positionRulerCache() {
+        return POSITION_RULER;
+    }
+
+    @Override
+    void writePositionRuler(SvgWriter writer, int starty) throws IOException {
         int xpos = SVG_STARTX;
         final int X_NUDGE = 2;
         for (int i=0; i<seqlen; i++) {
             int j = i-2; // substract 3 for the 3 intronic positions
             j = j<=0 ? j-1 : j; // we do not have a zeroth position in this display!
             if (j==1) xpos += X_NUDGE;
-            writer.write(String.format("<g transform='translate(%d,%d) scale(0.4,0.4) '>\n",xpos, starty));
-            writer.write(String.format("<text x=\"0\" y=\"0\" fill=\"black\">%d</text>\n",j));
+            writer.append("<g transform='").translate(xpos, starty).append(" scale(0.4,0.4) '>\n");
+            writer.append("<text x=\"0\" y=\"0\" fill=\"black\">").number(j).append("</text>\n");
             writer.write("</g>\n");
             xpos += LOWER_CASE_BASE_INCREMENT;
         }
@@ -60,11 +78,11 @@ public class DonorRuler  extends SvgSequenceRuler {
         xpos = SVG_STARTX + 3*LOWER_CASE_BASE_INCREMENT;
         int Y1 = starty - 8;
         int Y2 = starty + 4;
-        writer.write(String.format("<line x1=\"%s\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"%s\"/>\n",xpos,Y1,xpos,Y2, RED));
+        writer.line(xpos, Y1, xpos, Y2, RED);
     }
 
     @Override
-    void writeOffsetPositionRuler(Writer writer, int starty) throws IOException{
+    void writeOffsetPositionRuler(SvgWriter writer, int starty) throws IOException{
         int xpos = SVG_STARTX;
         final int X_NUDGE = 2;
         for (int i=0; i<seqlen; i++) {
@@ -72,12 +90,12 @@ public class DonorRuler  extends SvgSequenceRuler {
             j = j<=0 ? j-1 : j; // we do not have a zeroth position in this display!
             if (j==1) xpos += X_NUDGE;
             if (i==0 || i==3 || i== 8) {
-                writer.write(String.format("<g transform='translate(%d,%d) scale(0.4,0.4) '>\n", xpos, starty));
-                writer.write(String.format("<text x=\"0\" y=\"0\" fill=\"black\">%d</text>\n", j));
+                writer.append("<g transform='").translate(xpos, starty).append(" scale(0.4,0.4) '>\n");
+                writer.append("<text x=\"0\" y=\"0\" fill=\"black\">").number(j).append("</text>\n");
                 writer.write("</g>\n");
             }
             int ypos = starty + 4;
-            writer.write(String.format("<g transform='translate(%d,%d) scale(0.4,0.4) '>\n", xpos, ypos));
+            writer.append("<g transform='").translate(xpos, ypos).append(" scale(0.4,0.4) '>\n");
             writer.write("<text x=\"0\" y=\"0\" fill=\"black\">.</text>\n");
             writer.write("</g>\n");
             xpos += LOWER_CASE_BASE_INCREMENT;
@@ -86,7 +104,7 @@ public class DonorRuler  extends SvgSequenceRuler {
         xpos = SVG_STARTX + 3*LOWER_CASE_BASE_INCREMENT;
         int Y1 = starty - 8;
         int Y2 = starty + 4;
-        writer.write(String.format("<line x1=\"%s\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"%s\"/>\n",xpos,Y1,xpos,Y2, RED));
+        writer.line(xpos, Y1, xpos, Y2, RED);
     }
 
 
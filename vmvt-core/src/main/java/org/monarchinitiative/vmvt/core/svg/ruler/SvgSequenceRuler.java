@@ -1,23 +1,30 @@
 package org.monarchinitiative.vmvt.core.svg.ruler;
 
+import org.monarchinitiative.vmvt.core.EncodedVariant;
 import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
 import org.monarchinitiative.vmvt.core.svg.SvgConstants;
-import org.monarchinitiative.vmvt.core.svg.SvgInitializer;
 import org.monarchinitiative.vmvt.core.svg.SvgComponent;
+import org.monarchinitiative.vmvt.core.svg.SvgFragmentCache;
+import org.monarchinitiative.vmvt.core.svg.SvgFragmentTable;
+import org.monarchinitiative.vmvt.core.svg.SvgWriter;
 
 import java.io.IOException;
-import java.io.Writer;
 
 import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Dimensions.*;
+import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Sequence.ACCEPTOR_NT_LENGTH;
 import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Sequence.DONOR_NT_LENGTH;
 
-public abstract class SvgSequenceRuler implements SvgComponent, SvgInitializer {
+public abstract class SvgSequenceRuler implements SvgComponent {
+
+    /**
+     * The letters of the reference and alternate sequence only depend on the position and the base, so they are
+     * rendered once for all rulers (donor rulers use the first positions of the acceptor length).
+     */
+    private static final SvgFragmentTable BASES = new SvgFragmentTable(ACCEPTOR_NT_LENGTH);
 
     protected final int seqlen;
-    /** A coding of the String representing the reference sequence using A=0,C=1,G=2,T=3. */
-    private final int [] refidx;
-    /** A coding of the String representing the alternate sequence using A=0,C=1,G=2,T=3. */
-    private final int [] altidx;
+    /** The encoded reference and alternate sequences. */
+    private final EncodedVariant variant;
     /** This is used for cryptic splice sites. An offset of -2 incidates, for instance, that the
      * cryptic splice site in shifted by 2 nucleotides in 5' direction. For the canonical splice site,
      * the offset is zero.
@@ -32,40 +39,56 @@ public abstract class SvgSequenceRuler implements SvgComponent, SvgInitializer {
      * @param offset offset of this (cryptic) site site to the corresponding canonical splice site
      */
     public SvgSequenceRuler(String ref, String alt, int offset) {
-        this.seqlen = sequenceLength(ref, alt);
-        this.refidx = sequenceIndex(ref);
-        this.altidx = sequenceIndex(alt);
+        this(EncodedVariant.of(ref, alt), offset);
+    }
+
+    /**
+     * @param variant encoded reference and alternate sequence of a splice site
+     * @param offset offset of this (cryptic) site site to the corresponding canonical splice site
+     */
+    public SvgSequenceRuler(EncodedVariant variant, int offset) {
+        this.seqlen = variant.length();
+        this.variant = variant;
         this.offset = offset;
     }
 
-    abstract void writePositionRuler(Writer writer, int starty) throws IOException;
-    abstract void writeOffsetPositionRuler(Writer writer, int startY) throws IOException;
+    abstract void writePositionRuler(SvgWriter writer, int starty) throws IOException;
+    /**
+     * The position ruler of canonical splice sites (offset zero) is the same for all variants and is therefore
+     * written from a cache that is shared by all rulers of the same kind.
+     * @return cache for the output of {@link #writePositionRuler(SvgWriter, int)}
+     */
+    abstract SvgFragmentCache positionRulerCache();
+    abstract void writeOffsetPositionRuler(SvgWriter writer, int startY) throws IOException;
 
-    protected void writeRefPlain(Writer writer, int ypos) throws IOException {
-        int X = SVG_STARTX;
+    private SvgFragmentTable.Fragments plainBases(SvgWriter writer, int ypos) {
+        return BASES.fragments(writer, ypos,
+                (w, pos, base, y) -> writePlainBase(w, SVG_STARTX + pos * LOWER_CASE_BASE_INCREMENT, y, base));
+    }
+
+    protected void writeRefPlain(SvgWriter writer, int ypos) throws IOException {
+        SvgFragmentTable.Fragments bases = plainBases(writer, ypos);
         for (int i=0; i<seqlen; i++) {
-            writePlainBase(writer, X, ypos, refidx[i]);
-            X += LOWER_CASE_BASE_INCREMENT;
+            bases.write(writer, i, variant.refBase(i));
         }
     }
 
-    protected void writeAltPlain(Writer writer, int ypos) throws IOException {
-        int X = SVG_STARTX;
+    protected void writeAltPlain(SvgWriter writer, int ypos) throws IOException {
+        SvgFragmentTable.Fragments bases = plainBases(writer, ypos);
         for (int i=0; i<seqlen; i++) {
-            if (refidx[i] != altidx[i]) {
-                writePlainBase(writer, X, ypos, altidx[i]);
+            if (variant.isVariant(i)) {
+                bases.write(writer, i, variant.altBase(i));
             }
-            X += LOWER_CASE_BASE_INCREMENT;
         }
     }
 
 
-    protected void writeBoxAroundMutation(Writer writer, int ypos) throws IOException {
+    protected void writeBoxAroundMutation(SvgWriter writer, int ypos) throws IOException {
         // get location of first and last index with mutated bases
         int b = Integer.MAX_VALUE;
         int e = Integer.MIN_VALUE;
-        for (int i=0; i<refidx.length; i++) {
-            if (refidx[i] != altidx[i]) {
+        for (int i=0; i<seqlen; i++) {
+            if (variant.isVariant(i)) {
                 if (i<b) b = i;
                 if (i>e) e = i;
             }
@@ -74,21 +97,18 @@ public abstract class SvgSequenceRuler implements SvgComponent, SvgInitializer {
         int Y = (int)(ypos - 1.6*LETTER_BASE_HEIGHT);
         int boxwidth = LOWER_CASE_BASE_INCREMENT;
         int boxheight = (int)(LETTER_BASE_HEIGHT*4.1);
-        writer.write(String.format("<rect x=\"%f\" y=\"%d\" width=\"%d\" height=\"%d\" rx=\"2\" fill-opacity=\"0.1\"" +
-                        " style=\"stroke-width:1; stroke:rgb(4, 12, 4);\"/>",
-                X,
-                Y,
-                boxwidth,
-                boxheight));
+        writer.tag("rect").attribute("x", X).attribute("y", Y)
+                .attribute("width", boxwidth).attribute("height", boxheight)
+                .append(" rx=\"2\" fill-opacity=\"0.1\" style=\"stroke-width:1; stroke:rgb(4, 12, 4);\"/>");
 
     }
 
 
     @Override
-    public void write(Writer writer, int starty) throws IOException {
+    public void write(SvgWriter writer, int starty) throws IOException {
         int ypos = starty;
         if (this.offset == 0) {
-            writePositionRuler(writer, ypos + 10);
+            positionRulerCache().write(writer, ypos + 10, this::writePositionRuler);
         } else {
             writeOffsetPositionRuler(writer, starty + 10);
         }
@@ -109,15 +129,31 @@ public abstract class SvgSequenceRuler implements SvgComponent, SvgInitializer {
         return new DonorRuler(ref, alt);
     }
 
+    public static SvgSequenceRuler donor(EncodedVariant variant) {
+        return new DonorRuler(variant, 0);
+    }
+
     public static SvgSequenceRuler donorWithOffset(String ref, String alt, int offset) {
         return new DonorRuler(ref, alt, offset);
     }
 
+    public static SvgSequenceRuler donorWithOffset(EncodedVariant variant, int offset) {
+        return new DonorRuler(variant, offset);
+    }
+
     public static SvgSequenceRuler acceptor(String ref, String alt) {
         return new AcceptorRuler(ref, alt);
     }
 
+    public static SvgSequenceRuler acceptor(EncodedVariant variant) {
+        return new AcceptorRuler(variant, 0);
+    }
+
     public static SvgSequenceRuler acceptorWithOffset(String ref, String alt, int offset) {
         return new AcceptorRuler(ref, alt, offset);
     }
+
+    public static SvgSequenceRuler acceptorWithOffset(EncodedVariant variant, int offset) {
+        return new AcceptorRuler(variant, offset);
+    }
 }
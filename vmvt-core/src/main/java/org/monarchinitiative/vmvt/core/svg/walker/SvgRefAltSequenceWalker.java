@@ -1,14 +1,18 @@
 package org.monarchinitiative.vmvt.core.svg.walker;
 
-import org.monarchinitiative.vmvt.core.svg.SvgInitializer;
+import org.monarchinitiative.vmvt.core.EncodedVariant;
+import org.monarchinitiative.vmvt.core.dist.MotifRegistry;
 import org.monarchinitiative.vmvt.core.pssm.DoubleMatrix;
 import org.monarchinitiative.vmvt.core.svg.SvgComponent;
 import org.monarchinitiative.vmvt.core.svg.SvgConstants;
+import org.monarchinitiative.vmvt.core.svg.SvgFragmentTable;
+import org.monarchinitiative.vmvt.core.svg.SvgWriter;
 
 import java.io.IOException;
-import java.io.Writer;
 
 import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Dimensions.*;
+import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Sequence.ACCEPTOR_NT_LENGTH;
+import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Sequence.DONOR_NT_LENGTH;
 
 
 /**
@@ -17,23 +21,29 @@ import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Dimensions.*;
  * overlaps the refernece and alternate sequences, showing divergent bases in a grey box.
  * See also {@link SvgSingleSequenceWalker} for an implementation that is similar to the
  * original walkers.
+ * <p>
+ * The letters of walkers of the shared donor and acceptor matrices of the {@link MotifRegistry} only depend on the
+ * position and the base, so they are rendered once into tables that are shared by all walkers of these matrices,
+ * and a walker is written by concatenating the letters of its bases.
  * @author Peter N Robinson
  */
-public class SvgRefAltSequenceWalker implements SvgComponent, SvgInitializer {
+public class SvgRefAltSequenceWalker implements SvgComponent {
+
+    private static final SvgFragmentTable DONOR_REF_BASES = new SvgFragmentTable(DONOR_NT_LENGTH);
+    private static final SvgFragmentTable DONOR_ALT_BASES = new SvgFragmentTable(DONOR_NT_LENGTH);
+    private static final SvgFragmentTable ACCEPTOR_REF_BASES = new SvgFragmentTable(ACCEPTOR_NT_LENGTH);
+    private static final SvgFragmentTable ACCEPTOR_ALT_BASES = new SvgFragmentTable(ACCEPTOR_NT_LENGTH);
 
     /** Position where we will start to write things from the left side of the SVG. */
     protected final int XSTART = SVG_STARTX;
-    /** Maximum information content height of any base of the sequences. */
-    private double maxIc = Double.MIN_VALUE;
 
-    private final String reference;
-    private final String alternate;
+    /** The encoded reference and alternate sequences. */
+    private final EncodedVariant variant;
     private final DoubleMatrix splicesite;
-    /** A coding of the String representing the reference sequence {@link #reference} using A=0,C=1,G=2,T=3. */
-    private final int [] refidx;
-    /** A coding of the String representing the alternate sequence {@link #alternate} using A=0,C=1,G=2,T=3. */
-    private final int [] altidx;
     private final int seqlen;
+    /** Rendered reference and alternate letters of the shared registry matrices, null for other matrices. */
+    private final SvgFragmentTable refBases;
+    private final SvgFragmentTable altBases;
 
     private final int width;
 
@@ -48,14 +58,31 @@ public class SvgRefAltSequenceWalker implements SvgComponent, SvgInitializer {
      * @param w width of the SVG canvas
      */
     public SvgRefAltSequenceWalker(String ref, String alt, DoubleMatrix site, int w) {
+        this(EncodedVariant.of(ref, alt), site, w);
+    }
+
+    /**
+     * Create an Svg Walker for the donor or acceptor from an encoded variant.
+     * @param variant encoded reference and alternate sequence
+     * @param site Representation of the splice site (weight matrix)
+     * @param w width of the SVG canvas
+     */
+    public SvgRefAltSequenceWalker(EncodedVariant variant, DoubleMatrix site, int w) {
         this.width = w;
         this.splicesite = site;
-        this.refidx = sequenceIndex(ref);
-        this.altidx = sequenceIndex(alt);
-        this.seqlen = sequenceLength(ref, alt);
-        this.reference = ref;
-        this.alternate = alt;
+        this.variant = variant;
+        this.seqlen = variant.length();
         this.componentHeight = SvgConstants.Dimensions.SVG_WALKER_HEIGHT;
+        if (site == MotifRegistry.icMatrix(SvgConstants.MotifType.DONOR) && seqlen == DONOR_NT_LENGTH) {
+            this.refBases = DONOR_REF_BASES;
+            this.altBases = DONOR_ALT_BASES;
+        } else if (site == MotifRegistry.icMatrix(SvgConstants.MotifType.ACCEPTOR) && seqlen == ACCEPTOR_NT_LENGTH) {
+            this.refBases = ACCEPTOR_REF_BASES;
+            this.altBases = ACCEPTOR_ALT_BASES;
+        } else {
+            this.refBases = null;
+            this.altBases = null;
+        }
     }
 
     /**
@@ -65,20 +92,18 @@ public class SvgRefAltSequenceWalker implements SvgComponent, SvgInitializer {
      * @param y y position
      * @param base index of the base
      */
-    protected void writeWalkerBase(Writer writer, int x, int y, int base, int pos) throws IOException {
+    protected void writeWalkerBase(SvgWriter writer, int x, int y, int base, int pos) throws IOException {
         String color = getBaseColor(base);
         String nt = getBaseCharLC(base);
         double IC = this.splicesite.get(base, pos);
         if (IC>0) {
-            writer.write(String.format("<g transform='translate(%d,%d) scale(1,%f)'>\n",x,y,IC)); //scale(1,%f)
-            writer.write(String.format("<text x=\"0\" y=\"0\" fill=\"%s\">%s</text>\n",color,nt));
-            writer.write("</g>");
+            writer.startGlyph(nt).translate(x, y).append(" scale(1,").number(IC).append(")");
+            writer.endGlyph(color, nt);
         } else {
             double xpos = (double)x + (double)  LOWER_CASE_BASE_INCREMENT;
             int ypos = y+1;
-            writer.write(String.format("<g transform='translate(%f,%d)  scale(1,%f)  rotate(180)'>\n",xpos,ypos, Math.abs(IC))); //
-            writer.write(String.format("<text x=\"0\" y=\"0\" fill=\"%s\">%s</text>\n",color,nt));
-            writer.write("</g>\n");
+            writer.startGlyph(nt).translate(xpos, ypos).append("  scale(1,").number(Math.abs(IC)).append(")  rotate(180)");
+            writer.endGlyph(color, nt).append('\n');
         }
     }
 
@@ -90,49 +115,62 @@ public class SvgRefAltSequenceWalker implements SvgComponent, SvgInitializer {
      * @param y y position
      * @param base index of the base
      */
-    protected void writeWalkerAltBase(Writer writer, int x, int y, int base, int pos) throws IOException {
+    protected void writeWalkerAltBase(SvgWriter writer, int x, int y, int base, int pos) throws IOException {
         String color = getBaseColor(base);
         String nt = getBaseCharLC(base);
         double IC = this.splicesite.get(base, pos);
-        if (Math.abs(IC) > maxIc) {
-            maxIc = Math.abs(IC); // keep track of largest IC in order to calculate height of grey box
-        }
-
         if (IC>0) {
-            writer.write(String.format("<g transform='translate(%d,%d) scale(1,%f)'>\n",x,y,IC)); //scale(1,%f)
-            writer.write(String.format("<text x=\"0\" y=\"0\" fill=\"%s\">%s</text>\n",color,nt));
-            writer.write("</g>");
+            writer.startGlyph(nt).translate(x, y).append(" scale(1,").number(IC).append(")");
+            writer.endGlyph(color, nt);
         } else {
             double xpos = (double)x + (double)LOWER_CASE_BASE_INCREMENT;
             int ypos = y+1;
-            writer.write(String.format("<g transform='translate(%f,%d)  scale(1,%f)  rotate(180)'>\n",xpos,ypos, Math.abs(IC))); //
-            writer.write(String.format("<text x=\"0\" y=\"0\" fill=\"%s\" opacity=\"0.8\" style=\"text-shadow: 1px 1px #000000;\">%s</text>\n",color,nt));
-            writer.write("</g>\n");
+            writer.startGlyph(nt).translate(xpos, ypos).append("  scale(1,").number(Math.abs(IC)).append(")  rotate(180)");
+            writer.endGlyph(color, nt, " opacity=\"0.8\" style=\"text-shadow: 1px 1px #000000;\"").append('\n');
         }
     }
 
-    protected void writeRefWalker(Writer writer, int ypos) throws IOException {
+    protected void writeRefWalker(SvgWriter writer, int ypos) throws IOException {
+        if (refBases != null) {
+            SvgFragmentTable.Fragments bases = refBases.fragments(writer, ypos,
+                    (w, pos, base, y) -> writeWalkerBase(w, SVG_STARTX + pos * LOWER_CASE_BASE_INCREMENT, y, base, pos));
+            for (int i=0; i<seqlen; i++) {
+                bases.write(writer, i, variant.refBase(i));
+            }
+            return;
+        }
         int X = SVG_STARTX;
         for (int i=0; i<seqlen; i++) {
-            writeWalkerBase(writer, X, ypos, refidx[i], i);
+            writeWalkerBase(writer, X, ypos, variant.refBase(i), i);
             X += LOWER_CASE_BASE_INCREMENT;
         }
     }
 
-    protected void writeAltWalker(Writer writer, int ypos) throws IOException {
+    protected void writeAltWalker(SvgWriter writer, int ypos) throws IOException {
+        if (altBases != null) {
+            SvgFragmentTable.Fragments bases = altBases.fragments(writer, ypos,
+                    (w, pos, base, y) -> writeWalkerAltBase(w, SVG_STARTX + pos * LOWER_CASE_BASE_INCREMENT, y, base, pos));
+            for (int i=0; i<seqlen; i++) {
+                if (variant.isVariant(i)) {
+                    bases.write(writer, i, variant.altBase(i));
+                }
+            }
+            return;
+        }
         int X = SVG_STARTX;
         for (int i=0; i<seqlen; i++) {
-            if (refidx[i] != altidx[i]) {
-                writeWalkerAltBase(writer, X, ypos, altidx[i], i);
+            if (variant.isVariant(i)) {
+                writeWalkerAltBase(writer, X, ypos, variant.altBase(i), i);
             }
             X += LOWER_CASE_BASE_INCREMENT;
         }
     }
 
-    protected void writeRefAltSeparation(Writer writer, int startY) throws IOException {
+    protected void writeRefAltSeparation(SvgWriter writer, int startY) throws IOException {
         int endX = (1+this.seqlen) * LOWER_CASE_BASE_INCREMENT;
         writer.write("<g fill=\"none\" stroke=\"black\" stroke-width=\"1\">\n");
-        writer.write(String.format("<path stroke-dasharray=\"2,2\" d=\"M%d %d L%d %d\"/>\n", XSTART, startY, endX, startY));
+        writer.append("<path stroke-dasharray=\"2,2\" d=\"M").number(XSTART).append(' ').number(startY)
+                .append(" L").number(endX).append(' ').number(startY).append("\"/>\n");
         writer.write("</g>\n");
     }
 
@@ -143,27 +181,27 @@ public class SvgRefAltSequenceWalker implements SvgComponent, SvgInitializer {
      * @param writer handle
      * @throws IOException if we cannot write the Box
      */
-    private void writeBoxAroundMutation(Writer writer, int ypos) throws IOException {
+    private void writeBoxAroundMutation(SvgWriter writer, int ypos) throws IOException {
         // get location of first and last index with mutated bases
         int b = Integer.MAX_VALUE;
         int e = Integer.MIN_VALUE;
         double maxPosIc = Double.MIN_VALUE;
         double minPosIc = Double.MAX_VALUE;
         double maxIc = Double.MIN_VALUE;
-        for (int i=0; i<refidx.length; i++) {
-            if (refidx[i] != altidx[i]) {
+        for (int i=0; i<seqlen; i++) {
+            if (variant.isVariant(i)) {
                 if (i<b) b = i;
                 if (i>e) e = i;
-                double refIc =  Math.abs(this.splicesite.get(refidx[i] , i));
-                double altIc = Math.abs(this.splicesite.get(altidx[i] , i));
+                double refIc =  Math.abs(this.splicesite.get(variant.refBase(i) , i));
+                double altIc = Math.abs(this.splicesite.get(variant.altBase(i) , i));
                 maxIc = Math.max(maxIc, Math.max(refIc, altIc));
-                refIc =  this.splicesite.get(refidx[i] , i);
+                refIc =  this.splicesite.get(variant.refBase(i) , i);
                 if (refIc > 0 && refIc > maxPosIc) {
                     maxPosIc = refIc;
                 } else if (refIc < 0 && refIc < minPosIc) {
                     minPosIc = refIc;
                 }
-                altIc = this.splicesite.get(altidx[i] , i);
+                altIc = this.splicesite.get(variant.altBase(i) , i);
                 if (altIc > 0 && altIc > maxPosIc) {
                     maxPosIc = altIc;
                 } else if (altIc < 0 && altIc < minPosIc) {
@@ -178,16 +216,13 @@ public class SvgRefAltSequenceWalker implements SvgComponent, SvgInitializer {
         int boxwidth = LOWER_CASE_BASE_INCREMENT * (1+e-b);
         int boxheight =   (int)(SCALING_FACTOR*icRange);
 
-        writer.write(String.format("<rect x=\"%f\" y=\"%d\" width=\"%d\" height=\"%d\" rx=\"2\" fill-opacity=\"0.1\"" +
-                        " style=\"stroke-width:1; stroke:rgb(4, 12, 4);\"/>",
-                X,
-                boxStartY,
-                boxwidth,
-                boxheight));
+        writer.tag("rect").attribute("x", X).attribute("y", boxStartY)
+                .attribute("width", boxwidth).attribute("height", boxheight)
+                .append(" rx=\"2\" fill-opacity=\"0.1\" style=\"stroke-width:1; stroke:rgb(4, 12, 4);\"/>");
     }
 
     @Override
-    public void write(Writer writer, int ypos) throws IOException {
+    public void write(SvgWriter writer, int ypos) throws IOException {
         ypos += 35;
         writeAltWalker(writer, ypos);
         writeRefWalker(writer, ypos);
@@ -198,7 +233,7 @@ public class SvgRefAltSequenceWalker implements SvgComponent, SvgInitializer {
 
 
     public static SvgRefAltSequenceWalker singleDonorWalker(String sequence) {
-        return SvgRefAltSequenceWalker.singleDonorWalker(sequence, DoubleMatrix.donor());
+        return SvgRefAltSequenceWalker.singleDonorWalker(sequence, MotifRegistry.icMatrix(SvgConstants.MotifType.DONOR));
     }
 
     public static SvgRefAltSequenceWalker singleDonorWalker(String sequence, DoubleMatrix donor) {
@@ -209,18 +244,26 @@ public class SvgRefAltSequenceWalker implements SvgComponent, SvgInitializer {
         return new SvgRefAltSequenceWalker(reference, alternate, donor, SVG_DONOR_WIDTH);
     }
 
+    public static SvgRefAltSequenceWalker donorWalker(EncodedVariant variant, DoubleMatrix donor) {
+        return new SvgRefAltSequenceWalker(variant, donor, SVG_DONOR_WIDTH);
+    }
+
 
     public static SvgRefAltSequenceWalker acceptorWalker(String reference, String alternate) {
-        return new SvgRefAltSequenceWalker(reference, alternate, DoubleMatrix.acceptor(), SVG_ACCEPTOR_WIDTH);
+        return new SvgRefAltSequenceWalker(reference, alternate, MotifRegistry.icMatrix(SvgConstants.MotifType.ACCEPTOR), SVG_ACCEPTOR_WIDTH);
     }
 
     public static SvgRefAltSequenceWalker acceptorWalker(String reference, String alternate, DoubleMatrix acceptor) {
         return new SvgRefAltSequenceWalker(reference, alternate, acceptor, SVG_ACCEPTOR_WIDTH);
     }
 
+    public static SvgRefAltSequenceWalker acceptorWalker(EncodedVariant variant, DoubleMatrix acceptor) {
+        return new SvgRefAltSequenceWalker(variant, acceptor, SVG_ACCEPTOR_WIDTH);
+    }
+
 
     public static SvgRefAltSequenceWalker singleAcceptorWalker(String sequence) {
-       return singleAcceptorWalker(sequence, DoubleMatrix.acceptor());
+       return singleAcceptorWalker(sequence, MotifRegistry.icMatrix(SvgConstants.MotifType.ACCEPTOR));
     }
 
     public static SvgRefAltSequenceWalker singleAcceptorWalker(String sequence, DoubleMatrix acceptor) {
@@ -1,12 +1,13 @@
 package org.monarchinitiative.vmvt.core.svg.walker;
 
+import org.monarchinitiative.vmvt.core.dist.MotifRegistry;
 import org.monarchinitiative.vmvt.core.pssm.DoubleMatrix;
 import org.monarchinitiative.vmvt.core.svg.SvgComponent;
 import org.monarchinitiative.vmvt.core.svg.SvgConstants;
 import org.monarchinitiative.vmvt.core.svg.SvgInitializer;
+import org.monarchinitiative.vmvt.core.svg.SvgWriter;
 
 import java.io.IOException;
-import java.io.Writer;
 
 import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Dimensions.*;
 import static org.monarchinitiative.vmvt.core.svg.SvgConstants.Dimensions.SVG_ACCEPTOR_WIDTH;
@@ -69,26 +70,24 @@ public class SvgSingleSequenceWalker implements SvgComponent, SvgInitializer {
      * @param y      y position
      * @param base   index of the base
      */
-    protected void writeWalkerBase(Writer writer, int x, int y, int base, int pos) throws IOException {
+    protected void writeWalkerBase(SvgWriter writer, int x, int y, int base, int pos) throws IOException {
         String color = getBaseColor(base);
         String nt = getBaseCharLC(base);
         double IC = this.splicesite.get(base, pos);
         if (IC > 0) {
-            writer.write(String.format("<g transform='translate(%d,%d) scale(1,%f)'>\n", x, y, IC)); //scale(1,%f)
-            writer.write(String.format("<text x=\"0\" y=\"0\" fill=\"%s\">%s</text>\n", color, nt));
-            writer.write("</g>");
+            writer.startGlyph(nt).translate(x, y).append(" scale(1,").number(IC).append(")");
+            writer.endGlyph(color, nt);
         } else {
             double xpos = (double) x + (double) LOWER_CASE_BASE_INCREMENT;
             int ypos = y + 1;
-            writer.write(String.format("<g transform='translate(%f,%d)  scale(1,%f)  rotate(180)'>\n", xpos, ypos, Math.abs(IC))); //
-            writer.write(String.format("<text x=\"0\" y=\"0\" fill=\"%s\">%s</text>\n", color, nt));
-            writer.write("</g>\n");
+            writer.startGlyph(nt).translate(xpos, ypos).append("  scale(1,").number(Math.abs(IC)).append(")  rotate(180)");
+            writer.endGlyph(color, nt).append('\n');
         }
     }
 
 
 
-    private void writeRefWalker(Writer writer, int ypos) throws IOException {
+    private void writeRefWalker(SvgWriter writer, int ypos) throws IOException {
         int X = SVG_STARTX;
         for (int i = 0; i < seqlen; i++) {
             writeWalkerBase(writer, X, ypos, refidx[i], i);
@@ -98,14 +97,15 @@ public class SvgSingleSequenceWalker implements SvgComponent, SvgInitializer {
 
 
 
-    protected void writeBits(Writer writer, int ypos) throws IOException {
-        writer.write(String.format("<text x=\"%d\" y=\"%d\" class=\"t14\">%.1f bits</text>\n", this.svgTextStart, ypos, this.bits));
+    protected void writeBits(SvgWriter writer, int ypos) throws IOException {
+        writer.tag("text").attribute("x", this.svgTextStart).attribute("y", ypos)
+                .append(" class=\"t14\">").number(this.bits, 1).append(" bits</text>\n");
     }
 
 
 
     @Override
-    public void write(Writer writer, int ypos) throws IOException {
+    public void write(SvgWriter writer, int ypos) throws IOException {
         ypos += 35;
         writeRefWalker(writer, ypos);
         writeBits(writer, ypos);
@@ -113,7 +113,7 @@ public class SvgSingleSequenceWalker implements SvgComponent, SvgInitializer {
 
 
     public static SvgSingleSequenceWalker singleDonorWalker(String sequence) {
-        return SvgSingleSequenceWalker.singleDonorWalker(sequence, DoubleMatrix.donor());
+        return SvgSingleSequenceWalker.singleDonorWalker(sequence, MotifRegistry.icMatrix(SvgConstants.MotifType.DONOR));
     }
 
     public static SvgSingleSequenceWalker singleDonorWalker(String sequence, DoubleMatrix donor) {
@@ -126,7 +126,7 @@ public class SvgSingleSequenceWalker implements SvgComponent, SvgInitializer {
 
 
     public static SvgSingleSequenceWalker acceptorWalker(String sequence) {
-        return new SvgSingleSequenceWalker(sequence, DoubleMatrix.acceptor(), SVG_DONOR_SINGLE_ACCEPTOR_WIDTH);
+        return new SvgSingleSequenceWalker(sequence, MotifRegistry.icMatrix(SvgConstants.MotifType.ACCEPTOR), SVG_DONOR_SINGLE_ACCEPTOR_WIDTH);
     }
 
     public static SvgSingleSequenceWalker acceptorWalker(String sequence, DoubleMatrix acceptor) {
@@ -135,7 +135,7 @@ public class SvgSingleSequenceWalker implements SvgComponent, SvgInitializer {
 
 
     public static SvgSingleSequenceWalker singleAcceptorWalker(String sequence) {
-        return singleAcceptorWalker(sequence, DoubleMatrix.acceptor());
+        return singleAcceptorWalker(sequence, MotifRegistry.icMatrix(SvgConstants.MotifType.ACCEPTOR));
     }
 
     public static SvgSingleSequenceWalker singleAcceptorWalker(String sequence, DoubleMatrix acceptor) {
@@ -0,0 +1,108 @@
+package org.monarchinitiative.vmvt.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.monarchinitiative.vmvt.core.svg.SvgConstants;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DiskRenderCacheTest {
+
+    private static final String REF_DONOR = "AAGGTCAGA";
+    private static final String ALT_DONOR = "AAGATCAGA";
+    private static final String[] ALT_DONORS = {"AAGATCAGA", "AAGGTAAGA", "CAGGTCAGA", "AAGGTCAGT", "AAGCTCAGA"};
+
+    private final VmvtGenerator vmvt = new VmvtGenerator();
+
+    private static List<Path> graphics(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir, 2)) {
+            return paths.filter(p -> !p.getParent().equals(dir) && Files.isRegularFile(p)).collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void testGraphicsAreReusedByLaterRuns(@TempDir Path dir) throws IOException {
+        DiskRenderCache cache = new DiskRenderCache(dir, 1L << 20);
+        String svg = vmvt.getSvg(VmvtView.TREKKER, REF_DONOR, ALT_DONOR);
+        assertEquals(svg, cache.getSvg(vmvt, "trekker", REF_DONOR, ALT_DONOR));
+        assertEquals(svg, cache.getSvg(vmvt, "trekker", REF_DONOR, ALT_DONOR));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        List<Path> files = graphics(dir);
+        assertEquals(1, files.size());
+        assertTrue(files.get(0).getFileName().toString().endsWith(".svg"));
+
+        // a new run (with a new generator with the same settings) reads the graphic from the directory
+        DiskRenderCache nextRun = new DiskRenderCache(dir, 1L << 20);
+        assertEquals(svg, nextRun.getSvg(new VmvtGenerator(), "trekker", REF_DONOR, ALT_DONOR));
+        assertEquals(1, nextRun.getHits());
+        assertEquals(svg.length(), nextRun.getBytes());
+    }
+
+    @Test
+    public void testKeyDependsOnSettingsAndFormat(@TempDir Path dir) throws IOException {
+        DiskRenderCache cache = new DiskRenderCache(dir, 1L << 20);
+        VmvtGenerator framed = new VmvtGenerator(true);
+        assertEquals(framed.getSvg(VmvtView.TREKKER, REF_DONOR, ALT_DONOR),
+                cache.getSvg(framed, "trekker", REF_DONOR, ALT_DONOR));
+        assertEquals(vmvt.getSvg(VmvtView.TREKKER, REF_DONOR, ALT_DONOR),
+                cache.getSvg(vmvt, "trekker", REF_DONOR, ALT_DONOR));
+        byte[] svgz = cache.getImage(vmvt, "trekker", REF_DONOR, ALT_DONOR, OutputFormat.SVGZ);
+        assertArrayEquals(vmvt.getSvgz(VmvtView.TREKKER, REF_DONOR, ALT_DONOR), svgz);
+        assertEquals(3, cache.getMisses());
+        assertEquals(3, graphics(dir).size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedGraphicsAreDeleted(@TempDir Path dir) throws IOException, InterruptedException {
+        long size = vmvt.getSvg(VmvtView.WALKER, REF_DONOR, ALT_DONOR).length();
+        // room for three walkers
+        DiskRenderCache cache = new DiskRenderCache(dir, 3 * size + size / 2);
+        for (String alt : ALT_DONORS) {
+            cache.getSvg(vmvt, "walker", REF_DONOR, alt);
+            // the modification times must differ (the resolution of file times can be a few milliseconds)
+            Thread.sleep(20);
+        }
+        assertTrue(cache.getEvictions() > 0);
+        long total = 0;
+        for (Path path : graphics(dir)) {
+            total += Files.size(path);
+        }
+        assertTrue(total <= 3 * size + size / 2);
+        assertEquals(total, cache.getBytes());
+        // the most recent graphic is kept
+        cache.getSvg(vmvt, "walker", REF_DONOR, ALT_DONORS[ALT_DONORS.length - 1]);
+        assertEquals(1, cache.getHits());
+    }
+
+    /**
+     * The version in the SVG header and the version in the cache key must be the version of the build.
+     */
+    @Test
+    public void testProgramVersionIsPomVersion() throws IOException {
+        String pom = Files.readString(Path.of("pom.xml"));
+        Matcher matcher = Pattern.compile("<parent>.*?<version>([^<]+)</version>", Pattern.DOTALL).matcher(pom);
+        assertTrue(matcher.find());
+        String pomVersion = matcher.group(1).trim();
+        assertEquals(pomVersion, SvgConstants.Vmvt.PROGRAM_VERSION);
+        Properties properties = new Properties();
+        try (InputStream in = DiskRenderCache.class.getResourceAsStream("vmvt-build.properties")) {
+            assertNotNull(in);
+            properties.load(in);
+        }
+        assertEquals(pomVersion, properties.getProperty("version"));
+        assertEquals(pomVersion, DiskRenderCache.readBuildVersion());
+    }
+}
@@ -0,0 +1,53 @@
+package org.monarchinitiative.vmvt.core;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+import org.monarchinitiative.vmvt.core.pssm.DoubleMatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EncodedVariantTest {
+    private static final double EPSILON = 0.000001;
+
+    @Test
+    public void testEncoding() {
+        EncodedVariant variant = EncodedVariant.of("AAGGTCAGA", "AAGAtCAGT");
+        assertEquals(9, variant.length());
+        assertTrue(variant.isDonor());
+        assertEquals(2, variant.refBase(2));
+        assertEquals(0, variant.altBase(3));
+        assertEquals(3, variant.altBase(4));
+        assertFalse(variant.isVariant(4));
+        assertTrue(variant.isVariant(3));
+        assertEquals(1L << 3 | 1L << 8, variant.getDiffMask());
+        assertEquals(2, variant.getVariantCount());
+        assertEquals(3, variant.firstVariantPosition());
+        assertEquals(8, variant.lastVariantPosition());
+        assertEquals(EncodedVariant.of("AAGGTCAGA", "AAGAtCAGT"), variant);
+    }
+
+    @Test
+    public void testSameSequences() {
+        EncodedVariant variant = EncodedVariant.of("cctggctggcggcaccgggtgccagGT", "cctggctggcggcaccgggtgccagGT");
+        assertFalse(variant.isDonor());
+        assertEquals(0L, variant.getDiffMask());
+        assertEquals(-1, variant.firstVariantPosition());
+        assertEquals(-1, variant.lastVariantPosition());
+    }
+
+    @Test
+    public void testRi() {
+        DoubleMatrix donor = DoubleMatrix.donor();
+        EncodedVariant variant = EncodedVariant.of("AAGGTCAGA", "AAGATCAGA");
+        assertEquals(donor.getIndividualSequenceInformation("AAGGTCAGA"), donor.refRi(variant), EPSILON);
+        assertEquals(donor.getIndividualSequenceInformation("AAGATCAGA"), donor.altRi(variant), EPSILON);
+        assertThrows(VmvtRuntimeException.class, () -> DoubleMatrix.acceptor().refRi(variant));
+    }
+
+    @Test
+    public void testInvalidSequences() {
+        assertThrows(VmvtRuntimeException.class, () -> EncodedVariant.of("AAGGTCAGN", "AAGATCAGA"));
+        assertThrows(VmvtRuntimeException.class, () -> EncodedVariant.of("AAGGTCAGA", "AAGATCAG"));
+        assertThrows(VmvtRuntimeException.class, () -> EncodedVariant.of("AAGGTCAG", "AAGATCAG"));
+    }
+}
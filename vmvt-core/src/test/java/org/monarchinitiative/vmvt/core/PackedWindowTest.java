@@ -0,0 +1,54 @@
+package org.monarchinitiative.vmvt.core;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PackedWindowTest {
+
+    private static final String DONOR = "AAGGTCAGA";
+    private static final String ACCEPTOR = "CCTGGCTGGCGGCACCGGGTGCCAGGT";
+
+    @Test
+    public void testPackAndUnpack() {
+        for (String seq : new String[]{DONOR, ACCEPTOR, "T", "TTTTTTTTTTTTTTTTTTTTTTTTTTTTT"}) {
+            long key = PackedWindow.pack(seq);
+            assertTrue(PackedWindow.isValid(key));
+            assertEquals(seq.length(), PackedWindow.length(key));
+            assertEquals(seq, PackedWindow.unpack(key));
+            byte[] ascii = seq.getBytes(StandardCharsets.US_ASCII);
+            assertEquals(key, PackedWindow.pack(ascii, 0, ascii.length));
+            byte[] dest = new byte[ascii.length + 1];
+            assertEquals(ascii.length, PackedWindow.unpack(key, dest, 1));
+            assertEquals(seq, new String(dest, 1, ascii.length, StandardCharsets.US_ASCII));
+        }
+        assertEquals(PackedWindow.pack(DONOR), PackedWindow.pack(DONOR.toLowerCase()));
+        assertEquals(2, PackedWindow.base(PackedWindow.pack(DONOR), 2));
+        // windows of different lengths have different keys
+        assertNotEquals(PackedWindow.pack("AAAAAAAAA"), PackedWindow.pack("AAAAAAAAAA"));
+    }
+
+    @Test
+    public void testInvalidWindows() {
+        assertThrows(VmvtRuntimeException.class, () -> PackedWindow.pack("AAGNTCAGA"));
+        assertThrows(VmvtRuntimeException.class, () -> PackedWindow.pack(""));
+        assertThrows(VmvtRuntimeException.class, () -> PackedWindow.pack(ACCEPTOR + "ACG"));
+        assertFalse(PackedWindow.isPackable("AAGNTCAGA"));
+        assertTrue(PackedWindow.isPackable(ACCEPTOR));
+        assertFalse(PackedWindow.isValid(0L));
+        assertFalse(PackedWindow.isValid(PackedWindow.pack("A") | 1L << 4));
+    }
+
+    @Test
+    public void testDiffMask() {
+        long ref = PackedWindow.pack(ACCEPTOR);
+        long alt = PackedWindow.pack("CCTGGCTGGCGGCACCGGGTGCCGGGA");
+        assertEquals(1L << 23 | 1L << 26, PackedWindow.diffMask(ref, alt));
+        assertEquals(0L, PackedWindow.diffMask(ref, ref));
+        assertEquals(EncodedVariant.of("AAGGTCAGA", "TAGATCAGC").getDiffMask(),
+                PackedWindow.diffMask(PackedWindow.pack("AAGGTCAGA"), PackedWindow.pack("TAGATCAGC")));
+    }
+}
@@ -0,0 +1,90 @@
+package org.monarchinitiative.vmvt.core;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RenderCacheTest {
+
+    private static final String REF_DONOR = "AAGGTCAGA";
+    private static final String ALT_DONOR = "AAGATCAGA";
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        RenderCache cache = new RenderCache(2);
+        AtomicInteger renders = new AtomicInteger();
+        cache.getSvg("ruler", "A", "C", () -> "a" + renders.incrementAndGet());
+        cache.getSvg("ruler", "G", "T", () -> "b" + renders.incrementAndGet());
+        // use the first entry, so that the second one is the least recently used
+        assertEquals("a1", cache.getSvg("ruler", "A", "C", () -> "x" + renders.incrementAndGet()));
+        cache.getSvg("walker", "A", "C", () -> "c" + renders.incrementAndGet());
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertEquals("a1", cache.getSvg("ruler", "A", "C", () -> "x" + renders.incrementAndGet()));
+        assertEquals("b4", cache.getSvg("ruler", "G", "T", () -> "b" + renders.incrementAndGet()));
+        assertEquals(2, cache.getHits());
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    public void testByteBound() {
+        // key: 2 * 1 + 16 (packed sequences) = 18 bytes, value: 2 * 2 = 4 bytes
+        RenderCache cache = new RenderCache(100, 50);
+        cache.getSvg("v", "A", "C", () -> "aa");
+        cache.getSvg("v", "A", "G", () -> "bb");
+        assertEquals(44, cache.getBytes());
+        cache.getBytes("v", "A", "T", OutputFormat.PNG, () -> new byte[4]);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(44, cache.getBytes());
+        // too large to be cached
+        cache.getBytes("v", "A", "T", OutputFormat.SVGZ, () -> new byte[100]);
+        assertEquals(2, cache.size());
+        // sequences that cannot be packed are counted with two bytes per character
+        cache.clear();
+        cache.getSvg("v", "N", "C", () -> "aa");
+        assertEquals(10, cache.getBytes());
+        assertThrows(VmvtRuntimeException.class, () -> new RenderCache(0));
+    }
+
+    /**
+     * The graphics do not depend on the case of the sequences, so they share one entry.
+     */
+    @Test
+    public void testSequencesAreCaseInsensitive() {
+        VmvtGenerator plain = new VmvtGenerator();
+        RenderCache cache = new RenderCache(100);
+        VmvtGenerator cached = new VmvtGenerator(cache);
+        String svg = cached.getSvg(VmvtView.TREKKER_WITH_RI, REF_DONOR, ALT_DONOR);
+        assertSame(svg, cached.getSvg(VmvtView.TREKKER_WITH_RI, REF_DONOR.toLowerCase(), ALT_DONOR.toLowerCase()));
+        assertEquals(plain.getSvg(VmvtView.TREKKER_WITH_RI, REF_DONOR.toLowerCase(), ALT_DONOR.toLowerCase()), svg);
+        String hexamer = cached.getSvg(VmvtView.HEXAMER, "cctggctatat", "cctagctatat");
+        assertSame(hexamer, cached.getSvg(VmvtView.HEXAMER, "CCTGGCTATAT", "CCTAGCTATAT"));
+        assertEquals(plain.getSvg(VmvtView.HEXAMER, "CCTGGCTATAT", "CCTAGCTATAT"), hexamer);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testGeneratorWithCache() {
+        VmvtGenerator plain = new VmvtGenerator(true);
+        RenderCache cache = new RenderCache(100);
+        VmvtGenerator cached = new VmvtGenerator(true, false, 5, cache);
+        String svg = cached.getSvg(VmvtView.TREKKER, REF_DONOR, ALT_DONOR);
+        assertEquals(plain.getSvg(VmvtView.TREKKER, REF_DONOR, ALT_DONOR), svg);
+        assertSame(svg, cached.getSvg("trekker", REF_DONOR, ALT_DONOR));
+        assertSame(svg, cached.getDonorTrekkerSvg(REF_DONOR, ALT_DONOR));
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        byte[] png = cached.getPng(VmvtView.TREKKER, REF_DONOR, ALT_DONOR);
+        png[0] = 0;
+        assertArrayEquals(plain.getPng(VmvtView.TREKKER, REF_DONOR, ALT_DONOR), cached.getPng(VmvtView.TREKKER, REF_DONOR, ALT_DONOR));
+        assertEquals(2, cache.size());
+        // errors are not cached
+        assertThrows(VmvtRuntimeException.class, () -> cached.getSvg("trekker", "AAGG", "AAGA"));
+        assertEquals(2, cache.size());
+    }
+}
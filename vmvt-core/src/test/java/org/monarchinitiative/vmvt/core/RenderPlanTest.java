@@ -0,0 +1,43 @@
+package org.monarchinitiative.vmvt.core;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.vmvt.core.RenderPlan.Part;
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RenderPlanTest {
+
+    @Test
+    public void testDonorLayout() {
+        RenderPlan plan = RenderPlan.donor(Part.RULER, Part.LOGO, Part.WALKER, Part.DELTA_RI);
+        assertEquals(List.of(Part.RULER, Part.LOGO, Part.WALKER, Part.DELTA_RI), plan.getParts());
+        assertEquals(150, plan.getWidth());
+        assertEquals(5 + 90 + 10 + 40 + 10 + 130 + 10 + 30 + 5, plan.getHeight());
+        assertEquals(5, plan.getYOffset(0));
+        assertEquals(105, plan.getYOffset(1));
+        assertEquals(155, plan.getYOffset(2));
+        assertEquals(295, plan.getYOffset(3));
+        assertTrue(plan.accepts(9));
+        assertFalse(plan.accepts(27));
+    }
+
+    @Test
+    public void testWidthOfDistribution() {
+        RenderPlan plan = RenderPlan.acceptor(Part.LOGO, Part.DISTRIBUTION);
+        assertEquals(420, plan.getWidth());
+        assertEquals(5 + 40 + 10 + 350 + 5, plan.getHeight());
+    }
+
+    @Test
+    public void testEsePlan() {
+        RenderPlan plan = RenderPlan.ese(Part.HEXAMER, Part.HEPTAMER);
+        assertEquals(420, plan.getWidth());
+        assertTrue(plan.accepts(13));
+        assertThrows(VmvtRuntimeException.class, () -> RenderPlan.ese(Part.LOGO));
+        assertThrows(VmvtRuntimeException.class, () -> RenderPlan.donor(Part.HEXAMER));
+        assertThrows(VmvtRuntimeException.class, RenderPlan::donor);
+    }
+}
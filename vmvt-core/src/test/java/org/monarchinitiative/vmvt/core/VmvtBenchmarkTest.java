@@ -0,0 +1,120 @@
+package org.monarchinitiative.vmvt.core;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.vmvt.core.dist.DistributionCalculator;
+import org.monarchinitiative.vmvt.core.pssm.DoubleMatrix;
+import org.monarchinitiative.vmvt.core.svg.SvgWriter;
+import org.monarchinitiative.vmvt.core.svg.delta.DeltaSvg;
+
+import java.util.function.Supplier;
+
+/**
+ * Simple timing benchmarks that are only run on demand, e.g. with
+ * {@code mvn test -Dtest=VmvtBenchmarkTest -Djunit.jupiter.conditions.deactivate=org.junit.*DisabledCondition}.
+ * Each benchmark warms up the JIT before measuring and prints the average time per call.
+ */
+@Disabled("benchmark, run on demand")
+public class VmvtBenchmarkTest {
+
+    private static final String REF_DONOR = "AAGGTCAGA";
+    private static final String ALT_DONOR = "AAGATCAGA";
+    private static final String REF_ACCEPTOR = "cctggctggcggcaccgggtgccagGT";
+    private static final String ALT_ACCEPTOR = "cctggctggcggcaccgggtgccggGT";
+
+    /**
+     * Report the mean time per call in microseconds.
+     */
+    private static void time(String name, int iterations, Supplier<?> task) {
+        Object sink = null;
+        for (int i = 0; i < iterations; i++) {
+            sink = task.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink = task.get();
+        }
+        double micros = (System.nanoTime() - start) / 1000.0 / iterations;
+        System.out.printf("%-40s %12.2f us/call%s\n", name, micros, sink == null ? " (null)" : "");
+    }
+
+    /**
+     * The delta SVG takes the shared distributions from the motif registry, so that the cost per call is the
+     * same for the donor (262,144 enumerated sequences before) and the acceptor.
+     */
+    @Test
+    public void deltaSvg() {
+        VmvtGenerator vmvt = new VmvtGenerator();
+        time("getDelta donor", 5_000, () -> vmvt.getDelta(REF_DONOR, ALT_DONOR));
+        time("getDelta acceptor", 5_000, () -> vmvt.getDelta(REF_ACCEPTOR, ALT_ACCEPTOR));
+        time("new DeltaSvg donor", 50_000, () -> new DeltaSvg(REF_DONOR, ALT_DONOR));
+        time("new DeltaSvg acceptor", 50_000, () -> new DeltaSvg(REF_ACCEPTOR, ALT_ACCEPTOR));
+        // what every call used to cost
+        time("new DistributionCalculator donor", 5,
+                () -> new DeltaSvg(REF_DONOR, ALT_DONOR, new DistributionCalculator(DoubleMatrix.donor())));
+    }
+
+    /**
+     * Time to render each view for a donor and an acceptor variant (ESE views for a hexamer and heptamer).
+     */
+    @Test
+    public void renderViews() {
+        VmvtGenerator vmvt = new VmvtGenerator();
+        for (VmvtView view : VmvtView.values()) {
+            if (view == VmvtView.HEXAMER) {
+                time("hexamer", 20_000, () -> vmvt.getSvg(view, "cctggctatat", "cctagctatat"));
+            } else if (view == VmvtView.HEPTAMER) {
+                time("heptamer", 20_000, () -> vmvt.getSvg(view, "cctggctatatgc", "cctagctatatgc"));
+            } else {
+                time(view.getName() + " donor", 20_000, () -> vmvt.getSvg(view, REF_DONOR, ALT_DONOR));
+                time(view.getName() + " acceptor", 20_000, () -> vmvt.getSvg(view, REF_ACCEPTOR, ALT_ACCEPTOR));
+            }
+        }
+    }
+
+    /**
+     * R_i of a donor sequence by summing the matrix and by a lookup in the table of all donor sequences.
+     */
+    @Test
+    public void donorRi() {
+        VmvtScorer scorer = new VmvtScorer();
+        long window = PackedWindow.pack(REF_DONOR);
+        time("ri donor (matrix)", 1_000_000, () -> scorer.ri(REF_DONOR));
+        time("donorRi (table)", 1_000_000, () -> scorer.donorRi(window));
+    }
+
+    @Test
+    public void compactSize() {
+        VmvtGenerator vmvt = new VmvtGenerator();
+        VmvtGenerator compact = new VmvtGenerator(false, true, SvgWriter.DEFAULT_COMPACT_DECIMALS);
+        for (VmvtView view : VmvtView.values()) {
+            if (view == VmvtView.HEXAMER || view == VmvtView.HEPTAMER) {
+                continue;
+            }
+            int size = vmvt.getSvg(view, REF_ACCEPTOR, ALT_ACCEPTOR).length();
+            int compactSize = compact.getSvg(view, REF_ACCEPTOR, ALT_ACCEPTOR).length();
+            System.out.printf("%-30s %8d %8d bytes (%.0f%% smaller)\n", view.getName(), size, compactSize,
+                    100.0 * (size - compactSize) / size);
+        }
+        time("trekker acceptor (compact)", 20_000, () -> compact.getSvg(VmvtView.TREKKER, REF_ACCEPTOR, ALT_ACCEPTOR));
+    }
+
+    @Test
+    public void png() {
+        VmvtGenerator vmvt = new VmvtGenerator();
+        time("trekker-ri donor (png)", 500, () -> vmvt.getPng(VmvtView.TREKKER_WITH_RI, REF_DONOR, ALT_DONOR));
+        time("trekker-ri acceptor (png)", 500, () -> vmvt.getPng(VmvtView.TREKKER_WITH_RI, REF_ACCEPTOR, ALT_ACCEPTOR));
+        time("distribution donor (png)", 500, () -> vmvt.getPng(VmvtView.DISTRIBUTION, REF_DONOR, ALT_DONOR));
+    }
+
+    /**
+     * Repeated requests for the same variant are answered from the render cache.
+     */
+    @Test
+    public void renderCache() {
+        VmvtGenerator cached = new VmvtGenerator(false, false, SvgWriter.DEFAULT_DECIMALS, new RenderCache(1_000));
+        time("trekker-ri acceptor (cached)", 1_000_000, () -> cached.getSvg(VmvtView.TREKKER_WITH_RI, REF_ACCEPTOR, ALT_ACCEPTOR));
+        time("trekker-ri acceptor (png, cached)", 1_000_000, () -> cached.getPng(VmvtView.TREKKER_WITH_RI, REF_ACCEPTOR, ALT_ACCEPTOR));
+        System.out.println(cached.getRenderCache());
+    }
+}
@@ -0,0 +1,193 @@
+package org.monarchinitiative.vmvt.core;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VmvtGeneratorTest {
+
+    private static final String REF_DONOR = "AAGGTCAGA";
+    private static final String ALT_DONOR = "AAGATCAGA";
+    private static final String REF_ACCEPTOR = "cctggctggcggcaccgggtgccagGT";
+    private static final String ALT_ACCEPTOR = "cctggctggcggcaccgggtgccggGT";
+
+    private final VmvtGenerator vmvt = new VmvtGenerator(true);
+
+    private void assertStreamedLikeString(VmvtView view, String ref, String alt) throws IOException {
+        String expected = vmvt.getSvg(view, ref, alt);
+        StringWriter writer = new StringWriter();
+        vmvt.writeSvg(view, ref, alt, writer);
+        assertEquals(expected, writer.toString());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        vmvt.writeSvg(view, ref, alt, out);
+        assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Streaming an SVG must produce the same document as building it as a String (the distribution
+     * view contains the non-ASCII character Δ).
+     */
+    @Test
+    public void testWriteSvgIsIdenticalToGetSvg() throws IOException {
+        for (VmvtView view : VmvtView.values()) {
+            if (view == VmvtView.HEXAMER) {
+                assertStreamedLikeString(view, "cctggctatat", "cctagctatat");
+            } else if (view == VmvtView.HEPTAMER) {
+                assertStreamedLikeString(view, "cctggctatatgc", "cctagctatatgc");
+            } else {
+                assertStreamedLikeString(view, REF_DONOR, ALT_DONOR);
+                assertStreamedLikeString(view, REF_ACCEPTOR, ALT_ACCEPTOR);
+            }
+        }
+    }
+
+    /**
+     * Compact SVGs must be smaller than the default SVGs, and all glyphs they use must be defined.
+     */
+    @Test
+    public void testSvgzIsCompressedSvg() throws IOException {
+        String svg = vmvt.getSvg(VmvtView.TREKKER, REF_ACCEPTOR, ALT_ACCEPTOR);
+        byte[] svgz = vmvt.getSvgz(VmvtView.TREKKER, REF_ACCEPTOR, ALT_ACCEPTOR);
+        assertTrue(svgz.length < svg.length() / 3);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(svgz))) {
+            assertEquals(svg, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        // the stream stays open, so that two SVGZs can be written one after the other (concatenated gzip members)
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        vmvt.writeSvgz(VmvtView.TREKKER, REF_ACCEPTOR, ALT_ACCEPTOR, out);
+        vmvt.writeSvgz(VmvtView.TREKKER, REF_ACCEPTOR, ALT_ACCEPTOR, out);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(svg + svg, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testWriteLogo() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        vmvt.writeDonorLogo(OutputFormat.SVG, out);
+        assertEquals(vmvt.getDonorLogoSvg(), out.toString(StandardCharsets.UTF_8));
+        out.reset();
+        vmvt.writeAcceptorLogo(OutputFormat.SVGZ, out);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(vmvt.getAcceptorLogoSvg(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        out.reset();
+        vmvt.writeDonorLogo(OutputFormat.PNG, out);
+        assertNotNull(ImageIO.read(new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    @Test
+    public void testPngHasSizeOfSvg() throws IOException {
+        String svg = vmvt.getSvg(VmvtView.IC_BARS_WITH_LOGO_AND_RI, REF_ACCEPTOR, ALT_ACCEPTOR);
+        Matcher size = Pattern.compile("<svg width=\"(\\d+)\" height=\"(\\d+)\"").matcher(svg);
+        assertTrue(size.find());
+        byte[] png = vmvt.getPng(VmvtView.IC_BARS_WITH_LOGO_AND_RI, REF_ACCEPTOR, ALT_ACCEPTOR);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        assertEquals(Integer.parseInt(size.group(1)), image.getWidth());
+        assertEquals(Integer.parseInt(size.group(2)), image.getHeight());
+        // a compact generator draws the same PNG
+        VmvtGenerator compact = new VmvtGenerator(true, true, 1);
+        assertArrayEquals(png, compact.getImage(VmvtView.IC_BARS_WITH_LOGO_AND_RI, REF_ACCEPTOR, ALT_ACCEPTOR, OutputFormat.PNG));
+    }
+
+    @Test
+    public void testCompactSvg() {
+        VmvtGenerator compact = new VmvtGenerator(true, true, 2);
+        Pattern idPattern = Pattern.compile(" id=\"(\\w+)\"");
+        Pattern hrefPattern = Pattern.compile("<use xlink:href=\"#(\\w+)\"");
+        for (VmvtView view : VmvtView.values()) {
+            String ref = REF_ACCEPTOR;
+            String alt = ALT_ACCEPTOR;
+            if (view == VmvtView.HEXAMER) {
+                ref = "cctggctatat";
+                alt = "cctagctatat";
+            } else if (view == VmvtView.HEPTAMER) {
+                ref = "cctggctatatgc";
+                alt = "cctagctatatgc";
+            }
+            String svg = compact.getSvg(view, ref, alt);
+            assertTrue(svg.length() < vmvt.getSvg(view, ref, alt).length(), view.getName());
+            assertFalse(svg.contains(".000000"), view.getName());
+            assertTrue(svg.startsWith("<svg ") && svg.endsWith("</svg>\n"), view.getName());
+            Set<String> ids = new HashSet<>();
+            Matcher idMatcher = idPattern.matcher(svg);
+            while (idMatcher.find()) {
+                ids.add(idMatcher.group(1));
+            }
+            Set<String> hrefs = new HashSet<>();
+            Matcher hrefMatcher = hrefPattern.matcher(svg);
+            while (hrefMatcher.find()) {
+                hrefs.add(hrefMatcher.group(1));
+            }
+            // exactly the glyphs that are used are defined
+            assertEquals(hrefs, ids, view.getName());
+        }
+    }
+
+    @Test
+    public void testCompactPrecision() {
+        String svg = new VmvtGenerator(false, true, 1).getSvg(VmvtView.TREKKER, REF_DONOR, ALT_DONOR);
+        assertTrue(svg.contains("<use xlink:href=\"#gT\" transform=\"translate(10,35) scale(1,0)\"/>"));
+        assertTrue(svg.contains("translate(10,34.8)"));
+        assertThrows(RuntimeException.class, () -> new VmvtGenerator(false, true, 10));
+    }
+
+    @Test
+    public void testViewsByName() {
+        for (VmvtView view : VmvtView.values()) {
+            if (view == VmvtView.HEXAMER || view == VmvtView.HEPTAMER) {
+                continue;
+            }
+            assertEquals(vmvt.getSvg(view, REF_ACCEPTOR, ALT_ACCEPTOR), vmvt.getSvg(view.getName(), REF_ACCEPTOR, ALT_ACCEPTOR));
+        }
+        assertEquals(vmvt.getSvg(VmvtView.DISTRIBUTION, REF_DONOR, ALT_DONOR), vmvt.getSvg("delta", REF_DONOR, ALT_DONOR));
+        assertTrue(vmvt.getViewNames().contains("trekker-ri"));
+        assertThrows(RuntimeException.class, () -> vmvt.getSvg("no-such-view", REF_DONOR, ALT_DONOR));
+    }
+
+    @Test
+    public void testViewsOfEncodedVariant() {
+        EncodedVariant donor = EncodedVariant.of(REF_DONOR, ALT_DONOR);
+        EncodedVariant acceptor = EncodedVariant.of(REF_ACCEPTOR, ALT_ACCEPTOR);
+        for (String name : new String[]{"trekker-ri", "distribution", "ruler"}) {
+            assertEquals(vmvt.getSvg(name, REF_DONOR, ALT_DONOR), vmvt.getSvg(name, donor));
+            assertEquals(vmvt.getSvg(name, REF_ACCEPTOR, ALT_ACCEPTOR), vmvt.getSvg(name, acceptor));
+        }
+    }
+
+    /**
+     * A registered view is laid out like the built-in views, i.e., its first parts are identical to a built-in
+     * view with the same first parts.
+     */
+    @Test
+    public void testRegisterView() {
+        VmvtGenerator generator = new VmvtGenerator(true);
+        generator.registerView("logo-walker-ri", RenderPlan.donor(RenderPlan.Part.LOGO, RenderPlan.Part.WALKER,
+                RenderPlan.Part.DELTA_RI));
+        String svg = generator.getSvg("logo-walker-ri", REF_DONOR, ALT_DONOR);
+        assertTrue(svg.startsWith("<svg width=\"150\" height=\"230\" "));
+        String trekker = generator.getSvg(VmvtView.TREKKER, REF_DONOR, ALT_DONOR);
+        int trekkerStart = trekker.indexOf("<g>");
+        int trekkerEnd = trekker.lastIndexOf("</g>");
+        assertTrue(svg.contains(trekker.substring(trekkerStart, trekkerEnd)));
+        // the view has no acceptor plan
+        assertThrows(RuntimeException.class, () -> generator.getSvg("logo-walker-ri", REF_ACCEPTOR, ALT_ACCEPTOR));
+        assertThrows(RuntimeException.class, () -> generator.registerView("logo-walker-ri", RenderPlan.donor(RenderPlan.Part.LOGO)));
+        assertThrows(RuntimeException.class, () -> generator.registerView("trekker", RenderPlan.donor(RenderPlan.Part.LOGO)));
+        assertFalse(vmvt.getViewNames().contains("logo-walker-ri"));
+    }
+}
@@ -0,0 +1,114 @@
+package org.monarchinitiative.vmvt.core;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.vmvt.core.batch.VariantRequest;
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+import org.monarchinitiative.vmvt.core.pssm.DoubleMatrix;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VmvtScorerTest {
+    private static final double EPSILON = 0.000001;
+
+    private final String refDonor = "AAGGTCAGA";
+    private final String altDonor = "AAGATCAGA";
+    private final String refAcceptor = "cctggctggcggcaccgggtgccagGT";
+    private final String altAcceptor = "cctggctggcggcaccgggtgccggGT";
+
+    private static VmvtScorer scorer;
+
+    @BeforeAll
+    public static void init() {
+        scorer = new VmvtScorer();
+    }
+
+    @Test
+    public void testDonorScore() {
+        DoubleMatrix donor = DoubleMatrix.donor();
+        VariantScore score = scorer.score(refDonor, altDonor);
+        assertEquals(donor.getIndividualSequenceInformation(refDonor), score.getRefRi(), EPSILON);
+        assertEquals(donor.getIndividualSequenceInformation(altDonor), score.getAltRi(), EPSILON);
+        assertEquals(score.getRefRi() - score.getAltRi(), scorer.deltaRi(refDonor, altDonor), EPSILON);
+        // G>A at the +1 position is more damaging than nearly all other SNVs
+        assertTrue(score.getDeltaRiPercentile() > 95.0);
+        assertTrue(scorer.deltaRiTailProbability(score.getDeltaRi(), true) < 0.05);
+        assertTrue(Double.isNaN(score.getHexamerDelta()));
+    }
+
+    @Test
+    public void testEncodedVariantScore() {
+        VariantScore score = scorer.score(EncodedVariant.of(refAcceptor, altAcceptor));
+        VariantScore expected = scorer.score(refAcceptor, altAcceptor);
+        assertEquals(expected.getRefRi(), score.getRefRi(), EPSILON);
+        assertEquals(expected.getAltRi(), score.getAltRi(), EPSILON);
+        assertEquals(expected.getDeltaRiPercentile(), score.getDeltaRiPercentile(), EPSILON);
+        assertEquals(scorer.deltaRi(refDonor, altDonor), scorer.deltaRi(EncodedVariant.of(refDonor, altDonor)), EPSILON);
+    }
+
+    @Test
+    public void testPackedDonorRi() {
+        long ref = PackedWindow.pack(refDonor);
+        long alt = PackedWindow.pack(altDonor);
+        assertEquals(scorer.ri(refDonor), scorer.donorRi(ref), 0.00001);
+        assertEquals(scorer.deltaRi(refDonor, altDonor), scorer.donorDeltaRi(ref, alt), 0.00001);
+        assertThrows(VmvtRuntimeException.class, () -> scorer.donorRi(PackedWindow.pack(refAcceptor)));
+    }
+
+    @Test
+    public void testAcceptorScore() {
+        DoubleMatrix acceptor = DoubleMatrix.acceptor();
+        VariantScore score = scorer.score(refAcceptor, altAcceptor);
+        assertEquals(acceptor.getIndividualSequenceInformation(refAcceptor), score.getRefRi(), EPSILON);
+        assertEquals(acceptor.getIndividualSequenceInformation(altAcceptor), score.getAltRi(), EPSILON);
+        assertTrue(score.getDeltaRiPercentile() > 0.0 && score.getDeltaRiPercentile() <= 100.0);
+    }
+
+    @Test
+    public void testEseScore() {
+        String eseRef = "gcctggctatatg";
+        String eseAlt = "gcctagctatatg";
+        VariantScore score = scorer.score(refDonor, altDonor, eseRef, eseAlt);
+        assertEquals(scorer.hexamerDelta("cctggctatat", "cctagctatat"), score.getHexamerDelta(), EPSILON);
+        assertEquals(scorer.heptamerDelta(eseRef, eseAlt), score.getHeptamerDelta(), EPSILON);
+    }
+
+    @Test
+    public void testInvalidSequence() {
+        assertThrows(VmvtRuntimeException.class, () -> scorer.score("AAGGTCAGA", "AAGNTCAGA"));
+        assertThrows(VmvtRuntimeException.class, () -> scorer.score("AAGGTCAG", "AAGATCAG"));
+    }
+
+    @Test
+    public void testScoreAll() throws IOException {
+        String eseRef = "gcctggctatatg";
+        String eseAlt = "gcctagctatatg";
+        List<VariantRequest> requests = List.of(new VariantRequest("v1", refDonor, altDonor),
+                new VariantRequest("v2", refAcceptor, altAcceptor),
+                new VariantRequest("v3", "AAGGTCAGA", "AAGNTCAGA"),
+                new VariantRequest("v4", refDonor, altDonor, eseRef, eseAlt));
+        StringWriter writer = new StringWriter();
+        long n = scorer.scoreAll(requests.iterator(), writer);
+        assertEquals(3, n);
+        String[] lines = writer.toString().split("\n");
+        assertEquals(5, lines.length);
+        assertEquals(9, lines[0].split("\t").length);
+        assertEquals(9, lines[1].split("\t").length);
+        assertTrue(lines[1].endsWith("\tNA\tNA"));
+        assertTrue(lines[3].endsWith("NA\tNA\tNA\tNA\tNA\tNA"));
+        String[] fields = lines[4].split("\t");
+        assertEquals(scorer.hexamerDelta("cctggctatat", "cctagctatat"), Double.parseDouble(fields[7]), EPSILON);
+        assertEquals(scorer.heptamerDelta(eseRef, eseAlt), Double.parseDouble(fields[8]), EPSILON);
+    }
+
+    @Test
+    public void testInvalidEseLength() {
+        assertThrows(VmvtRuntimeException.class, () -> scorer.score(refDonor, altDonor, "cctggctatat", "cctagctatat"));
+        assertThrows(VmvtRuntimeException.class, () -> scorer.score(refDonor, altDonor, "gcctggctatatg", null));
+        assertThrows(VmvtRuntimeException.class, () -> new VariantRequest("v1", refDonor, altDonor, "gcctggctatatg", null));
+    }
+}
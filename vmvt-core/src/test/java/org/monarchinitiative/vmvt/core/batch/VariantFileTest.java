@@ -0,0 +1,79 @@
+package org.monarchinitiative.vmvt.core.batch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.vmvt.core.PackedWindow;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VariantFileTest {
+
+    private static byte[] write(List<VariantRequest> requests) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (VariantFile.Writer writer = new VariantFile.Writer(out, Arrays.asList("ruler", "trekker"))) {
+            for (VariantRequest request : requests) {
+                writer.write(request);
+            }
+            assertEquals(requests.size(), writer.getCount());
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<VariantRequest> requests = Arrays.asList(
+                new VariantRequest("a", "AAGGTCAGA", "AAGATCAGA", "trekker"),
+                new VariantRequest("b", "cctggctggcggcaccgggtgccagGT", "cctggctggcggcaccgggtgccggGT", "ruler"),
+                new VariantRequest("c", "AAGGTCAGA", "AAGATCAGA"));
+        byte[] bytes = write(requests);
+        // header: magic, count and the two names (2 bytes length each), then the records
+        assertEquals(8 + 4 + (2 + 5) + (2 + 7) + 3 * VariantFile.RECORD_BYTES, bytes.length);
+        try (VariantFile.Reader reader = new VariantFile.Reader(new ByteArrayInputStream(bytes))) {
+            assertEquals(Arrays.asList("ruler", "trekker"), reader.getViewNames());
+            assertTrue(reader.next());
+            assertEquals(PackedWindow.pack("AAGGTCAGA"), reader.getReference());
+            assertEquals(PackedWindow.pack("AAGATCAGA"), reader.getAlternate());
+            assertEquals("trekker", reader.getViewName());
+            Iterator<VariantRequest> rest = reader.requests();
+            VariantRequest second = rest.next();
+            assertEquals("2", second.getId());
+            assertEquals("CCTGGCTGGCGGCACCGGGTGCCAGGT", second.getReference());
+            assertEquals("CCTGGCTGGCGGCACCGGGTGCCGGGT", second.getAlternate());
+            assertEquals("ruler", second.getViewName());
+            VariantRequest third = rest.next();
+            assertEquals("3", third.getId());
+            assertNull(third.getViewName());
+            assertFalse(rest.hasNext());
+        }
+    }
+
+    @Test
+    public void testInvalidFiles(@TempDir Path dir) throws IOException {
+        byte[] bytes = write(Arrays.asList(new VariantRequest("a", "AAGGTCAGA", "AAGATCAGA", "trekker")));
+        Path file = dir.resolve("variants.bin");
+        Files.write(file, bytes);
+        assertTrue(VariantFile.isVariantFile(file));
+        Path tsv = dir.resolve("variants.tsv");
+        Files.write(tsv, "a\tAAGGTCAGA\tAAGATCAGA\ttrekker\n".getBytes());
+        assertFalse(VariantFile.isVariantFile(tsv));
+        assertThrows(IOException.class, () -> new VariantFile.Reader(Files.newInputStream(tsv)));
+        // truncated record
+        try (VariantFile.Reader reader = new VariantFile.Reader(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 1)))) {
+            assertThrows(IOException.class, reader::next);
+        }
+        // view that is not in the header
+        try (VariantFile.Writer writer = new VariantFile.Writer(OutputStream.nullOutputStream(), Arrays.asList("ruler"))) {
+            assertThrows(RuntimeException.class, () -> writer.write(new VariantRequest("a", "AAGGTCAGA", "AAGATCAGA", "trekker")));
+        }
+    }
+}
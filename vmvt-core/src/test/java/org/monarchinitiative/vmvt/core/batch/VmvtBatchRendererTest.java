@@ -0,0 +1,173 @@
+package org.monarchinitiative.vmvt.core.batch;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.vmvt.core.DiskRenderCache;
+import org.monarchinitiative.vmvt.core.OutputFormat;
+import org.monarchinitiative.vmvt.core.VmvtGenerator;
+import org.monarchinitiative.vmvt.core.VmvtView;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VmvtBatchRendererTest {
+
+    private static VmvtGenerator vmvt;
+
+    private final String[] donorRefs = {"AAGGTCAGA", "CAGGTGAAG", "AAGGTAAGT", "CAGGTGAGT"};
+    private final String[] donorAlts = {"AAGATCAGA", "CATGTGAAG", "AAGGTAAGC", "CAGCTGAGA"};
+
+    @BeforeAll
+    public static void init() {
+        vmvt = new VmvtGenerator();
+    }
+
+    private List<VariantRequest> requests(int n) {
+        List<VariantRequest> requests = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            int j = i % donorRefs.length;
+            requests.add(new VariantRequest("var" + i, donorRefs[j], donorAlts[j]));
+        }
+        return requests;
+    }
+
+    @Test
+    public void testInputOrder() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        VmvtBatchRenderer renderer = new VmvtBatchRenderer(vmvt, executor, 3, true);
+        List<VariantRequest> requests = requests(50);
+        List<RenderedSvg> results = new ArrayList<>();
+        long n = renderer.render(requests.iterator(), VmvtView.TREKKER, results::add);
+        executor.shutdown();
+        assertEquals(50, n);
+        assertEquals(50, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            RenderedSvg result = results.get(i);
+            assertEquals(i, result.getIndex());
+            assertTrue(result.isSuccess());
+            VariantRequest request = requests.get(i);
+            assertEquals(vmvt.getDonorTrekkerSvg(request.getReference(), request.getAlternate()), result.getSvg());
+        }
+    }
+
+    @Test
+    public void testCompletionOrder() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        VmvtBatchRenderer renderer = new VmvtBatchRenderer(vmvt, executor, 5, false);
+        Set<Long> indices = new HashSet<>();
+        long n = renderer.render(requests(40).iterator(), VmvtView.WALKER, r -> indices.add(r.getIndex()));
+        executor.shutdown();
+        assertEquals(40, n);
+        assertEquals(40, indices.size());
+    }
+
+    @Test
+    public void testInvalidSequenceIsReported() throws IOException {
+        VmvtBatchRenderer renderer = new VmvtBatchRenderer(vmvt);
+        List<VariantRequest> requests = List.of(new VariantRequest("bad", "AAGGTCAG", "AAGATCAG", VmvtView.RULER),
+                new VariantRequest("good", "AAGGTCAGA", "AAGATCAGA", VmvtView.RULER));
+        List<RenderedSvg> results = new ArrayList<>();
+        renderer.render(requests.iterator(), results::add);
+        assertFalse(results.get(0).isSuccess());
+        assertNull(results.get(0).getSvg());
+        assertTrue(results.get(1).isSuccess());
+    }
+
+    /**
+     * An Error in a rendering thread must end the batch in both modes instead of leaving the caller waiting for a
+     * result that never arrives.
+     */
+    @Test
+    public void testErrorIsRethrown() {
+        VmvtGenerator failing = new VmvtGenerator() {
+            @Override
+            public String getSvg(String viewName, String reference, String alternate) {
+                throw new StackOverflowError("test");
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (boolean ordered : new boolean[]{true, false}) {
+                VmvtBatchRenderer renderer = new VmvtBatchRenderer(failing, executor, 3, ordered);
+                CompletionException e = assertTimeoutPreemptively(Duration.ofSeconds(10), () ->
+                        assertThrows(CompletionException.class,
+                                () -> renderer.render(requests(10).iterator(), VmvtView.WALKER, result -> { })));
+                assertTrue(e.getCause() instanceof StackOverflowError);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testGzip() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        VmvtBatchRenderer renderer = new VmvtBatchRenderer(vmvt, executor, 4, true, OutputFormat.SVGZ);
+        List<VariantRequest> requests = requests(8);
+        List<RenderedSvg> results = new ArrayList<>();
+        renderer.render(requests.iterator(), VmvtView.WALKER, results::add);
+        executor.shutdown();
+        assertEquals(8, results.size());
+        for (RenderedSvg result : results) {
+            assertEquals(OutputFormat.SVGZ, result.getFormat());
+            assertNull(result.getSvg());
+            VariantRequest request = requests.get((int) result.getIndex());
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(result.getBytes()))) {
+                String svg = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                assertEquals(vmvt.getSvg(VmvtView.WALKER, request.getReference(), request.getAlternate()), svg);
+            }
+        }
+    }
+
+    @Test
+    public void testPng() throws IOException {
+        VmvtBatchRenderer renderer = new VmvtBatchRenderer(vmvt, Runnable::run, 2, true, OutputFormat.PNG);
+        List<RenderedSvg> results = new ArrayList<>();
+        renderer.render(requests(3).iterator(), VmvtView.TREKKER, results::add);
+        assertEquals(3, results.size());
+        for (RenderedSvg result : results) {
+            assertTrue(result.isSuccess());
+            byte[] png = result.getBytes();
+            // PNG signature
+            assertEquals((byte) 0x89, png[0]);
+            assertEquals("PNG", new String(png, 1, 3, StandardCharsets.US_ASCII));
+        }
+    }
+
+    /**
+     * Several threads share the disk cache, and a second run over the same variants renders nothing.
+     */
+    @Test
+    public void testDiskCache(@TempDir Path dir) throws IOException {
+        DiskRenderCache cache = new DiskRenderCache(dir, 1L << 20);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        VmvtBatchRenderer renderer = new VmvtBatchRenderer(vmvt, executor, 8, true, OutputFormat.SVG, cache);
+        List<RenderedSvg> results = new ArrayList<>();
+        renderer.render(requests(40).iterator(), VmvtView.TREKKER, results::add);
+        DiskRenderCache nextRun = new DiskRenderCache(dir, 1L << 20);
+        renderer = new VmvtBatchRenderer(vmvt, executor, 8, true, OutputFormat.SVG, nextRun);
+        List<RenderedSvg> cached = new ArrayList<>();
+        renderer.render(requests(40).iterator(), VmvtView.TREKKER, cached::add);
+        executor.shutdown();
+        assertEquals(40, nextRun.getHits());
+        assertEquals(0, nextRun.getMisses());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(results.get(i).getSvg(), cached.get(i).getSvg());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.monarchinitiative.vmvt.core.dist;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+import org.monarchinitiative.vmvt.core.svg.SvgConstants.MotifType;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MotifRegistryTest {
+
+    @Test
+    public void testSharedInstances() {
+        assertSame(MotifRegistry.icMatrix(MotifType.DONOR), MotifRegistry.icMatrix(MotifType.DONOR));
+        assertSame(MotifRegistry.icMatrix(MotifType.DONOR), MotifRegistry.distribution(MotifType.DONOR).getSplicesite());
+        assertSame(MotifRegistry.icMatrix(MotifType.ACCEPTOR), MotifRegistry.distribution(MotifType.ACCEPTOR).getSplicesite());
+        assertEquals(9, MotifRegistry.heightMatrix(MotifType.DONOR).getMotifLength());
+        assertEquals(27, MotifRegistry.heightMatrix(MotifType.ACCEPTOR).getMotifLength());
+    }
+
+    @Test
+    public void testConcurrentAccess() {
+        List<ExactDistributionCalculator> distributions = IntStream.range(0, 64).parallel()
+                .mapToObj(i -> MotifRegistry.distribution(i % 2 == 0 ? MotifType.DONOR : MotifType.ACCEPTOR))
+                .distinct()
+                .collect(Collectors.toList());
+        assertEquals(2, distributions.size());
+    }
+
+    @Test
+    public void testTypeForLength() {
+        assertEquals(MotifType.DONOR, MotifRegistry.typeForLength(9));
+        assertEquals(MotifType.ACCEPTOR, MotifRegistry.typeForLength(27));
+        assertThrows(VmvtRuntimeException.class, () -> MotifRegistry.typeForLength(10));
+        assertThrows(VmvtRuntimeException.class, () -> MotifRegistry.icMatrix(MotifType.JASPAR));
+    }
+}
@@ -0,0 +1,59 @@
+package org.monarchinitiative.vmvt.core.dist;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.vmvt.core.PackedWindow;
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+import org.monarchinitiative.vmvt.core.pssm.DoubleMatrix;
+import org.monarchinitiative.vmvt.core.svg.SvgConstants.MotifType;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RiTableTest {
+    private static final double EPSILON = 0.00001;
+
+    @Test
+    public void testDonorTable() {
+        DoubleMatrix donor = DoubleMatrix.donor();
+        RiTable table = new RiTable(donor);
+        assertEquals(262_144, table.size());
+        SplittableRandom random = new SplittableRandom(7L);
+        char[] bases = {'A', 'C', 'G', 'T'};
+        for (int k = 0; k < 1_000; k++) {
+            char[] seq = new char[9];
+            for (int i = 0; i < seq.length; i++) {
+                seq[i] = bases[random.nextInt(4)];
+            }
+            String s = new String(seq);
+            long window = PackedWindow.pack(s);
+            double expected = donor.getIndividualSequenceInformation(s);
+            assertEquals(expected, table.ri(window), EPSILON);
+            assertEquals(expected, table.riByPackedIndex(table.packedIndex(window)), EPSILON);
+        }
+    }
+
+    /**
+     * The index of a sequence is the base-4 number whose digit i is the base at position i, as in the enumeration of
+     * {@link DistributionCalculator}.
+     */
+    @Test
+    public void testMatchesDistributionCalculator() {
+        DoubleMatrix donor = DoubleMatrix.donor();
+        RiTable table = new RiTable(donor);
+        double[] values = new DistributionCalculator(donor).getValueArray();
+        assertEquals(values.length, table.size());
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], table.riByPackedIndex(i), EPSILON);
+        }
+    }
+
+    @Test
+    public void testLengths() {
+        assertThrows(VmvtRuntimeException.class, () -> new RiTable(DoubleMatrix.acceptor()));
+        RiTable table = MotifRegistry.donorRiTable();
+        assertThrows(VmvtRuntimeException.class, () -> table.ri(PackedWindow.pack("AAGGTCAG")));
+        assertSame(table, MotifRegistry.donorRiTable());
+        assertSame(MotifRegistry.icMatrix(MotifType.DONOR), table.getSplicesite());
+    }
+}
@@ -0,0 +1,53 @@
+package org.monarchinitiative.vmvt.core.dist;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.vmvt.core.pssm.DoubleMatrix;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpliceDistributionsTest {
+
+    /**
+     * If this test fails, the donor or acceptor matrix has changed and the bundled distributions need to be
+     * regenerated, see {@link SpliceDistributions}.
+     */
+    @Test
+    public void testBundledDistributionsAreUpToDate() {
+        assertSameDistribution(new ExactDistributionCalculator(DoubleMatrix.donor()), SpliceDistributions.donor());
+        assertSameDistribution(new ExactDistributionCalculator(DoubleMatrix.acceptor()), SpliceDistributions.acceptor());
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        ExactDistributionCalculator dist = new ExactDistributionCalculator(DoubleMatrix.donor());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dist.write(out);
+        ExactDistributionCalculator copy = ExactDistributionCalculator.read(new ByteArrayInputStream(out.toByteArray()), DoubleMatrix.donor());
+        assertSameDistribution(dist, copy);
+    }
+
+    @Test
+    public void testDifferentMatrixIsRejected() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ExactDistributionCalculator(DoubleMatrix.donor()).write(out);
+        assertThrows(IOException.class,
+                () -> ExactDistributionCalculator.read(new ByteArrayInputStream(out.toByteArray()), DoubleMatrix.acceptor()));
+        // the bundled donor distribution cannot be used for the acceptor, so it is recalculated
+        ExactDistributionCalculator dist = SpliceDistributions.load(SpliceDistributions.DONOR_RESOURCE, DoubleMatrix.acceptor());
+        assertSameDistribution(new ExactDistributionCalculator(DoubleMatrix.acceptor()), dist);
+    }
+
+    private static void assertSameDistribution(ExactDistributionCalculator expected, ExactDistributionCalculator actual) {
+        assertEquals(expected.getSplicesite().getMotifLength(), actual.getSplicesite().getMotifLength());
+        assertEquals(expected.getMean(), actual.getMean());
+        assertEquals(expected.getRiMin(), actual.getRiMin());
+        assertEquals(expected.getBinWidth(), actual.getBinWidth());
+        assertArrayEquals(expected.getRiProbabilities(), actual.getRiProbabilities());
+        assertArrayEquals(expected.getDeltaValues(), actual.getDeltaValues());
+        assertArrayEquals(expected.getDeltaProbabilities(), actual.getDeltaProbabilities());
+    }
+}
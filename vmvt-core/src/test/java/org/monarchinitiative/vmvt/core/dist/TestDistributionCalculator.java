@@ -9,7 +9,13 @@ import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestDistributionCalculator {
 
@@ -47,4 +53,117 @@ public class TestDistributionCalculator {
             e.printStackTrace();
         }
     }
+
+    @Test
+    public void testSameSeedGivesSameDistribution() {
+        DoubleMatrix acceptor = DoubleMatrix.acceptor();
+        DistributionCalculator dcal1 = new DistributionCalculator(acceptor, 20_000, 7L);
+        DistributionCalculator dcal2 = new DistributionCalculator(acceptor, 20_000, 7L);
+        assertArrayEquals(dcal1.getValueArray(), dcal2.getValueArray());
+        assertArrayEquals(dcal1.getDeltaArray(), dcal2.getDeltaArray());
+        assertEquals(20_000, dcal1.getValues().size());
+        assertEquals(dcal1.getDeltaArray()[123], dcal1.getDeltas().get(123));
+    }
+
+    @Test
+    public void testDonorIsEnumerated() {
+        DistributionCalculator dcal = new DistributionCalculator(DoubleMatrix.donor());
+        assertEquals(262_144, dcal.getValues().size());
+        // AAAAAAAAA is the first sequence, TTTTTTTTT the last one
+        assertEquals(DoubleMatrix.donor().getIndividualSequenceInformation("AAAAAAAAA"), dcal.getValues().get(0), 0.000001);
+        assertEquals(DoubleMatrix.donor().getIndividualSequenceInformation("TTTTTTTTT"), dcal.getValues().get(262_143), 0.000001);
+    }
+
+    /**
+     * For the donor, DistributionCalculator enumerates all sequences, so that the mean and the distribution of
+     * R_i must agree with the exact calculation.
+     */
+    @Test
+    public void testExactDonorDistributionMatchesEnumeration() {
+        DoubleMatrix donor = DoubleMatrix.donor();
+        DistributionCalculator dcal = new DistributionCalculator(donor);
+        ExactDistributionCalculator exact = new ExactDistributionCalculator(donor);
+        assertEquals(dcal.getMean(), exact.getMean(), 0.000001);
+        List<Double> values = dcal.getValues();
+        for (double threshold : new double[]{-10.0, 0.0, 5.0, 8.0}) {
+            double fraction = values.stream().filter(v -> v <= threshold).count() / (double) values.size();
+            // the grid spacing is 0.01 bits, so allow for some discretization error
+            assertEquals(fraction, exact.riCumulativeProbability(threshold), 0.01);
+        }
+        double total = Arrays.stream(exact.getRiProbabilities()).sum();
+        assertEquals(1.0, total, 0.000001);
+    }
+
+    @Test
+    public void testExactDeltaDistribution() {
+        for (DoubleMatrix site : List.of(DoubleMatrix.donor(), DoubleMatrix.acceptor())) {
+            ExactDistributionCalculator exact = new ExactDistributionCalculator(site);
+            assertEquals(1.0, Arrays.stream(exact.getDeltaProbabilities()).sum(), 0.000001);
+            // for every SNV from b to b', there is one from b' to b, so the distribution is symmetric
+            assertEquals(-exact.getMinDelta(), exact.getMaxDelta(), 0.000001);
+            assertEquals(10, Math.round(exact.getMaxDelta()));
+            assertEquals(1.0, exact.deltaCumulativeProbability(exact.getMaxDelta()), 0.000001);
+            double below = exact.deltaCumulativeProbability(-0.000001);
+            double above = 1.0 - exact.deltaCumulativeProbability(0.000001);
+            assertEquals(below, above, 0.000001);
+        }
+    }
+
+    @Test
+    public void testExactDistributionOfShortMotif() {
+        double[][] ic = {{2.0, 0.0, 0.5}, {0.0, 0.0, 0.5}, {0.0, 1.0, 0.5}, {0.0, 1.0, 0.5}};
+        ExactDistributionCalculator exact = new ExactDistributionCalculator(new DoubleMatrix(ic), 0.5);
+        // R_i is 0.5 (p=3/8), 1.5 (p=3/8), 2.5 (p=1/8), or 3.5 (p=1/8)
+        assertEquals(0.5, exact.getRiMin(), 0.000001);
+        assertEquals(3.0 / 8.0, exact.riCumulativeProbability(0.5), 0.000001);
+        assertEquals(6.0 / 8.0, exact.riCumulativeProbability(1.5), 0.000001);
+        assertEquals(7.0 / 8.0, exact.riCumulativeProbability(2.5), 0.000001);
+        assertEquals(1.0, exact.riCumulativeProbability(3.5), 0.000001);
+        assertEquals(1.5, exact.getMean(), 0.000001);
+        assertTrue(exact.getMaxDelta() > 1.99);
+    }
+
+    @Test
+    public void testDeltaHistogram() {
+        DeltaHistogram exact = new ExactDistributionCalculator(DoubleMatrix.donor()).getDeltaHistogram();
+        assertEquals(DeltaHistogram.DEFAULT_BIN_COUNT, exact.getBinCount());
+        assertEquals(1.0, exact.getTotalCount(), 0.000001);
+        // the distribution is symmetric
+        assertEquals(0.0, exact.getMean(), 0.000001);
+        assertEquals(-exact.getMin(), exact.getMax(), 0.000001);
+        DistributionCalculator dcal = new DistributionCalculator(DoubleMatrix.donor());
+        DeltaHistogram sampled = dcal.getDeltaHistogram();
+        assertEquals(dcal.getDeltas().size(), sampled.getTotalCount(), 0.000001);
+        double cumulative = 0.0;
+        for (int i = 0; i < sampled.getBinCount(); i++) {
+            cumulative += sampled.getCount(i);
+            assertEquals(cumulative, sampled.getCumulativeCount(i), 0.000001);
+            assertTrue(sampled.getCount(i) <= sampled.getMaxCount());
+        }
+    }
+
+    @Test
+    public void testPercentileAndTailProbability() {
+        ExactDistributionCalculator exact = new ExactDistributionCalculator(DoubleMatrix.acceptor());
+        double[] values = exact.getDeltaValues();
+        double[] probabilities = exact.getDeltaProbabilities();
+        for (double delta : new double[]{-20.0, -3.3, 0.0, values[17], 1.234, values[values.length - 2], 20.0}) {
+            double le = 0.0;
+            double ge = 0.0;
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] <= delta) {
+                    le += probabilities[i];
+                }
+                if (values[i] >= delta) {
+                    ge += probabilities[i];
+                }
+            }
+            assertEquals(100.0 * le, exact.percentile(delta), 0.000001);
+            assertEquals(ge, exact.tailProbability(delta), 0.000001);
+        }
+        assertEquals(100.0, exact.percentile(exact.getMaxDelta()));
+        assertEquals(1.0, exact.tailProbability(exact.getMinDelta()));
+        assertEquals(0.0, exact.riCumulativeProbability(exact.getRiMin() - 1.0));
+        assertEquals(1.0, exact.riCumulativeProbability(100.0));
+    }
 }
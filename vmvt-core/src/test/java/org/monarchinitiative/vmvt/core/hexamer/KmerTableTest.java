@@ -0,0 +1,102 @@
+package org.monarchinitiative.vmvt.core.hexamer;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KmerTableTest {
+
+    private static final double EPSILON = 0.000001;
+
+    private final Map<String, Double> hexamerMap = FileKMerParser.hexamerMap();
+
+    private final KmerTable hexamerTable = new KmerTable(hexamerMap, 6);
+
+    /** The scores as they were calculated with the map before the KmerTable was introduced. */
+    private double mapScore(String sequence) {
+        return KmerFeatureCalculator.slidingWindow(sequence.toUpperCase(), 6)
+                .map(kmer -> hexamerMap.getOrDefault(kmer, Double.NaN))
+                .reduce(Double::sum)
+                .orElse(Double.NaN);
+    }
+
+    @Test
+    public void testSingleKmer() {
+        for (Map.Entry<String, Double> entry : hexamerMap.entrySet()) {
+            assertEquals(entry.getValue(), hexamerTable.score(entry.getKey()), EPSILON);
+            assertEquals(entry.getValue(), hexamerTable.score(entry.getKey().toLowerCase()), EPSILON);
+        }
+        assertTrue(Double.isNaN(hexamerTable.score("ACGTNA")));
+        assertTrue(Double.isNaN(hexamerTable.score("ACGTA")));
+    }
+
+    @Test
+    public void testSumWindowsMatchesMap() {
+        Random random = new Random(42);
+        String bases = "ACGTacgt";
+        for (int n = 0; n < 1000; n++) {
+            int len = 1 + random.nextInt(20);
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < len; i++) {
+                sb.append(bases.charAt(random.nextInt(bases.length())));
+            }
+            String seq = sb.toString();
+            double expected = mapScore(seq);
+            double observed = hexamerTable.sumWindows(seq);
+            if (Double.isNaN(expected)) {
+                assertTrue(Double.isNaN(observed), seq);
+            } else {
+                assertEquals(expected, observed, EPSILON, seq);
+            }
+        }
+    }
+
+    @Test
+    public void testNonAcgtGivesNaN() {
+        assertTrue(Double.isNaN(hexamerTable.sumWindows("cctggNtatat")));
+        assertTrue(Double.isNaN(hexamerTable.sumWindows("cctgg")));
+    }
+
+    @Test
+    public void testScoreWindows() {
+        String seq = "CCTGGCTATAT";
+        double[] scores = new double[6];
+        hexamerTable.scoreWindows(seq, scores, 0.0);
+        for (int i = 0; i < 6; i++) {
+            assertEquals(hexamerMap.get(seq.substring(i, i + 6)), scores[i], EPSILON);
+        }
+        hexamerTable.scoreWindows("CCTGGNTATAT", scores, 0.0);
+        for (int i = 0; i < 6; i++) {
+            assertEquals(0.0, scores[i], EPSILON);
+        }
+    }
+
+    @Test
+    public void testKmerLengthLimit() {
+        assertThrows(VmvtRuntimeException.class, () -> new KmerTable(hexamerMap, KmerTable.MAX_K + 1));
+        assertThrows(VmvtRuntimeException.class, () -> new KmerTable(hexamerMap, 0));
+    }
+
+    /** As before the KmerTable was introduced, windows with lower-case characters score 0.0 in the ESE graphics. */
+    @Test
+    public void testKmerScoreArrayIsCaseSensitive() {
+        KmerFeatureCalculator calculator = new HexamerFeatureCalculator(hexamerMap);
+        String seq = "CCTGGCTATAT";
+        double[] upper = calculator.kmerScoreArray(seq);
+        for (int i = 0; i < 6; i++) {
+            assertEquals(hexamerMap.get(seq.substring(i, i + 6)), upper[i], EPSILON);
+        }
+        double[] lower = calculator.kmerScoreArray("cCTGGCTATAT");
+        assertEquals(0.0, lower[0], EPSILON);
+        for (int i = 1; i < 6; i++) {
+            assertEquals(upper[i], lower[i], EPSILON);
+        }
+        for (double score : calculator.kmerScoreArray(seq.toLowerCase())) {
+            assertEquals(0.0, score, EPSILON);
+        }
+    }
+}
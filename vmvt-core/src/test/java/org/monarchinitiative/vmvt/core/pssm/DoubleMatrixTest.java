@@ -4,6 +4,9 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
 
 public class DoubleMatrixTest {
 
@@ -53,4 +56,30 @@ public class DoubleMatrixTest {
         ic = DoubleMatrix.calculateIC(0.05);
         System.out.println(ic);
     }
+
+    /**
+     * Each entry of the saturation mutagenesis grid is the difference of the R_i of the reference and of the
+     * sequence with the substitution.
+     */
+    @Test
+    public void testSaturationMutagenesis() {
+        DoubleMatrix donor = DoubleMatrix.donor();
+        String ref = "AAGGTCAGA";
+        double refRi = donor.getIndividualSequenceInformation(ref);
+        double[][] grid = donor.saturationMutagenesis(ref.toLowerCase());
+        assertEquals(9, grid.length);
+        char[] bases = {'A', 'C', 'G', 'T'};
+        for (int i = 0; i < grid.length; i++) {
+            assertEquals(4, grid[i].length);
+            for (int b = 0; b < 4; b++) {
+                char[] mutant = ref.toCharArray();
+                mutant[i] = bases[b];
+                double expected = refRi - donor.getIndividualSequenceInformation(new String(mutant));
+                assertEquals(expected, grid[i][b], EPSILON);
+            }
+        }
+        assertEquals(0.0, grid[3][2], 0.0);
+        assertThrows(VmvtRuntimeException.class, () -> donor.saturationMutagenesis("AAGGTCAG"));
+        assertThrows(VmvtRuntimeException.class, () -> donor.saturationMutagenesis("AAGNTCAGA"));
+    }
 }
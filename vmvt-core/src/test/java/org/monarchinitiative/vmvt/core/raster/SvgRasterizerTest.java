@@ -0,0 +1,100 @@
+package org.monarchinitiative.vmvt.core.raster;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.vmvt.core.except.VmvtRuntimeException;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SvgRasterizerTest {
+
+    private static final String HEADER = "<svg width=\"40\" height=\"20\" xmlns=\"http://www.w3.org/2000/svg\">\n";
+
+    private static int alpha(BufferedImage image, int x, int y) {
+        return image.getRGB(x, y) >>> 24;
+    }
+
+    private static int rgb(BufferedImage image, int x, int y) {
+        return image.getRGB(x, y) & 0xFFFFFF;
+    }
+
+    @Test
+    public void testRectangles() {
+        String svg = HEADER +
+                "<rect x=\"0\" y=\"0\" width=\"10\" height=\"10\" style=\"fill:#00A087\" />\n" +
+                "<g transform='translate(20,0)'><rect x=\"0\" y=\"0\" width=\"10\" height=\"10\" fill=\"#e64b35\"/></g>\n" +
+                // rectangles with negative height are not drawn
+                "<rect x=\"30\" y=\"10\" width=\"10\" height=\"-5\"/>\n" +
+                "</svg>\n";
+        BufferedImage image = new SvgRasterizer().rasterize(svg);
+        assertEquals(40, image.getWidth());
+        assertEquals(20, image.getHeight());
+        assertEquals(0x00A087, rgb(image, 5, 5));
+        assertEquals(255, alpha(image, 5, 5));
+        assertEquals(0xe64b35, rgb(image, 25, 5));
+        // transparent background
+        assertEquals(0, alpha(image, 15, 15));
+        assertEquals(0, alpha(image, 35, 7));
+    }
+
+    @Test
+    public void testScaleAndOpacity() {
+        String svg = HEADER +
+                "<rect x=\"0\" y=\"0\" width=\"10\" height=\"10\" fill-opacity=\"0.4\" fill=\"black\"/>\n" +
+                "</svg>\n";
+        BufferedImage image = new SvgRasterizer(2.0).rasterize(svg);
+        assertEquals(80, image.getWidth());
+        assertEquals(40, image.getHeight());
+        assertEquals(102, alpha(image, 18, 18));
+        assertEquals(0, alpha(image, 22, 22));
+    }
+
+    @Test
+    public void testTextAndLines() {
+        String svg = HEADER +
+                "<style>\n  text { font: 24px courier, monospace; }\n  text.t12 { font: 12px courier, monospace; }\n</style>\n" +
+                "<text x=\"0\" y=\"18\" fill=\"#4dbbd5\">X</text>\n" +
+                "<line x1=\"30\" y1=\"0\" x2=\"30\" y2=\"20\" stroke=\"black\"/>\n" +
+                "<g transform='translate(10,10) scale(1,0)'><text x=\"0\" y=\"0\" fill=\"black\">A</text></g>\n" +
+                "</svg>\n";
+        BufferedImage image = new SvgRasterizer().rasterize(svg);
+        boolean foundText = false;
+        for (int x = 0; x < 15 && !foundText; x++) {
+            for (int y = 0; y < 20; y++) {
+                if (alpha(image, x, y) == 255 && rgb(image, x, y) == 0x4dbbd5) {
+                    foundText = true;
+                    break;
+                }
+            }
+        }
+        assertTrue(foundText);
+        assertTrue(alpha(image, 30, 10) > 0);
+    }
+
+    @Test
+    public void testParseTransform() {
+        AffineTransform transform = SvgRasterizer.parseTransform("translate(10,20)  scale(1,2)  rotate(180)");
+        Point2D p = transform.transform(new Point2D.Double(1, 1), null);
+        assertEquals(9.0, p.getX(), 1e-9);
+        assertEquals(18.0, p.getY(), 1e-9);
+    }
+
+    @Test
+    public void testParseColor() {
+        assertEquals(new Color(0x4dbbd5), SvgRasterizer.parseColor("#4dbbd5"));
+        assertEquals(new Color(4, 5, 6), SvgRasterizer.parseColor("rgb(4, 5, 6)"));
+        assertEquals(Color.BLACK, SvgRasterizer.parseColor("black"));
+        assertNull(SvgRasterizer.parseColor("none"));
+        assertThrows(VmvtRuntimeException.class, () -> SvgRasterizer.parseColor("chartreuse"));
+    }
+
+    @Test
+    public void testRelativePath() {
+        Rectangle bounds = SvgRasterizer.parsePath("M201 100 l0 205").getBounds();
+        assertEquals(new Rectangle(201, 100, 0, 205), bounds);
+    }
+}
@@ -0,0 +1,57 @@
+package org.monarchinitiative.vmvt.core.svg;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.vmvt.core.dist.MotifRegistry;
+import org.monarchinitiative.vmvt.core.pssm.DoubleMatrix;
+import org.monarchinitiative.vmvt.core.svg.logo.SvgSequenceLogo;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SvgFragmentCacheTest {
+
+    private static String write(SvgComponent component, int starty) throws IOException {
+        StringWriter swriter = new StringWriter();
+        component.write(new SvgWriter(swriter), starty);
+        return swriter.toString();
+    }
+
+    @Test
+    public void testFragmentIsRenderedOncePerPosition() throws IOException {
+        SvgFragmentCache cache = new SvgFragmentCache();
+        AtomicInteger renderings = new AtomicInteger();
+        SvgFragmentCache.Fragment fragment = (writer, y) -> {
+            renderings.incrementAndGet();
+            writer.line(0, y, 10, y, "black");
+        };
+        StringWriter swriter = new StringWriter();
+        SvgWriter writer = new SvgWriter(swriter);
+        cache.write(writer, 5, fragment);
+        cache.write(writer, 5, fragment);
+        cache.write(writer, 7, fragment);
+        assertEquals(2, renderings.get());
+        assertEquals(2, cache.size());
+        String line5 = "<line x1=\"0\" y1=\"5\" x2=\"10\" y2=\"5\" stroke=\"black\"/>\n";
+        String line7 = "<line x1=\"0\" y1=\"7\" x2=\"10\" y2=\"7\" stroke=\"black\"/>\n";
+        assertEquals(line5 + line5 + line7, swriter.toString());
+    }
+
+    /**
+     * The shared logo of the registry matrix must be identical to a logo that is rendered from scratch.
+     */
+    @Test
+    public void testSharedLogoIsIdenticalToUncachedLogo() throws IOException {
+        DoubleMatrix donorHeight = MotifRegistry.heightMatrix(SvgConstants.MotifType.DONOR);
+        SvgSequenceLogo shared = SvgSequenceLogo.donor(donorHeight);
+        assertSame(shared, SvgSequenceLogo.donor(donorHeight));
+        SvgSequenceLogo uncached = new SvgSequenceLogo(donorHeight, 150);
+        for (int y : new int[]{0, 130}) {
+            assertEquals(write(uncached, y), write(shared, y));
+            assertEquals(write(uncached, y), write(shared, y));
+        }
+        assertNotSame(shared, SvgSequenceLogo.donor(DoubleMatrix.donorHeightMatrix()));
+    }
+}
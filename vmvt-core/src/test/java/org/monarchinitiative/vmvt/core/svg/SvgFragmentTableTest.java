@@ -0,0 +1,71 @@
+package org.monarchinitiative.vmvt.core.svg;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.vmvt.core.dist.MotifRegistry;
+import org.monarchinitiative.vmvt.core.pssm.DoubleMatrix;
+import org.monarchinitiative.vmvt.core.svg.walker.SvgRefAltSequenceWalker;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SvgFragmentTableTest {
+
+    private static String write(SvgComponent component, int starty, boolean compact) throws IOException {
+        StringWriter swriter = new StringWriter();
+        SvgWriter writer = new SvgWriter(swriter, compact, 2);
+        component.write(writer, starty);
+        writer.writeGlyphDefinitions();
+        return swriter.toString();
+    }
+
+    @Test
+    public void testBasesAreRenderedOncePerPosition() throws IOException {
+        SvgFragmentTable table = new SvgFragmentTable(2);
+        AtomicInteger renderings = new AtomicInteger();
+        SvgFragmentTable.Fragment fragment = (writer, pos, base, y) -> {
+            renderings.incrementAndGet();
+            writer.text(10 * pos, y, "black", "ACGT".substring(base, base + 1));
+        };
+        StringWriter swriter = new StringWriter();
+        SvgWriter writer = new SvgWriter(swriter);
+        SvgFragmentTable.Fragments fragments = table.fragments(writer, 5, fragment);
+        fragments.write(writer, 1, 2);
+        fragments.write(writer, 0, 3);
+        assertSame(fragments, table.fragments(writer, 5, fragment));
+        assertEquals(8, renderings.get());
+        assertEquals(1, table.size());
+        StringWriter expected = new StringWriter();
+        new SvgWriter(expected).text(10, 5, "black", "G").text(0, 5, "black", "T");
+        assertEquals(expected.toString(), swriter.toString());
+    }
+
+    /**
+     * Walkers of the registry matrices write their letters from the shared tables, which must give the same SVG as
+     * a walker of an equal matrix that writes each letter directly, also in compact mode.
+     */
+    @Test
+    public void testWalkerFromTableIsIdenticalToDirectWalker() throws IOException {
+        DoubleMatrix donor = MotifRegistry.icMatrix(SvgConstants.MotifType.DONOR);
+        DoubleMatrix acceptor = MotifRegistry.icMatrix(SvgConstants.MotifType.ACCEPTOR);
+        String[][] variants = {
+                {"AAGGTCAGA", "AAGATCAGA"},
+                {"AAGGTCAGA", "TTCCAGTCT"}
+        };
+        for (boolean compact : new boolean[]{false, true}) {
+            for (String[] variant : variants) {
+                SvgComponent shared = SvgRefAltSequenceWalker.donorWalker(variant[0], variant[1], donor);
+                SvgComponent direct = SvgRefAltSequenceWalker.donorWalker(variant[0], variant[1], DoubleMatrix.donor());
+                assertEquals(write(direct, 20, compact), write(shared, 20, compact));
+                assertEquals(write(direct, 20, compact), write(shared, 20, compact));
+            }
+            String ref = "cctggctggcggcaccgggtgccagGT";
+            String alt = "cctggctggcggcaccgggtgccggGT";
+            SvgComponent shared = SvgRefAltSequenceWalker.acceptorWalker(ref, alt, acceptor);
+            SvgComponent direct = SvgRefAltSequenceWalker.acceptorWalker(ref, alt, DoubleMatrix.acceptor());
+            assertEquals(write(direct, 0, compact), write(shared, 0, compact));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.monarchinitiative.vmvt.core.svg;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.vmvt.core.VmvtGenerator;
+import org.monarchinitiative.vmvt.core.VmvtView;
+import org.monarchinitiative.vmvt.core.pssm.DoubleMatrix;
+import org.monarchinitiative.vmvt.core.svg.icbar.SvgMutagenesisHeatmap;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SvgMutagenesisHeatmapTest {
+    private final String refDonor = "AAGGTCAGA";
+    private final String altDonor = "AAGATCAGA";
+
+    private final String refAcceptor = "cctggctggcggcaccgggtgccagGT";
+    /** chr10-90768644-A-G, -2 position */
+    private final String altAcceptor = "cctggctggcggcaccgggtgccggGT";
+
+    @Test
+    public void testDonorCells() throws IOException {
+        SvgMutagenesisHeatmap heatmap = SvgMutagenesisHeatmap.donor(refDonor, altDonor, DoubleMatrix.donor());
+        StringWriter out = new StringWriter();
+        heatmap.write(new SvgWriter(out), 100);
+        String svg = out.toString();
+        // one cell for each position and base, one of which is the outlined substitution of the variant
+        assertEquals(9 * 4, svg.split("<rect").length - 1);
+        assertEquals(1, svg.split("stroke-width:1.5").length - 1);
+        // G>A at the +1 position removes nearly 2 bits
+        assertTrue(heatmap.getGrid()[3][0] > 1.5);
+    }
+
+    @Test
+    public void testWalkerMutagenesisDonor() {
+        VmvtGenerator vmvt = new VmvtGenerator(true);
+        String svg = vmvt.getSvg(VmvtView.WALKER_WITH_MUTAGENESIS, refDonor, altDonor);
+        writeSvg(svg, "target/donorWalkerMutagenesis.svg");
+    }
+
+    @Test
+    public void testWalkerMutagenesisAcceptor() {
+        VmvtGenerator vmvt = new VmvtGenerator(true);
+        String svg = vmvt.getSvg(VmvtView.WALKER_WITH_MUTAGENESIS, refAcceptor, altAcceptor);
+        assertTrue(svg.contains("stroke-width:1.5"));
+        writeSvg(svg, "target/acceptorWalkerMutagenesis.svg");
+    }
+
+    private static void writeSvg(String svg, String path) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(path))) {
+            writer.write(svg);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.monarchinitiative.vmvt.core.svg;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The numbers written by {@link SvgWriter} must be identical to the numbers written by {@link String#format}.
+ */
+public class SvgWriterTest {
+
+    private static String number(double value, int decimals) throws IOException {
+        StringWriter swriter = new StringWriter();
+        new SvgWriter(swriter).number(value, decimals);
+        return swriter.toString();
+    }
+
+    private static void assertFormattedLikeFormatter(double value, int decimals) throws IOException {
+        String expected = String.format(Locale.ROOT, "%." + decimals + "f", value);
+        assertEquals(expected, number(value, decimals), "value " + value + ", " + decimals + " decimals");
+    }
+
+    @Test
+    public void testIntegers() throws IOException {
+        int[] values = {0, 1, -1, 9, 10, 42, -300, 123456789, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (int v : values) {
+            StringWriter swriter = new StringWriter();
+            new SvgWriter(swriter).number(v);
+            assertEquals(Integer.toString(v), swriter.toString());
+        }
+        StringWriter swriter = new StringWriter();
+        new SvgWriter(swriter).number(Long.MIN_VALUE);
+        assertEquals(Long.toString(Long.MIN_VALUE), swriter.toString());
+    }
+
+    @Test
+    public void testEdgeCases() throws IOException {
+        double[] values = {0.0, -0.0, 0.5, 1.5, 2.5, -2.5, 0.125, 0.0625, 1e-7, -1e-7, 4.35, 0.045, 1.005,
+                999_999_999.9999999, 1e9, 1.23456789e15, -3.0e20, 1e-300, Double.MIN_VALUE};
+        for (double v : values) {
+            for (int d = 0; d <= 9; d++) {
+                assertFormattedLikeFormatter(v, d);
+            }
+        }
+        assertEquals("NaN", number(Double.NaN, 2));
+        assertEquals("Infinity", number(Double.POSITIVE_INFINITY, 2));
+        assertEquals("-Infinity", number(Double.NEGATIVE_INFINITY, 2));
+    }
+
+    @Test
+    public void testRandomValues() throws IOException {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            double v = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(8));
+            assertFormattedLikeFormatter(v, random.nextInt(7));
+        }
+        // values with few decimal places are most likely to be ties
+        for (int i = 0; i < 100_000; i++) {
+            double v = random.nextInt(2_000_000) / 1000.0 - 1000;
+            assertFormattedLikeFormatter(v, random.nextInt(3));
+        }
+    }
+
+    @Test
+    public void testElements() throws IOException {
+        StringWriter swriter = new StringWriter();
+        SvgWriter writer = new SvgWriter(swriter);
+        writer.line(1, 2.5, 3, 4.25, "black");
+        writer.append("<g transform='").translate(7, 8).append("'>").text(1, 2, "red", "A").endGroup();
+        String expected = String.format(Locale.ROOT, "<line x1=\"%d\" y1=\"%f\" x2=\"%d\" y2=\"%f\" stroke=\"%s\"/>\n",
+                1, 2.5, 3, 4.25, "black") +
+                "<g transform='translate(7,8)'><text x=\"1\" y=\"2\" fill=\"red\">A</text></g>";
+        assertEquals(expected, swriter.toString());
+    }
+
+    @Test
+    public void testCompactNumbers() throws IOException {
+        StringWriter swriter = new StringWriter();
+        SvgWriter writer = new SvgWriter(swriter, true, 2);
+        for (double v : new double[]{35.0, 34.799678, -0.001, 0.004999, 0.005, 2.5, 1e12, -3.10, 1e-300}) {
+            writer.number(v).append(' ');
+        }
+        // numbers with an explicit number of decimal places are not trimmed
+        writer.number(2.5, 2);
+        assertEquals("35 34.8 0 0 0.01 2.5 1000000000000 -3.1 0 2.50", swriter.toString());
+    }
+
+    /** Components can still be written to a plain {@link Writer}. */
+    @Test
+    public void testComponentWriterAdapter() throws IOException {
+        SvgComponent component = new SvgComponent() {
+            @Override
+            public void write(SvgWriter writer, int starty) throws IOException {
+                writer.append("<g y=\"").number(starty).append("\"/>");
+            }
+
+            @Override
+            public int height() {
+                return 1;
+            }
+        };
+        StringWriter swriter = new StringWriter();
+        component.write((Writer) swriter, 7);
+        assertEquals("<g y=\"7\"/>", swriter.toString());
+    }
+}